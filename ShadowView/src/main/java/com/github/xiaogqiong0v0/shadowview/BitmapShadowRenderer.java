@@ -0,0 +1,47 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.graphics.Canvas;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:12
+ * 说明：遮罩渲染
+ * 阴影在软件画布上渲染为遮罩并放入 {@link ShadowCache} 绘制时只需一次 drawBitmap
+ * 软阴影为 ALPHA_8 使用画笔颜色着色 shadowStretch 时使用点九拉伸遮罩
+ * 软阴影的模糊由 {@link ShadowRenderers#setBlurEngine(int)} 决定 大模糊半径时遮罩缩小生成 绘制时双线性放大 大遮罩分带并行生成
+ * 硬阴影的八块渐变一次绘制到 ARGB_8888 遮罩 颜色变化时重新获取
+ */
+class BitmapShadowRenderer implements ShadowRenderer {
+    @Override
+    public int getType() {
+        return ShadowRenderers.RENDERER_BITMAP;
+    }
+
+    @Override
+    public boolean isSupported(ShadowParams params, boolean hardwareAccelerated) {
+        return true;
+    }
+
+    @Override
+    public void prepare(ShadowParams params) {
+        params.obtainShadowMask();
+    }
+
+    @Override
+    public void drawShadow(ShadowParams params, Canvas canvas) {
+        if (!params.drawShadowMask(canvas)) {
+            params.drawShadowPath(canvas);
+        }
+    }
+
+    @Override
+    public void drawBorder(ShadowParams params, Canvas canvas) {
+        params.drawBorderPath(canvas);
+    }
+
+    @Override
+    public void release(ShadowParams params) {
+    }
+}
@@ -0,0 +1,203 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.RectF;
+import android.os.Build;
+import android.util.DisplayMetrics;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import com.github.xiaogqiong0v0.shadowview.core.MaskBlur;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:12
+ * 说明：使用系统 elevation 阴影 由 RenderThread 绘制 自身不绘制阴影 API 21+
+ * 只支持 外阴影 软阴影 无张度 无水平偏移 无贴边裁剪 统一圆角
+ * API 28 以下系统阴影只能为黑色
+ * Outline 由 {@link ShadowOutline} 提供 与 Outline 裁剪共用
+ * 系统只绘制 spot 阴影 ambient 阴影颜色设为透明 spot 阴影的颜色 alpha 会乘以主题的 spotShadowAlpha(默认 0.19) 这里先除掉
+ * 光源按系统默认的几何近似 位于屏幕水平中央 顶部 高 600dp 半径 800dp
+ * 高度 z 的 spot 阴影相对 View 偏移 (位置 - 光源) * z / (lightZ - z) 并放大同样的比例 半影宽度 2 * lightRadius * z / (lightZ - z)
+ * 半影按圆盘投影 方差与高斯模糊相同时半影宽度为 4 sigma 由此反推 elevation
+ * 软件画布(如 View.draw(Canvas) 截图)没有系统阴影 使用路径绘制
+ */
+@RequiresApi(Build.VERSION_CODES.LOLLIPOP)
+class ElevationShadowRenderer implements ShadowRenderer {
+    // 系统 dimens.xml 中 light_y light_z light_radius 的默认值 dp 不是公开属性
+    private static final float LIGHT_Y_DP = 0;
+    private static final float LIGHT_Z_DP = 600;
+    private static final float LIGHT_RADIUS_DP = 800;
+    // 主题没有设置时的 spotShadowAlpha
+    private static final float DEFAULT_SPOT_SHADOW_ALPHA = 0.19f;
+    // 阴影 alpha 允许的误差
+    private static final float ALPHA_TOLERANCE = 2 / 255f;
+    private static final int[] SPOT_SHADOW_ALPHA_ATTRS = {android.R.attr.spotShadowAlpha};
+    // 只在主线程访问
+    private static final int[] tempLocation = new int[2];
+    @Nullable
+    private static Resources.Theme spotShadowAlphaTheme;
+    private static float spotShadowAlpha = DEFAULT_SPOT_SHADOW_ALPHA;
+
+    private final PathShadowRenderer softwareRenderer = new PathShadowRenderer();
+    private boolean softwarePrepared;
+    private boolean applied;
+    private float savedElevation;
+    private int savedSpotShadowColor = Color.BLACK;
+    private int savedAmbientShadowColor = Color.BLACK;
+
+    @Override
+    public int getType() {
+        return ShadowRenderers.RENDERER_ELEVATION;
+    }
+
+    @Override
+    public boolean isSupported(ShadowParams params, boolean hardwareAccelerated) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP || !hardwareAccelerated) {
+            return false;
+        }
+        if (params.shadowInset || params.shadowType != ShadowParams.SHADOW_TYPE_SOFT
+                || params.shadowSpread != 0 || params.shadowDx != 0 || params.shadowDy < 0
+                || params.shadowClip != ShadowParams.SHADOW_CLIP_NONE
+                || params.outClearMode != ShadowParams.OUT_CLEAR_MODE_CLIP) {
+            return false;
+        }
+        if (params.getUniformRadius() < 0) {
+            return false;
+        }
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
+                || (params.shadowColor & 0x00FFFFFF) == 0;
+    }
+
+    /**
+     * 自动选择时 系统按上面的光源模型在 View 当前位置画出的阴影与参数的差距在容差内才替代
+     * 水平偏移 纵向偏移 张度分别与系统阴影的偏移 放大比较 参数的 alpha 不能超过主题 spotShadowAlpha 能达到的最大值
+     * 位置按选择时计算 之后滚动或平移不会重新选择 系统阴影的偏移会随位置变化 光源位置与默认值不同的设备上也有误差
+     * 只在 API 28+ 使用 之前的系统阴影不能着色
+     *
+     * @param tolerance 水平偏移 张度 纵向偏移允许的误差 px
+     */
+    static boolean approximates(ShadowParams params, boolean hardwareAccelerated, float tolerance) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.P || !hardwareAccelerated || tolerance < 0) {
+            return false;
+        }
+        if (params.shadowInset || params.shadowType != ShadowParams.SHADOW_TYPE_SOFT
+                || params.shadowClip != ShadowParams.SHADOW_CLIP_NONE
+                || params.outClearMode != ShadowParams.OUT_CLEAR_MODE_CLIP
+                || params.shadowBlur <= 0 || params.getUniformRadius() < 0) {
+            return false;
+        }
+        View view = params.getView();
+        if (Color.alpha(params.shadowColor) / 255f > getSpotShadowAlpha(view.getContext()) + ALPHA_TOLERANCE) {
+            return false;
+        }
+        RectF area = params.getDisplayArea();
+        if (area == null) {
+            return false;
+        }
+        DisplayMetrics metrics = view.getResources().getDisplayMetrics();
+        float lightZ = LIGHT_Z_DP * metrics.density;
+        float elevation = getElevation(params, metrics.density);
+        if (elevation >= lightZ) {
+            return false;
+        }
+        float ratio = elevation / (lightZ - elevation);
+        view.getLocationOnScreen(tempLocation);
+        float centerX = tempLocation[0] + area.centerX();
+        float centerY = tempLocation[1] + area.centerY();
+        float dx = (centerX - metrics.widthPixels / 2f) * ratio;
+        float dy = (centerY - LIGHT_Y_DP * metrics.density) * ratio;
+        return Math.abs(params.shadowDx - dx) <= tolerance
+                && Math.abs(params.shadowDy - dy) <= tolerance
+                && Math.abs(params.shadowSpread - area.width() / 2f * ratio) <= tolerance
+                && Math.abs(params.shadowSpread - area.height() / 2f * ratio) <= tolerance;
+    }
+
+    /**
+     * 半影宽度 2R z / (L - z) 等于 4 sigma 时 z = 2 sigma L / (R + 2 sigma)
+     */
+    private static float getElevation(ShadowParams params, float density) {
+        float sigma = MaskBlur.sigma(params.getBlurRadius());
+        float lightZ = LIGHT_Z_DP * density;
+        float lightRadius = LIGHT_RADIUS_DP * density;
+        return 2 * sigma * lightZ / (lightRadius + 2 * sigma);
+    }
+
+    /**
+     * 主题的 spotShadowAlpha 按主题缓存
+     */
+    private static float getSpotShadowAlpha(Context context) {
+        Resources.Theme theme = context.getTheme();
+        if (theme != spotShadowAlphaTheme) {
+            TypedArray typedArray = context.obtainStyledAttributes(SPOT_SHADOW_ALPHA_ATTRS);
+            spotShadowAlpha = typedArray.getFloat(0, DEFAULT_SPOT_SHADOW_ALPHA);
+            typedArray.recycle();
+            spotShadowAlphaTheme = theme;
+        }
+        return spotShadowAlpha;
+    }
+
+    @Override
+    public void prepare(ShadowParams params) {
+        View view = params.getView();
+        if (!applied) {
+            applied = true;
+            savedElevation = view.getElevation();
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                savedSpotShadowColor = view.getOutlineSpotShadowColor();
+                savedAmbientShadowColor = view.getOutlineAmbientShadowColor();
+            }
+        }
+        ShadowOutline outline = params.obtainOutline();
+        outline.update();
+        outline.setShadowUser(true);
+        view.setElevation(getElevation(params, view.getResources().getDisplayMetrics().density));
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            // 超过主题能达到的 alpha 时取最大值 只有强制指定时出现
+            float alpha = Color.alpha(params.shadowColor) / getSpotShadowAlpha(view.getContext());
+            view.setOutlineSpotShadowColor((Math.min(Math.round(alpha), 255) << 24) | (params.shadowColor & 0x00FFFFFF));
+            view.setOutlineAmbientShadowColor(Color.TRANSPARENT);
+        }
+        softwarePrepared = false;
+    }
+
+    @Override
+    public void drawShadow(ShadowParams params, Canvas canvas) {
+        if (canvas.isHardwareAccelerated()) {
+            return;
+        }
+        if (!softwarePrepared) {
+            softwarePrepared = true;
+            softwareRenderer.prepare(params);
+        }
+        softwareRenderer.drawShadow(params, canvas);
+    }
+
+    @Override
+    public void drawBorder(ShadowParams params, Canvas canvas) {
+        params.drawBorderPath(canvas);
+    }
+
+    @Override
+    public void release(ShadowParams params) {
+        if (!applied) {
+            return;
+        }
+        applied = false;
+        View view = params.getView();
+        view.setElevation(savedElevation);
+        params.obtainOutline().setShadowUser(false);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            view.setOutlineSpotShadowColor(savedSpotShadowColor);
+            view.setOutlineAmbientShadowColor(savedAmbientShadowColor);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.graphics.Canvas;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:12
+ * 说明：路径渲染 软阴影使用 BlurMaskFilter 硬阴影使用分段渐变 shader
+ * API 28 以下硬件加速不支持 BlurMaskFilter 自动选择时会避开
+ */
+class PathShadowRenderer implements ShadowRenderer {
+    @Override
+    public int getType() {
+        return ShadowRenderers.RENDERER_PATH;
+    }
+
+    @Override
+    public boolean isSupported(ShadowParams params, boolean hardwareAccelerated) {
+        return true;
+    }
+
+    @Override
+    public void prepare(ShadowParams params) {
+        params.obtainShadowPaths();
+    }
+
+    @Override
+    public void drawShadow(ShadowParams params, Canvas canvas) {
+        params.drawShadowPath(canvas);
+    }
+
+    @Override
+    public void drawBorder(ShadowParams params, Canvas canvas) {
+        params.drawBorderPath(canvas);
+    }
+
+    @Override
+    public void release(ShadowParams params) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.graphics.Canvas;
+import android.os.Build;
+
+import androidx.annotation.RequiresApi;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:12
+ * 说明：把其它渲染后端的绘制录制到 RenderNode API 29+
+ * 非硬件加速画布(如 View.draw(Canvas) 截图)直接使用被包装的后端绘制
+ */
+@RequiresApi(Build.VERSION_CODES.Q)
+class RenderNodeShadowRenderer implements ShadowRenderer {
+    private final ShadowRenderer delegate;
+    private final ShadowRenderNode shadowNode = new ShadowRenderNode("ShadowParams.shadow");
+    private final ShadowRenderNode borderNode = new ShadowRenderNode("ShadowParams.border");
+    private ShadowParams recordingParams;
+    private final ShadowParams.OnDrawSuperListener shadowRecorder = new ShadowParams.OnDrawSuperListener() {
+        @Override
+        public void onDrawSuper(Canvas canvas) {
+            delegate.drawShadow(recordingParams, canvas);
+        }
+    };
+    private final ShadowParams.OnDrawSuperListener borderRecorder = new ShadowParams.OnDrawSuperListener() {
+        @Override
+        public void onDrawSuper(Canvas canvas) {
+            delegate.drawBorder(recordingParams, canvas);
+        }
+    };
+
+    RenderNodeShadowRenderer(ShadowRenderer delegate) {
+        this.delegate = delegate;
+    }
+
+    ShadowRenderer getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public int getType() {
+        return ShadowRenderers.RENDERER_RENDER_NODE;
+    }
+
+    @Override
+    public boolean isSupported(ShadowParams params, boolean hardwareAccelerated) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && hardwareAccelerated
+                && delegate.isSupported(params, true);
+    }
+
+    @Override
+    public void prepare(ShadowParams params) {
+        delegate.prepare(params);
+        shadowNode.invalidate();
+        borderNode.invalidate();
+    }
+
+    @Override
+    public void drawShadow(ShadowParams params, Canvas canvas) {
+        if (!canvas.isHardwareAccelerated()) {
+            delegate.drawShadow(params, canvas);
+            return;
+        }
+        recordingParams = params;
+        shadowNode.draw(canvas, params.getCurrentWidth(), params.getCurrentHeight(),
+                params.shadowColor, params.shadowInset ? 1 : 0, shadowRecorder);
+    }
+
+    @Override
+    public void drawBorder(ShadowParams params, Canvas canvas) {
+        if (!canvas.isHardwareAccelerated()) {
+            delegate.drawBorder(params, canvas);
+            return;
+        }
+        recordingParams = params;
+        borderNode.draw(canvas, params.getCurrentWidth(), params.getCurrentHeight(),
+                params.boxBorderColor, params.boxBorderType, borderRecorder);
+    }
+
+    @Override
+    public void release(ShadowParams params) {
+        delegate.release(params);
+    }
+}
@@ -0,0 +1,248 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:07
+ * 说明：进程内共享的阴影遮罩缓存 LRU 按字节数限制大小
+ * 相同阴影几何参数的 View 共用同一张预渲染的 ALPHA_8 遮罩 绘制时使用画笔颜色着色
+ * 硬阴影的渐变按颜色插值 遮罩为 ARGB_8888 颜色包含在 Key 中
+ * 被淘汰的 Bitmap 不会 recycle 仍在使用的 View 持有引用 交给 GC 回收
+ */
+public final class ShadowCache {
+    private static final ShadowCache INSTANCE = new ShadowCache();
+
+    private final LinkedHashMap<Key, Bitmap> map = new LinkedHashMap<>(0, 0.75f, true);
+    private int size;
+    private int maxSize;
+    private int putCount;
+    private int evictionCount;
+    private int hitCount;
+    private int missCount;
+
+    private ShadowCache() {
+        maxSize = (int) Math.min(Runtime.getRuntime().maxMemory() / 16, 16 * 1024 * 1024);
+    }
+
+    public static ShadowCache getInstance() {
+        return INSTANCE;
+    }
+
+    @Nullable
+    public synchronized Bitmap get(Key key) {
+        Bitmap bitmap = map.get(key);
+        if (bitmap != null) {
+            hitCount++;
+            return bitmap;
+        }
+        missCount++;
+        return null;
+    }
+
+    /**
+     * 超过最大字节数的遮罩不缓存
+     */
+    public synchronized void put(Key key, Bitmap bitmap) {
+        int bytes = sizeOf(bitmap);
+        if (bytes > maxSize) {
+            return;
+        }
+        putCount++;
+        Bitmap previous = map.put(key, bitmap);
+        size += bytes;
+        if (previous != null) {
+            size -= sizeOf(previous);
+        }
+        trimToSize(maxSize);
+    }
+
+    /**
+     * 设置最大字节数 列表较多的页面可以适当调大
+     */
+    public synchronized void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        this.maxSize = maxSize;
+        trimToSize(maxSize);
+    }
+
+    public synchronized void evictAll() {
+        trimToSize(-1);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized int maxSize() {
+        return maxSize;
+    }
+
+    public synchronized int hitCount() {
+        return hitCount;
+    }
+
+    public synchronized int missCount() {
+        return missCount;
+    }
+
+    public synchronized int putCount() {
+        return putCount;
+    }
+
+    public synchronized int evictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized int entryCount() {
+        return map.size();
+    }
+
+    private void trimToSize(int maxSize) {
+        Iterator<Map.Entry<Key, Bitmap>> iterator = map.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<Key, Bitmap> eldest = iterator.next();
+            size -= sizeOf(eldest.getValue());
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    private static int sizeOf(Bitmap bitmap) {
+        return bitmap.getRowBytes() * bitmap.getHeight();
+    }
+
+    @Override
+    public synchronized String toString() {
+        int accesses = hitCount + missCount;
+        int hitPercent = accesses != 0 ? (100 * hitCount / accesses) : 0;
+        return "ShadowCache[size=" + size + ",maxSize=" + maxSize + ",entries=" + map.size()
+                + ",hits=" + hitCount + ",misses=" + missCount + ",evictions=" + evictionCount
+                + ",hitRate=" + hitPercent + "%]";
+    }
+
+    /**
+     * 阴影遮罩的规范描述 圆角均为解析后的像素值 只有硬阴影包含颜色
+     */
+    public static final class Key {
+        private final int width;
+        private final int height;
+        private final float blurRadius;
+        private final int shadowBlur;
+        private final int shadowSpread;
+        private final int shadowDx;
+        private final int shadowDy;
+        private final float radiusLeftTop;
+        private final float radiusRightTop;
+        private final float radiusRightBottom;
+        private final float radiusLeftBottom;
+        private final boolean shadowInset;
+        private final int shadowType;
+        private final int shadowClip;
+        private final int boxBorderThickness;
+        private final int shadowColor;
+        private final int hash;
+
+        public Key(int width, int height, float blurRadius,
+                   int shadowBlur, int shadowSpread, int shadowDx, int shadowDy,
+                   float radiusLeftTop, float radiusRightTop, float radiusRightBottom, float radiusLeftBottom,
+                   boolean shadowInset, int shadowType, int shadowClip, int boxBorderThickness) {
+            this(width, height, blurRadius, shadowBlur, shadowSpread, shadowDx, shadowDy,
+                    radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom,
+                    shadowInset, shadowType, shadowClip, boxBorderThickness, 0);
+        }
+
+        /**
+         * @param shadowColor 遮罩中已着色时的阴影颜色 ALPHA_8 遮罩传 0
+         */
+        public Key(int width, int height, float blurRadius,
+                   int shadowBlur, int shadowSpread, int shadowDx, int shadowDy,
+                   float radiusLeftTop, float radiusRightTop, float radiusRightBottom, float radiusLeftBottom,
+                   boolean shadowInset, int shadowType, int shadowClip, int boxBorderThickness, int shadowColor) {
+            this.width = width;
+            this.height = height;
+            this.blurRadius = blurRadius;
+            this.shadowBlur = shadowBlur;
+            this.shadowSpread = shadowSpread;
+            this.shadowDx = shadowDx;
+            this.shadowDy = shadowDy;
+            this.radiusLeftTop = radiusLeftTop;
+            this.radiusRightTop = radiusRightTop;
+            this.radiusRightBottom = radiusRightBottom;
+            this.radiusLeftBottom = radiusLeftBottom;
+            this.shadowInset = shadowInset;
+            this.shadowType = shadowType;
+            this.shadowClip = shadowClip;
+            this.boxBorderThickness = boxBorderThickness;
+            this.shadowColor = shadowColor;
+            int result = width;
+            result = 31 * result + height;
+            result = 31 * result + Float.floatToIntBits(blurRadius);
+            result = 31 * result + shadowBlur;
+            result = 31 * result + shadowSpread;
+            result = 31 * result + shadowDx;
+            result = 31 * result + shadowDy;
+            result = 31 * result + Float.floatToIntBits(radiusLeftTop);
+            result = 31 * result + Float.floatToIntBits(radiusRightTop);
+            result = 31 * result + Float.floatToIntBits(radiusRightBottom);
+            result = 31 * result + Float.floatToIntBits(radiusLeftBottom);
+            result = 31 * result + (shadowInset ? 1 : 0);
+            result = 31 * result + shadowType;
+            result = 31 * result + shadowClip;
+            result = 31 * result + boxBorderThickness;
+            result = 31 * result + shadowColor;
+            hash = result;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash
+                    && width == key.width
+                    && height == key.height
+                    && Float.compare(blurRadius, key.blurRadius) == 0
+                    && shadowBlur == key.shadowBlur
+                    && shadowSpread == key.shadowSpread
+                    && shadowDx == key.shadowDx
+                    && shadowDy == key.shadowDy
+                    && Float.compare(radiusLeftTop, key.radiusLeftTop) == 0
+                    && Float.compare(radiusRightTop, key.radiusRightTop) == 0
+                    && Float.compare(radiusRightBottom, key.radiusRightBottom) == 0
+                    && Float.compare(radiusLeftBottom, key.radiusLeftBottom) == 0
+                    && shadowInset == key.shadowInset
+                    && shadowType == key.shadowType
+                    && shadowClip == key.shadowClip
+                    && boxBorderThickness == key.boxBorderThickness
+                    && shadowColor == key.shadowColor;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.annotation.SuppressLint;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.view.View;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import java.lang.reflect.Method;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:44
+ * 说明：调试用的开销覆盖层 按渲染开销给每个 Shadow 系列 View 着色 并显示最近一次重建与绘制的耗时
+ * 红 软件层 橙 一帧内两次及以上 saveLayer 黄 每帧模糊(BlurMaskFilter 或系统 elevation 阴影)或一次 saveLayer 绿 其它
+ * 代码中 setEnabled 开启 如 setEnabled(BuildConfig.DEBUG)
+ * 或在 BuildConfig.DEBUG 判断内调用 enableFromSystemProperty 后 adb shell setprop debug.shadowview.overlay true 重启应用
+ * 系统属性只在调用时读取 发布版不会读取
+ * 开启时同时开启 {@link ShadowMetrics} 关闭时恢复 覆盖层添加到 View.getOverlay() 在子 View 之上 需要 API 18
+ */
+public final class ShadowDebugOverlay {
+    @IntDef({COST_CHEAP, COST_BLUR, COST_LAYER, COST_SOFTWARE})
+    public @interface Cost {
+    }
+
+    public static final int COST_CHEAP = 0;
+    public static final int COST_BLUR = 1;
+    public static final int COST_LAYER = 2;
+    public static final int COST_SOFTWARE = 3;
+
+    private static final int[] COST_COLORS = {0xFF4CAF50, 0xFFFFC107, 0xFFFF9800, 0xFFF44336};
+    private static final String[] COST_NAMES = {"OK", "BLUR", "LAYER", "SW"};
+
+    public static final String SYSTEM_PROPERTY = "debug.shadowview.overlay";
+
+    static boolean enabled;
+    // ShadowMetrics 由覆盖层开启 关闭覆盖层时一并关闭 期间直接设置 ShadowMetrics 则以其为准
+    static boolean metricsEnabledByOverlay;
+
+    private ShadowDebugOverlay() {
+    }
+
+    /**
+     * 已显示的 View 在下一次绘制时添加或隐藏覆盖层
+     */
+    public static void setEnabled(boolean enabled) {
+        ShadowDebugOverlay.enabled = enabled;
+        if (enabled) {
+            if (!ShadowMetrics.enabled) {
+                ShadowMetrics.setEnabled(true);
+                metricsEnabledByOverlay = true;
+            }
+        } else if (metricsEnabledByOverlay) {
+            ShadowMetrics.setEnabled(false);
+        }
+    }
+
+    /**
+     * 系统属性 {@link #SYSTEM_PROPERTY} 为 true 时开启 只在调用时读取一次
+     * 放在 BuildConfig.DEBUG 判断内调用 发布版不读取
+     *
+     * @return 是否开启
+     */
+    public static boolean enableFromSystemProperty() {
+        boolean enabled = readSystemProperty();
+        if (enabled) {
+            setEnabled(true);
+        }
+        return enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * android.os.SystemProperties 为隐藏 API 读取失败时视为关闭
+     */
+    @SuppressLint("PrivateApi")
+    private static boolean readSystemProperty() {
+        try {
+            Class<?> clazz = Class.forName("android.os.SystemProperties");
+            Method method = clazz.getMethod("getBoolean", String.class, boolean.class);
+            return (Boolean) method.invoke(null, SYSTEM_PROPERTY, false);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * 按当前渲染后端判断开销等级 {@link ShadowMetrics} 开启时再结合最近一次绘制的 saveLayer 次数
+     */
+    @Cost
+    public static int getCost(ShadowParams params) {
+        if (params.getView().getLayerType() == View.LAYER_TYPE_SOFTWARE) {
+            return COST_SOFTWARE;
+        }
+        int cost = getRendererCost(params);
+        ShadowMetrics.Stats stats = params.getMetrics();
+        if (stats == null || !ShadowMetrics.enabled) {
+            // 关闭后计数停在最后一帧 不再可信
+            return cost;
+        }
+        long saveLayer = stats.getLastDrawCounter(ShadowMetrics.COUNTER_SAVE_LAYER);
+        if (saveLayer >= 2) {
+            return COST_LAYER;
+        }
+        if (saveLayer == 1 || stats.getLastDrawCounter(ShadowMetrics.COUNTER_MASK_FILTER) > 0) {
+            return Math.max(cost, COST_BLUR);
+        }
+        return cost;
+    }
+
+    /**
+     * 渲染后端每帧的固有开销
+     * RenderNode 录制后重放不经过 ShadowParams 计数 按录制它的后端计算
+     */
+    @Cost
+    private static int getRendererCost(ShadowParams params) {
+        ShadowRenderer renderer = params.getRenderer();
+        if (renderer instanceof RenderNodeShadowRenderer) {
+            renderer = ((RenderNodeShadowRenderer) renderer).getDelegate();
+        }
+        if (renderer == null) {
+            return COST_CHEAP;
+        }
+        switch (renderer.getType()) {
+            case ShadowRenderers.RENDERER_ELEVATION:
+                // 系统阴影由 RenderThread 每帧计算 软件画布上回退到路径模糊
+                return COST_BLUR;
+            case ShadowRenderers.RENDERER_PATH:
+                return params.shadowType == ShadowParams.SHADOW_TYPE_SOFT && params.getBlurRadius() > 0
+                        ? COST_BLUR : COST_CHEAP;
+            default:
+                // 缓存遮罩只绘制一次位图
+                return COST_CHEAP;
+        }
+    }
+
+    /**
+     * 每次绘制结束后调用 第一次时添加到 View 之后随 View 一起重绘 只需同步尺寸
+     */
+    static void update(ShadowParams params) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            return;
+        }
+        View view = params.getView();
+        OverlayDrawable drawable = params.debugOverlay;
+        if (drawable == null) {
+            drawable = new OverlayDrawable(params);
+            params.debugOverlay = drawable;
+            view.getOverlay().add(drawable);
+        }
+        Rect bounds = drawable.getBounds();
+        if (bounds.right != view.getWidth() || bounds.bottom != view.getHeight()) {
+            drawable.setBounds(0, 0, view.getWidth(), view.getHeight());
+        }
+    }
+
+    @RequiresApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    static final class OverlayDrawable extends Drawable {
+        private final ShadowParams params;
+        private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        private final float density;
+        private final StringBuilder text = new StringBuilder();
+
+        OverlayDrawable(ShadowParams params) {
+            this.params = params;
+            density = params.getView().getResources().getDisplayMetrics().density;
+            paint.setTextSize(10 * density);
+        }
+
+        @Override
+        public void draw(@NonNull Canvas canvas) {
+            if (!enabled) {
+                return;
+            }
+            Rect bounds = getBounds();
+            int cost = getCost(params);
+            int color = COST_COLORS[cost];
+            paint.setStyle(Paint.Style.FILL);
+            paint.setColor(color & 0x00FFFFFF | 0x40000000);
+            canvas.drawRect(bounds, paint);
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeWidth(density);
+            paint.setColor(color);
+            canvas.drawRect(bounds.left + density / 2, bounds.top + density / 2,
+                    bounds.right - density / 2, bounds.bottom - density / 2, paint);
+            ShadowMetrics.Stats stats = params.getMetrics();
+            text.setLength(0);
+            text.append(COST_NAMES[cost]);
+            if (stats != null && ShadowMetrics.enabled) {
+                text.append(" R ");
+                appendMillis(text, stats.getHistogram(ShadowMetrics.OP_REBUILD).getLastNanos());
+                text.append(" D ");
+                appendMillis(text, stats.getHistogram(ShadowMetrics.OP_DRAW).getLastNanos());
+            }
+            float padding = 2 * density;
+            float textWidth = paint.measureText(text, 0, text.length());
+            float textBottom = bounds.top + padding * 2 + paint.getTextSize();
+            paint.setStyle(Paint.Style.FILL);
+            canvas.drawRect(bounds.left, bounds.top, bounds.left + textWidth + padding * 2, textBottom, paint);
+            paint.setColor(Color.BLACK);
+            canvas.drawText(text, 0, text.length(), bounds.left + padding, textBottom - padding - paint.descent(), paint);
+        }
+
+        /**
+         * 两位小数的毫秒 不分配 String
+         */
+        private static void appendMillis(StringBuilder builder, long nanos) {
+            long hundredths = (nanos + 5_000) / 10_000;
+            builder.append(hundredths / 100).append('.');
+            long fraction = hundredths % 100;
+            if (fraction < 10) {
+                builder.append('0');
+            }
+            builder.append(fraction).append("ms");
+        }
+
+        @Override
+        public void setAlpha(int alpha) {
+        }
+
+        @Override
+        public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        }
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+    }
+}
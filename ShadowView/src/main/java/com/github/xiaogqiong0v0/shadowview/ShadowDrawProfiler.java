@@ -0,0 +1,502 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Region;
+import android.graphics.RenderNode;
+import android.graphics.Shader;
+import android.os.Build;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:33
+ * 说明：统计一次阴影绘制的 Canvas 操作 用来比较各模式 (软/硬 内/外 clip/clear/layer) 的开销
+ * 绘制到软件 Bitmap 上 硬件加速专用的后端不会被选中 结果代表软件绘制的操作数
+ * 可以在单元测试中运行
+ */
+public final class ShadowDrawProfiler {
+    private ShadowDrawProfiler() {
+    }
+
+    /**
+     * 只绘制阴影 边框与清除 不包含 View 自身内容
+     * View 需要已经完成测量
+     */
+    public static Report profile(ShadowParams shadowParams) {
+        View view = shadowParams.getView();
+        CountingCanvas canvas = obtainCanvas(view);
+        if (canvas == null) {
+            return new Report();
+        }
+        shadowParams.draw(canvas, c -> {
+        });
+        return canvas.getReport();
+    }
+
+    /**
+     * 完整绘制 View 包括背景与子 View
+     * View 需要已经完成布局
+     */
+    public static Report profile(View view) {
+        CountingCanvas canvas = obtainCanvas(view);
+        if (canvas == null) {
+            return new Report();
+        }
+        view.draw(canvas);
+        return canvas.getReport();
+    }
+
+    @Nullable
+    private static CountingCanvas obtainCanvas(View view) {
+        int w = view.getWidth() > 0 ? view.getWidth() : view.getMeasuredWidth();
+        int h = view.getHeight() > 0 ? view.getHeight() : view.getMeasuredHeight();
+        if (w <= 0 || h <= 0) {
+            return null;
+        }
+        return new CountingCanvas(Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888));
+    }
+
+    /**
+     * 一次绘制的操作统计
+     */
+    public static final class Report {
+        public int saveCount;
+        public int saveLayerCount;
+        // 离屏图层的像素面积 按图层边界与画布的交集计算
+        public long layerPixels;
+        public int clipPathCount;
+        public int clipOutPathCount;
+        public int clipRectCount;
+        public int drawPathCount;
+        public int drawRectCount;
+        public int drawColorCount;
+        public int drawBitmapCount;
+        public int drawRenderNodeCount;
+        // 带 MaskFilter (模糊) 的绘制次数
+        public int maskFilterDrawCount;
+        // 与上一次绘制使用不同 Shader 的次数
+        public int shaderSwitchCount;
+
+        /**
+         * 所有绘制操作
+         */
+        public int drawCount() {
+            return drawPathCount + drawRectCount + drawColorCount + drawBitmapCount + drawRenderNodeCount;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "Report{" +
+                    "save=" + saveCount +
+                    ", saveLayer=" + saveLayerCount +
+                    ", layerPixels=" + layerPixels +
+                    ", clipPath=" + clipPathCount +
+                    ", clipOutPath=" + clipOutPathCount +
+                    ", clipRect=" + clipRectCount +
+                    ", drawPath=" + drawPathCount +
+                    ", drawRect=" + drawRectCount +
+                    ", drawColor=" + drawColorCount +
+                    ", drawBitmap=" + drawBitmapCount +
+                    ", drawRenderNode=" + drawRenderNodeCount +
+                    ", maskFilterDraw=" + maskFilterDrawCount +
+                    ", shaderSwitch=" + shaderSwitchCount +
+                    '}';
+        }
+    }
+
+    /**
+     * 记录操作的 Canvas 绘制仍然生效
+     * 不同 API 版本的重载会互相调用 只统计最外层的一次
+     */
+    public static class CountingCanvas extends Canvas {
+        private final Report report = new Report();
+        @Nullable
+        private Shader lastShader;
+        private int depth;
+
+        public CountingCanvas(@NonNull Bitmap bitmap) {
+            super(bitmap);
+        }
+
+        public Report getReport() {
+            return report;
+        }
+
+        private boolean enter() {
+            return depth++ == 0;
+        }
+
+        private void exit() {
+            depth--;
+        }
+
+        private void recordLayer(float left, float top, float right, float bottom) {
+            report.saveLayerCount++;
+            float w = Math.min(right, getWidth()) - Math.max(left, 0);
+            float h = Math.min(bottom, getHeight()) - Math.max(top, 0);
+            if (w > 0 && h > 0) {
+                report.layerPixels += (long) (w * h);
+            }
+        }
+
+        private void recordPaint(@Nullable Paint paint) {
+            if (paint == null) {
+                return;
+            }
+            if (paint.getMaskFilter() != null) {
+                report.maskFilterDrawCount++;
+            }
+            Shader shader = paint.getShader();
+            if (shader != null && shader != lastShader) {
+                report.shaderSwitchCount++;
+            }
+            lastShader = shader;
+        }
+
+        @Override
+        public int save() {
+            if (enter()) {
+                report.saveCount++;
+            }
+            try {
+                return super.save();
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public int saveLayer(@Nullable RectF bounds, @Nullable Paint paint, int saveFlags) {
+            if (enter()) {
+                if (bounds == null) {
+                    recordLayer(0, 0, getWidth(), getHeight());
+                } else {
+                    recordLayer(bounds.left, bounds.top, bounds.right, bounds.bottom);
+                }
+            }
+            try {
+                return super.saveLayer(bounds, paint, saveFlags);
+            } finally {
+                exit();
+            }
+        }
+
+        @RequiresApi(api = Build.VERSION_CODES.LOLLIPOP)
+        @Override
+        public int saveLayer(@Nullable RectF bounds, @Nullable Paint paint) {
+            if (enter()) {
+                if (bounds == null) {
+                    recordLayer(0, 0, getWidth(), getHeight());
+                } else {
+                    recordLayer(bounds.left, bounds.top, bounds.right, bounds.bottom);
+                }
+            }
+            try {
+                return super.saveLayer(bounds, paint);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public int saveLayer(float left, float top, float right, float bottom, @Nullable Paint paint, int saveFlags) {
+            if (enter()) {
+                recordLayer(left, top, right, bottom);
+            }
+            try {
+                return super.saveLayer(left, top, right, bottom, paint, saveFlags);
+            } finally {
+                exit();
+            }
+        }
+
+        @RequiresApi(api = Build.VERSION_CODES.LOLLIPOP)
+        @Override
+        public int saveLayer(float left, float top, float right, float bottom, @Nullable Paint paint) {
+            if (enter()) {
+                recordLayer(left, top, right, bottom);
+            }
+            try {
+                return super.saveLayer(left, top, right, bottom, paint);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public int saveLayerAlpha(@Nullable RectF bounds, int alpha, int saveFlags) {
+            if (enter()) {
+                if (bounds == null) {
+                    recordLayer(0, 0, getWidth(), getHeight());
+                } else {
+                    recordLayer(bounds.left, bounds.top, bounds.right, bounds.bottom);
+                }
+            }
+            try {
+                return super.saveLayerAlpha(bounds, alpha, saveFlags);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public int saveLayerAlpha(float left, float top, float right, float bottom, int alpha, int saveFlags) {
+            if (enter()) {
+                recordLayer(left, top, right, bottom);
+            }
+            try {
+                return super.saveLayerAlpha(left, top, right, bottom, alpha, saveFlags);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public boolean clipPath(@NonNull Path path) {
+            if (enter()) {
+                report.clipPathCount++;
+            }
+            try {
+                return super.clipPath(path);
+            } finally {
+                exit();
+            }
+        }
+
+        @SuppressWarnings("deprecation")
+        @Override
+        public boolean clipPath(@NonNull Path path, @NonNull Region.Op op) {
+            if (enter()) {
+                if (op == Region.Op.DIFFERENCE) {
+                    report.clipOutPathCount++;
+                } else {
+                    report.clipPathCount++;
+                }
+            }
+            try {
+                return super.clipPath(path, op);
+            } finally {
+                exit();
+            }
+        }
+
+        @RequiresApi(api = Build.VERSION_CODES.O)
+        @Override
+        public boolean clipOutPath(@NonNull Path path) {
+            if (enter()) {
+                report.clipOutPathCount++;
+            }
+            try {
+                return super.clipOutPath(path);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public boolean clipRect(@NonNull RectF rect) {
+            if (enter()) {
+                report.clipRectCount++;
+            }
+            try {
+                return super.clipRect(rect);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public boolean clipRect(@NonNull Rect rect) {
+            if (enter()) {
+                report.clipRectCount++;
+            }
+            try {
+                return super.clipRect(rect);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public boolean clipRect(float left, float top, float right, float bottom) {
+            if (enter()) {
+                report.clipRectCount++;
+            }
+            try {
+                return super.clipRect(left, top, right, bottom);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public boolean clipRect(int left, int top, int right, int bottom) {
+            if (enter()) {
+                report.clipRectCount++;
+            }
+            try {
+                return super.clipRect(left, top, right, bottom);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public void drawPath(@NonNull Path path, @NonNull Paint paint) {
+            if (enter()) {
+                report.drawPathCount++;
+                recordPaint(paint);
+            }
+            try {
+                super.drawPath(path, paint);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public void drawRect(@NonNull RectF rect, @NonNull Paint paint) {
+            if (enter()) {
+                report.drawRectCount++;
+                recordPaint(paint);
+            }
+            try {
+                super.drawRect(rect, paint);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public void drawRect(@NonNull Rect r, @NonNull Paint paint) {
+            if (enter()) {
+                report.drawRectCount++;
+                recordPaint(paint);
+            }
+            try {
+                super.drawRect(r, paint);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, @NonNull Paint paint) {
+            if (enter()) {
+                report.drawRectCount++;
+                recordPaint(paint);
+            }
+            try {
+                super.drawRect(left, top, right, bottom, paint);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public void drawColor(int color) {
+            if (enter()) {
+                report.drawColorCount++;
+            }
+            try {
+                super.drawColor(color);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public void drawColor(int color, @NonNull PorterDuff.Mode mode) {
+            if (enter()) {
+                report.drawColorCount++;
+            }
+            try {
+                super.drawColor(color, mode);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public void drawBitmap(@NonNull Bitmap bitmap, float left, float top, @Nullable Paint paint) {
+            if (enter()) {
+                report.drawBitmapCount++;
+                recordPaint(paint);
+            }
+            try {
+                super.drawBitmap(bitmap, left, top, paint);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public void drawBitmap(@NonNull Bitmap bitmap, @Nullable Rect src, @NonNull RectF dst, @Nullable Paint paint) {
+            if (enter()) {
+                report.drawBitmapCount++;
+                recordPaint(paint);
+            }
+            try {
+                super.drawBitmap(bitmap, src, dst, paint);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public void drawBitmap(@NonNull Bitmap bitmap, @Nullable Rect src, @NonNull Rect dst, @Nullable Paint paint) {
+            if (enter()) {
+                report.drawBitmapCount++;
+                recordPaint(paint);
+            }
+            try {
+                super.drawBitmap(bitmap, src, dst, paint);
+            } finally {
+                exit();
+            }
+        }
+
+        @Override
+        public void drawBitmap(@NonNull Bitmap bitmap, @NonNull Matrix matrix, @Nullable Paint paint) {
+            if (enter()) {
+                report.drawBitmapCount++;
+                recordPaint(paint);
+            }
+            try {
+                super.drawBitmap(bitmap, matrix, paint);
+            } finally {
+                exit();
+            }
+        }
+
+        /**
+         * API 29 以上 软件画布不会调用 硬件加速画布才会出现
+         */
+        @RequiresApi(api = Build.VERSION_CODES.Q)
+        @Override
+        public void drawRenderNode(@NonNull RenderNode renderNode) {
+            if (enter()) {
+                report.drawRenderNodeCount++;
+            }
+            try {
+                super.drawRenderNode(renderNode);
+            } finally {
+                exit();
+            }
+        }
+    }
+}
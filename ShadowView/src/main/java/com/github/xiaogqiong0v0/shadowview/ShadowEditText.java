@@ -18,6 +18,8 @@ import androidx.appcompat.widget.AppCompatEditText;
  */
 public class ShadowEditText extends AppCompatEditText {
     private ShadowParams shadowParams;
+    private final ShadowParams.OnMeasureListener superMeasure = super::onMeasure;
+    private final ShadowParams.OnDrawSuperListener superDraw = super::onDraw;
     private Drawable background;
 
 
@@ -48,7 +50,7 @@ public class ShadowEditText extends AppCompatEditText {
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        shadowParams.measure(widthMeasureSpec, heightMeasureSpec, super::onMeasure);
+        shadowParams.measure(widthMeasureSpec, heightMeasureSpec, superMeasure);
     }
 
     @Override
@@ -62,6 +64,11 @@ public class ShadowEditText extends AppCompatEditText {
 
     @Override
     protected void onDraw(Canvas canvas) {
-        shadowParams.draw(canvas, super::onDraw);
+        shadowParams.draw(canvas, superDraw);
+    }
+
+    @Override
+    public boolean hasOverlappingRendering() {
+        return shadowParams.hasOverlappingRendering(true, super.hasOverlappingRendering());
     }
 }
@@ -18,6 +18,8 @@ import androidx.annotation.Nullable;
  */
 public class ShadowFrameLayout extends FrameLayout {
     private ShadowParams shadowParams;
+    private final ShadowParams.OnMeasureListener superMeasure = super::onMeasure;
+    private final ShadowParams.OnDrawSuperListener superDraw = super::onDraw;
     private Drawable background;
 
     public ShadowFrameLayout(@NonNull Context context) {
@@ -47,7 +49,7 @@ public class ShadowFrameLayout extends FrameLayout {
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        shadowParams.measure(widthMeasureSpec, heightMeasureSpec, super::onMeasure);
+        shadowParams.measure(widthMeasureSpec, heightMeasureSpec, superMeasure);
     }
     @Override
     public void setBackgroundDrawable(Drawable background) {
@@ -59,6 +61,11 @@ public class ShadowFrameLayout extends FrameLayout {
     }
     @Override
     protected void onDraw(Canvas canvas) {
-        shadowParams.draw(canvas, super::onDraw);
+        shadowParams.draw(canvas, superDraw);
+    }
+
+    @Override
+    public boolean hasOverlappingRendering() {
+        return shadowParams.hasOverlappingRendering(getChildCount() > 0, super.hasOverlappingRendering());
     }
 }
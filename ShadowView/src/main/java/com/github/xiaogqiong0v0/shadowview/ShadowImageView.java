@@ -12,6 +12,8 @@ import androidx.appcompat.widget.AppCompatImageView;
 
 public class ShadowImageView extends AppCompatImageView {
     private ShadowParams shadowParams;
+    private final ShadowParams.OnMeasureListener superMeasure = super::onMeasure;
+    private final ShadowParams.OnDrawSuperListener superDraw = super::onDraw;
     private Drawable background;
 
     public ShadowImageView(@NonNull Context context) {
@@ -41,7 +43,7 @@ public class ShadowImageView extends AppCompatImageView {
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        shadowParams.measure(widthMeasureSpec, heightMeasureSpec, super::onMeasure);
+        shadowParams.measure(widthMeasureSpec, heightMeasureSpec, superMeasure);
     }
     @Override
     public void setBackgroundDrawable(Drawable background) {
@@ -53,6 +55,11 @@ public class ShadowImageView extends AppCompatImageView {
     }
     @Override
     protected void onDraw(Canvas canvas) {
-        shadowParams.draw(canvas, super::onDraw);
+        shadowParams.draw(canvas, superDraw);
+    }
+
+    @Override
+    public boolean hasOverlappingRendering() {
+        return shadowParams.hasOverlappingRendering(getDrawable() != null, super.hasOverlappingRendering());
     }
 }
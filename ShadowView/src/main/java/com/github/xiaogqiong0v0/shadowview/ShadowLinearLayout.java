@@ -17,6 +17,8 @@ import androidx.annotation.Nullable;
  */
 public class ShadowLinearLayout extends LinearLayout {
     private ShadowParams shadowParams;
+    private final ShadowParams.OnMeasureListener superMeasure = super::onMeasure;
+    private final ShadowParams.OnDrawSuperListener superDraw = super::onDraw;
     private Drawable background;
 
     public ShadowLinearLayout(Context context) {
@@ -45,7 +47,7 @@ public class ShadowLinearLayout extends LinearLayout {
     }
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        shadowParams.measure(widthMeasureSpec, heightMeasureSpec, super::onMeasure);
+        shadowParams.measure(widthMeasureSpec, heightMeasureSpec, superMeasure);
     }
 
     @Override
@@ -59,6 +61,11 @@ public class ShadowLinearLayout extends LinearLayout {
 
     @Override
     protected void onDraw(Canvas canvas) {
-        shadowParams.draw(canvas, super::onDraw);
+        shadowParams.draw(canvas, superDraw);
+    }
+
+    @Override
+    public boolean hasOverlappingRendering() {
+        return shadowParams.hasOverlappingRendering(getChildCount() > 0, super.hasOverlappingRendering());
     }
 }
@@ -0,0 +1,279 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.os.Build;
+import android.os.Trace;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.Nullable;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:42
+ * 说明：运行时开销统计 默认关闭 关闭时每次调用只有一次静态字段判断
+ * 开启后记录 测量 重建 绘制的次数与耗时分布 以及离屏层 软件层 遮罩缓存命中等计数
+ * 同时包裹在 android.os.Trace 区段中 可在 Perfetto 中查看
+ * 全局统计与每个 ShadowParams 的统计分开记录 只在主线程更新
+ * 开启 {@link ShadowDebugOverlay} 时会同时开启 关闭覆盖层时恢复关闭
+ */
+public final class ShadowMetrics {
+    @IntDef({OP_MEASURE, OP_REBUILD, OP_DRAW})
+    public @interface Operation {
+    }
+
+    public static final int OP_MEASURE = 0;
+    public static final int OP_REBUILD = 1;
+    public static final int OP_DRAW = 2;
+    private static final int OP_SIZE = 3;
+
+    @IntDef({COUNTER_SAVE_LAYER, COUNTER_SOFTWARE_LAYER, COUNTER_CACHE_HIT, COUNTER_CACHE_MISS, COUNTER_MASK_FILTER})
+    public @interface Counter {
+    }
+
+    // saveLayer 次数
+    public static final int COUNTER_SAVE_LAYER = 0;
+    // 切换为 LAYER_TYPE_SOFTWARE 的次数
+    public static final int COUNTER_SOFTWARE_LAYER = 1;
+    // 阴影遮罩缓存
+    public static final int COUNTER_CACHE_HIT = 2;
+    public static final int COUNTER_CACHE_MISS = 3;
+    // 使用 BlurMaskFilter 绘制的次数
+    public static final int COUNTER_MASK_FILTER = 4;
+    private static final int COUNTER_SIZE = 5;
+
+    private static final String[] OPERATION_NAMES = {"measure", "rebuild", "draw"};
+    private static final String[] TRACE_NAMES = {"ShadowView#measure", "ShadowView#rebuild", "ShadowView#draw"};
+    private static final String[] COUNTER_NAMES = {"saveLayer", "softwareLayer", "cacheHit", "cacheMiss", "maskFilter"};
+
+    // 热路径直接读取 不使用 volatile 其它线程的修改在下一帧可见即可
+    static boolean enabled;
+    private static final Stats GLOBAL = new Stats();
+
+    private ShadowMetrics() {
+    }
+
+    public static void setEnabled(boolean enabled) {
+        ShadowMetrics.enabled = enabled;
+        ShadowDebugOverlay.metricsEnabledByOverlay = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 所有 View 的合计
+     */
+    public static Stats global() {
+        return GLOBAL;
+    }
+
+    /**
+     * 清空全局统计 每个 View 的统计通过 {@link Stats#reset()} 清空
+     */
+    public static void reset() {
+        GLOBAL.reset();
+    }
+
+    public static void dump(PrintWriter writer) {
+        writer.println("ShadowMetrics enabled=" + enabled);
+        GLOBAL.dump(writer, "  ");
+        ShadowCache cache = ShadowCache.getInstance();
+        writer.println("  ShadowCache size=" + cache.size() + "/" + cache.maxSize()
+                + " entries=" + cache.entryCount()
+                + " hit=" + cache.hitCount() + " miss=" + cache.missCount()
+                + " evicted=" + cache.evictionCount());
+        writer.flush();
+    }
+
+    /**
+     * 调用方先判断 {@link #enabled}
+     *
+     * @return 开始时间
+     */
+    static long begin(@Nullable Stats stats, @Operation int operation) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.beginSection(TRACE_NAMES[operation]);
+        }
+        if (stats != null && operation == OP_DRAW) {
+            System.arraycopy(stats.counters, 0, stats.drawStartCounters, 0, COUNTER_SIZE);
+        }
+        return System.nanoTime();
+    }
+
+    static void end(@Nullable Stats stats, @Operation int operation, long start) {
+        long duration = System.nanoTime() - start;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.endSection();
+        }
+        GLOBAL.record(operation, duration);
+        if (stats != null) {
+            stats.record(operation, duration);
+            if (operation == OP_DRAW) {
+                for (int i = 0; i < COUNTER_SIZE; i++) {
+                    stats.lastDrawCounters[i] = stats.counters[i] - stats.drawStartCounters[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * 调用方先判断 {@link #enabled}
+     */
+    static void count(@Nullable Stats stats, @Counter int counter) {
+        GLOBAL.counters[counter]++;
+        if (stats != null) {
+            stats.counters[counter]++;
+        }
+    }
+
+    /**
+     * 一组统计 每种操作一个耗时分布
+     */
+    public static final class Stats {
+        private final Histogram[] histograms = new Histogram[OP_SIZE];
+        private final long[] counters = new long[COUNTER_SIZE];
+        // 最近一次绘制中各计数的增量
+        private final long[] drawStartCounters = new long[COUNTER_SIZE];
+        private final long[] lastDrawCounters = new long[COUNTER_SIZE];
+
+        Stats() {
+            for (int i = 0; i < OP_SIZE; i++) {
+                histograms[i] = new Histogram();
+            }
+        }
+
+        void record(@Operation int operation, long durationNanos) {
+            histograms[operation].record(durationNanos);
+        }
+
+        public long getCount(@Operation int operation) {
+            return histograms[operation].getCount();
+        }
+
+        public Histogram getHistogram(@Operation int operation) {
+            return histograms[operation];
+        }
+
+        public long getCounter(@Counter int counter) {
+            return counters[counter];
+        }
+
+        /**
+         * 最近一次绘制中的计数 只有每个 View 的统计有效
+         */
+        public long getLastDrawCounter(@Counter int counter) {
+            return lastDrawCounters[counter];
+        }
+
+        public void reset() {
+            for (Histogram histogram : histograms) {
+                histogram.reset();
+            }
+            Arrays.fill(counters, 0);
+            Arrays.fill(lastDrawCounters, 0);
+        }
+
+        public void dump(PrintWriter writer, String prefix) {
+            for (int i = 0; i < OP_SIZE; i++) {
+                writer.println(prefix + OPERATION_NAMES[i] + ": " + histograms[i]);
+            }
+            StringBuilder builder = new StringBuilder(prefix);
+            for (int i = 0; i < COUNTER_SIZE; i++) {
+                if (i > 0) {
+                    builder.append(' ');
+                }
+                builder.append(COUNTER_NAMES[i]).append('=').append(counters[i]);
+            }
+            writer.println(builder);
+        }
+    }
+
+    /**
+     * 按 2 的幂划分的耗时分布 第 i 个桶为 [2^(i-1), 2^i) 微秒 第 0 个桶小于 1 微秒
+     * 百分位取所在桶的上界
+     */
+    public static final class Histogram {
+        private static final int BUCKET_SIZE = 24;
+        private final long[] buckets = new long[BUCKET_SIZE];
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private long lastNanos;
+
+        void record(long durationNanos) {
+            lastNanos = durationNanos;
+            long micros = durationNanos / 1000;
+            int bucket = micros == 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+            buckets[Math.min(bucket, BUCKET_SIZE - 1)]++;
+            count++;
+            totalNanos += durationNanos;
+            if (durationNanos > maxNanos) {
+                maxNanos = durationNanos;
+            }
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * 最近一次的耗时
+         */
+        public long getLastNanos() {
+            return lastNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        /**
+         * @param percentile 0 到 100
+         */
+        public long getPercentileNanos(float percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(count * Math.min(100f, Math.max(0f, percentile)) / 100f);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_SIZE; i++) {
+                seen += buckets[i];
+                if (seen >= target && buckets[i] > 0) {
+                    return Math.min((1L << i) * 1000, maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        void reset() {
+            Arrays.fill(buckets, 0);
+            count = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+            lastNanos = 0;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count
+                    + " mean=" + getMeanNanos() / 1000 + "us"
+                    + " p50=" + getPercentileNanos(50) / 1000 + "us"
+                    + " p90=" + getPercentileNanos(90) / 1000 + "us"
+                    + " p99=" + getPercentileNanos(99) / 1000 + "us"
+                    + " max=" + maxNanos / 1000 + "us";
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.graphics.Outline;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewOutlineProvider;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:50
+ * 说明：显示区域的 Outline 系统 elevation 阴影与 Outline 裁剪共用
+ * 任一使用时替换 View 的 OutlineProvider 都不使用时还原
+ * 统一圆角为 setRoundRect 可裁剪 圆角不同时 API 33+ 使用 setPath 才可裁剪
+ */
+@RequiresApi(Build.VERSION_CODES.LOLLIPOP)
+final class ShadowOutline extends ViewOutlineProvider {
+    private final ShadowParams params;
+    private final RectF area = new RectF();
+    private float radius;
+    @Nullable
+    private Path path;
+    private boolean empty = true;
+    // 使用者
+    private boolean shadowUser;
+    private boolean clipUser;
+    // View 原有的设置
+    private boolean installed;
+    @Nullable
+    private ViewOutlineProvider savedProvider;
+    private boolean savedClipToOutline;
+
+    ShadowOutline(ShadowParams params) {
+        this.params = params;
+    }
+
+    /**
+     * 按当前显示区域更新形状
+     */
+    void update() {
+        RectF displayArea = params.getDisplayArea();
+        if (displayArea == null) {
+            area.setEmpty();
+            empty = true;
+        } else {
+            area.set(displayArea);
+            empty = false;
+        }
+        float uniformRadius = params.getUniformRadius();
+        if (uniformRadius >= 0) {
+            radius = uniformRadius;
+            path = null;
+        } else {
+            radius = 0;
+            path = params.getBoxClipPath();
+        }
+        if (installed) {
+            params.getView().invalidateOutline();
+        }
+    }
+
+    /**
+     * 形状能否用于裁剪 setRoundRect 只接受整数坐标
+     */
+    boolean canClip() {
+        if (empty) {
+            return false;
+        }
+        if (path != null) {
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU;
+        }
+        return area.left == (int) area.left && area.top == (int) area.top
+                && area.right == (int) area.right && area.bottom == (int) area.bottom;
+    }
+
+    void setShadowUser(boolean shadowUser) {
+        this.shadowUser = shadowUser;
+        sync();
+    }
+
+    void setClipUser(boolean clipUser) {
+        if (this.clipUser == clipUser) {
+            return;
+        }
+        this.clipUser = clipUser;
+        View view = params.getView();
+        if (clipUser) {
+            savedClipToOutline = view.getClipToOutline();
+            view.setClipToOutline(true);
+        } else {
+            view.setClipToOutline(savedClipToOutline);
+        }
+        sync();
+    }
+
+    private void sync() {
+        View view = params.getView();
+        boolean used = shadowUser || clipUser;
+        if (used && !installed) {
+            installed = true;
+            savedProvider = view.getOutlineProvider();
+            view.setOutlineProvider(this);
+        } else if (!used && installed) {
+            installed = false;
+            view.setOutlineProvider(savedProvider);
+            savedProvider = null;
+        } else if (installed) {
+            view.invalidateOutline();
+        }
+    }
+
+    @Override
+    public void getOutline(View view, Outline outline) {
+        if (empty) {
+            outline.setEmpty();
+            return;
+        }
+        if (path != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            outline.setPath(path);
+            return;
+        }
+        outline.setRoundRect((int) area.left, (int) area.top, (int) area.right, (int) area.bottom, radius);
+    }
+}
@@ -1,7 +1,11 @@
 package com.github.xiaogqiong0v0.shadowview;
 
+import android.app.Activity;
 import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.BlurMaskFilter;
 import android.graphics.Canvas;
 import android.graphics.Color;
@@ -9,23 +13,42 @@ import android.graphics.DashPathEffect;
 import android.graphics.LinearGradient;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.graphics.PixelFormat;
 import android.graphics.PorterDuff;
 import android.graphics.PorterDuffXfermode;
 import android.graphics.RadialGradient;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Shader;
+import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
 import android.os.Build;
 import android.util.AttributeSet;
+import android.util.Log;
 import android.util.TypedValue;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
 
 import androidx.annotation.ColorInt;
 import androidx.annotation.IntDef;
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 import androidx.annotation.StyleableRes;
+import androidx.annotation.VisibleForTesting;
+
+import com.github.xiaogqiong0v0.shadowview.core.AnalyticShadow;
+import com.github.xiaogqiong0v0.shadowview.core.Bounds;
+import com.github.xiaogqiong0v0.shadowview.core.CornerAngles;
+import com.github.xiaogqiong0v0.shadowview.core.Insets;
+import com.github.xiaogqiong0v0.shadowview.core.MaskBlur;
+import com.github.xiaogqiong0v0.shadowview.core.ParallelMask;
+import com.github.xiaogqiong0v0.shadowview.core.ShadowGeometry;
+import com.github.xiaogqiong0v0.shadowview.core.SplitGeometry;
+
+import java.nio.ByteBuffer;
 
 /**
  * 包名：com.github.xiaogqiong0v0.shadowview
@@ -34,7 +57,9 @@ import androidx.annotation.StyleableRes;
  * 时间：2022/3/23 - 17:25
  * 说明：阴影区域 等于 rect - spread(张度) - blur(模糊半径) + shadowDx + shadowDy
  * 边框直接绘制在显示区域 不算在padding里面
- * 普通阴影 涉及样式改变 可直接 invalidate 否则需要手动调用 refreshParams
+ * 参数优先使用 setter 修改 只重建受影响的阶段 多个 setter 可用 beginUpdate commit 合并为一次重建
+ * 直接修改公开字段后 invalidate 即可 绘制前与上次重建的参数比较 按变化重建
+ * 几何参数不在每次测量时重建 布局完成或绘制前 尺寸与阴影参数有变化时才重建
  * ╭─────────────────────────────────────────────────────────────────────────────────────╮
  * │                          shadowBlur                                                 │
  * │     ╭──────────────────────────────────────────────────────────────────────────╮    │
@@ -64,6 +89,8 @@ import androidx.annotation.StyleableRes;
  * ╰─────────────────────────────────────────────────────────────────────────────────────╯
  */
 public class ShadowParams {
+    private static final String TAG = "ShadowParams";
+
     @IntDef({BORDER_TYPE_SOLID, BORDER_TYPE_DASHED})
     public @interface BorderType {
     }
@@ -82,18 +109,30 @@ public class ShadowParams {
     public @interface ShadowClip {
     }
 
-    public static final int SHADOW_CLIP_NONE = 0;
-    public static final int SHADOW_CLIP_LEFT = 1;
-    public static final int SHADOW_CLIP_TOP = 2;
-    public static final int SHADOW_CLIP_RIGHT = 4;
-    public static final int SHADOW_CLIP_BOTTOM = 8;
+    public static final int SHADOW_CLIP_NONE = ShadowGeometry.CLIP_NONE;
+    public static final int SHADOW_CLIP_LEFT = ShadowGeometry.CLIP_LEFT;
+    public static final int SHADOW_CLIP_TOP = ShadowGeometry.CLIP_TOP;
+    public static final int SHADOW_CLIP_RIGHT = ShadowGeometry.CLIP_RIGHT;
+    public static final int SHADOW_CLIP_BOTTOM = ShadowGeometry.CLIP_BOTTOM;
 
-    @IntDef({OUT_CLEAR_MODE_CLIP, OUT_CLEAR_MODE_CLEAR})
+    @IntDef({OUT_CLEAR_MODE_CLIP, OUT_CLEAR_MODE_CLEAR, OUT_CLEAR_MODE_LAYER})
     public @interface OutClearMode {
     }
 
     public static final int OUT_CLEAR_MODE_CLIP = 0;
     public static final int OUT_CLEAR_MODE_CLEAR = 1;
+    /**
+     * 与 clear 效果相同 under_color 透明时使用限定在显示区域的离屏层清除 不关闭硬件加速
+     */
+    public static final int OUT_CLEAR_MODE_LAYER = 2;
+    // 重建阶段 布局边距 裁剪路径 阴影几何 阴影着色 边框路径 画笔
+    private static final int DIRTY_LAYOUT = 1;
+    private static final int DIRTY_CLIP = 1 << 1;
+    private static final int DIRTY_SHADOW = 1 << 2;
+    private static final int DIRTY_SHADER = 1 << 3;
+    private static final int DIRTY_BORDER = 1 << 4;
+    private static final int DIRTY_PAINT = 1 << 5;
+    private static final int DIRTY_GEOMETRY = DIRTY_CLIP | DIRTY_SHADOW | DIRTY_SHADER | DIRTY_BORDER;
     //
     public int shadowColor;
     public int shadowDx;
@@ -119,6 +158,15 @@ public class ShadowParams {
      * 阴影下层颜色 设置非透明可以提升性能
      */
     public int underColor;
+    /**
+     * 自动获取阴影下层颜色 默认 false
+     * attach 及父 View 布局变化时向上查找第一个不透明的纯色背景(包括窗口背景) 作为 underColor
+     * 之后每帧绘制前只比较所取背景的对象与颜色 查找路径上其它祖先新增背景时需调用 {@link #resolveUnderColor()}
+     * 获取失败或关闭时使用设置的 under_color
+     */
+    public boolean underColorAuto;
+    // under_color 或 setUnderColor 设置的颜色 自动获取失败或关闭时使用
+    private int configuredUnderColor;
     /**
      * 外部清除模式 仅外阴影 默认 clip
      */
@@ -139,8 +187,47 @@ public class ShadowParams {
      * 意在尽量保持设置的宽高为可见宽高
      */
     public boolean autoDelMargin;
+    /**
+     * 软阴影使用进程内共享的阴影遮罩缓存 默认 false 硬阴影总是使用遮罩
+     * 相同阴影参数与尺寸的 View 共用一次渲染结果
+     */
+    public boolean shadowCache;
+    /**
+     * 点九方式拉伸阴影 仅软阴影 圆角不能为百分比 默认 false
+     * 阴影只渲染一次最小的角与边 尺寸变化时直接拉伸 不再重新模糊
+     */
+    public boolean shadowStretch;
+    /**
+     * API 29+ 硬件加速时 阴影与边框录制到 RenderNode 参数或尺寸变化时才重新录制 默认 true
+     */
+    public boolean renderNodeCache;
+    /**
+     * 指定渲染后端 默认自动选择
+     *
+     * @see ShadowRenderers
+     */
+    @ShadowRenderers.RendererType
+    public int rendererType;
+    /**
+     * API 21+ 硬件加速时 使用 Outline 裁剪内容与子 View 代替 clipPath 默认 false
+     * 仅 clip 模式 且没有绘制在显示区域外的外阴影(内阴影 无阴影 或系统 elevation 阴影)时生效
+     * 圆角不同时需要 API 33+ 其余情况与软件绘制仍使用 clipPath
+     */
+    public boolean outlineClip;
+    /**
+     * 自动选择后端时 参数与系统阴影接近则使用系统 elevation 阴影 API 28+ 硬件加速 默认 true
+     * 软外阴影 统一圆角 无贴边裁剪 clip 模式 偏移与张度和系统阴影在 View 当前位置的偏移 放大相差在容差内
+     * 且 alpha 不超过主题 spotShadowAlpha 能达到的值 详见 ElevationShadowRenderer
+     *
+     * @see ShadowRenderers#setElevationTolerance(float)
+     */
+    public boolean elevationAuto;
 
     /////////////////////////////////////////////
+    @Nullable
+    private static ParallelMask parallelMask;
+    @Nullable
+    private static AnalyticShadow analyticShadow;
     private final View view;
     private final PorterDuffXfermode porterDuffClearMode = new PorterDuffXfermode(PorterDuff.Mode.CLEAR);
     private final PorterDuffXfermode porterDuffDstOutMode = new PorterDuffXfermode(PorterDuff.Mode.DST_OUT);
@@ -169,6 +256,12 @@ public class ShadowParams {
     private Path innerClipPath;
     @Nullable
     private Path outerPath;
+    // layer 模式离屏层范围
+    @Nullable
+    private RectF clearLayerBounds;
+    // 外阴影离屏层范围 阴影路径外扩模糊范围 限定在 View 内
+    @Nullable
+    private RectF shadowLayerBounds;
     @Nullable
     private Path borderPath;
     @Nullable
@@ -191,6 +284,52 @@ public class ShadowParams {
     private Path shadowToRightPath;
     @Nullable
     private Path shadowToBottomPath;
+    @Nullable
+    private Bitmap shadowMask;
+    // 拉伸遮罩 四周不可拉伸的宽度
+    private boolean shadowMaskStretch;
+    // 遮罩缩小的倍数 大于 1 时四周多一个像素 绘制时放大
+    private int shadowMaskScale = 1;
+    // 只有颜色变化时硬阴影遮罩重绘到这里 不放入缓存
+    @Nullable
+    private Bitmap colorShadowMask;
+    @Nullable
+    private Canvas colorShadowMaskCanvas;
+    private int stretchLeft;
+    private int stretchTop;
+    private int stretchRight;
+    private int stretchBottom;
+    private final Rect stretchSrc = new Rect();
+    private final Rect stretchDst = new Rect();
+    // 硬阴影分块与厚度 正外 负内 颜色变化时只重建 shader
+    private final SplitGeometry splitGeometry = new SplitGeometry();
+    private float splitThickness;
+    // 分块路径 重建时复用上次的 Path 对象
+    private final PathBox splitLeftTopPath = new PathBox(),
+            splitRightTopPath = new PathBox(),
+            splitRightBottomPath = new PathBox(),
+            splitLeftBottomPath = new PathBox(),
+            splitLeftPath = new PathBox(),
+            splitTopPath = new PathBox(),
+            splitRightPath = new PathBox(),
+            splitBottomPath = new PathBox();
+    /////////// 重建与绘制时复用的临时对象 只在主线程使用
+    private final RectF tempRectF = new RectF();
+    private final RectF arcRectF = new RectF();
+    private final Rect layoutPaddings = new Rect();
+    private final int[] shaderColors2 = new int[2];
+    private final int[] shaderColors3 = new int[3];
+    private final float[] shaderPositions3 = new float[3];
+    private final Bounds tempBounds = new Bounds();
+    private final Insets tempInsets = new Insets();
+    private final CornerAngles cornerAngles = new CornerAngles();
+    // 模糊与虚线效果 参数不变时复用
+    @Nullable
+    private BlurMaskFilter cachedBlurMaskFilter;
+    private float cachedBlurRadius;
+    @Nullable
+    private DashPathEffect dashPathEffect;
+    private int dashPathEffectThickness;
 
     /////////// status
     private boolean drawAble = false;
@@ -199,6 +338,20 @@ public class ShadowParams {
     private boolean borderThicknessZero = false;
     private boolean shadowThicknessZero = false;
     private boolean layoutChanged = false;
+    // 尺寸变化 需要重建几何参数
+    private boolean geometryDirty = false;
+    private final GeometrySnapshot geometrySnapshot = new GeometrySnapshot();
+    // setter 累积的待处理阶段
+    private int pendingDirty;
+    private int updateDepth;
+    // 重建次数 供布局与绘制开销的回归测试使用
+    @VisibleForTesting
+    int rebuildCount;
+    // ShadowMetrics 开启后才创建
+    @Nullable
+    private ShadowMetrics.Stats metrics;
+    @Nullable
+    ShadowDebugOverlay.OverlayDrawable debugOverlay;
     ///////////
     private int savedLayerType;
     private Rect savedMargins;
@@ -212,6 +365,15 @@ public class ShadowParams {
     private int validH;
     @Nullable
     private Drawable backgroundDrawable;
+    private final UnderColorResolver underColorResolver = new UnderColorResolver();
+    @Nullable
+    private ShadowRenderer renderer;
+    private boolean rendererHardwareAccelerated;
+    // 显示区域 Outline 系统阴影与 Outline 裁剪共用
+    @Nullable
+    private ShadowOutline outline;
+    // 硬件加速绘制时由 Outline 裁剪 不再 clipPath
+    private boolean outlineClipActive;
 
     public ShadowParams(View view, @Nullable AttributeSet attrs, int defStyleAttr) {
         this.view = view;
@@ -235,10 +397,18 @@ public class ShadowParams {
         boxBorderColor = attr.getColor(R.styleable.ShadowView_box_border_color, Color.BLACK);
         boxBorderType = attr.getInt(R.styleable.ShadowView_box_border_type, BORDER_TYPE_SOLID);
         underColor = attr.getColor(R.styleable.ShadowView_under_color, Color.TRANSPARENT);
+        configuredUnderColor = underColor;
+        underColorAuto = attr.getBoolean(R.styleable.ShadowView_under_color_auto, false);
         outClearMode = attr.getInt(R.styleable.ShadowView_out_clear_mode, OUT_CLEAR_MODE_CLIP);
         autoAddPadding = attr.getBoolean(R.styleable.ShadowView_auto_add_padding, true);
         autoAddWidthHeight = attr.getBoolean(R.styleable.ShadowView_auto_add_width_height, false);
         autoDelMargin = attr.getBoolean(R.styleable.ShadowView_auto_del_margin, false);
+        shadowCache = attr.getBoolean(R.styleable.ShadowView_shadow_cache, false);
+        shadowStretch = attr.getBoolean(R.styleable.ShadowView_shadow_stretch, false);
+        renderNodeCache = attr.getBoolean(R.styleable.ShadowView_render_node_cache, true);
+        rendererType = attr.getInt(R.styleable.ShadowView_shadow_renderer, ShadowRenderers.RENDERER_AUTO);
+        outlineClip = attr.getBoolean(R.styleable.ShadowView_outline_clip, false);
+        elevationAuto = attr.getBoolean(R.styleable.ShadowView_elevation_auto, true);
         attr.recycle();
         //
         savedLayerType = view.getLayerType();
@@ -260,6 +430,8 @@ public class ShadowParams {
         shadowInset = false;
         shadowType = SHADOW_TYPE_SOFT;
         underColor = Color.TRANSPARENT;
+        configuredUnderColor = underColor;
+        underColorAuto = false;
         outClearMode = OUT_CLEAR_MODE_CLIP;
         shadowClip = SHADOW_CLIP_NONE;
         boxRadiusLeftTop = new PwPhValue();
@@ -272,6 +444,12 @@ public class ShadowParams {
         autoAddPadding = true;
         autoAddWidthHeight = false;
         autoDelMargin = false;
+        shadowCache = false;
+        shadowStretch = false;
+        renderNodeCache = true;
+        rendererType = ShadowRenderers.RENDERER_AUTO;
+        outlineClip = false;
+        elevationAuto = true;
         //
         savedLayerType = view.getLayerType();
         savedMargins = new Rect();
@@ -285,44 +463,38 @@ public class ShadowParams {
         paint.setAntiAlias(true);
         paint.setDither(true);
         paint.setStrokeWidth(0);
+        view.addOnAttachStateChangeListener(underColorResolver);
+        // 一次布局会多次测量 几何参数在布局完成后按最终尺寸重建
+        view.addOnLayoutChangeListener((v, left, top, right, bottom, oldLeft, oldTop, oldRight, oldBottom) ->
+                ensureGeometry());
     }
 
-    public final Rect getPaddingRect() {
-        int dis = shadowSpread + shadowBlur;
-        Rect rect = new Rect(dis, dis, dis, dis);
-        // 外阴影 dx 增加 整体左移 来绘制右侧阴影
-        // dy 增加 整体上移 来绘制下侧阴影 出现负值需要偏移到可见区域
-        rect.left -= shadowDx;
-        rect.top -= shadowDy;
-        rect.right += shadowDx;
-        rect.bottom += shadowDy;
-        // 如果有小于0的值,再次偏移
-        if (rect.right < 0) {
-            rect.left += rect.right;
-            rect.right = 0;
-        } else if (rect.left < 0) {
-            rect.right += rect.left;
-            rect.left = 0;
-        }
-        if (rect.bottom < 0) {
-            rect.top += rect.bottom;
-            rect.bottom = 0;
-        } else if (rect.top < 0) {
-            rect.bottom += rect.top;
-            rect.top = 0;
-        }
-        if ((shadowClip & SHADOW_CLIP_LEFT) == SHADOW_CLIP_LEFT) {
-            rect.left = 0;
-        }
-        if ((shadowClip & SHADOW_CLIP_TOP) == SHADOW_CLIP_TOP) {
-            rect.top = 0;
-        }
-        if ((shadowClip & SHADOW_CLIP_RIGHT) == SHADOW_CLIP_RIGHT) {
-            rect.right = 0;
-        }
-        if ((shadowClip & SHADOW_CLIP_BOTTOM) == SHADOW_CLIP_BOTTOM) {
-            rect.bottom = 0;
+    /**
+     * underColorAuto 时是否获取到了不透明的下层颜色
+     */
+    public final boolean isUnderColorResolved() {
+        return underColorResolver.resolved;
+    }
+
+    /**
+     * 立即重新获取下层颜色 仅 underColorAuto 有效
+     * 完整查找只在 attach 和父 View 布局变化时进行 绘制前只检查上次所取的背景
+     * 查找路径上其它祖先的背景变化后需调用
+     */
+    public final void resolveUnderColor() {
+        if (underColorAuto) {
+            underColorResolver.resolve();
         }
+    }
+
+    public final Rect getPaddingRect() {
+        return getPaddingRect(new Rect());
+    }
+
+    private Rect getPaddingRect(Rect rect) {
+        Insets insets = ShadowGeometry.paddingInsets(tempInsets,
+                shadowSpread, shadowBlur, shadowDx, shadowDy, shadowClip);
+        rect.set(insets.left, insets.top, insets.right, insets.bottom);
         return rect;
     }
 
@@ -373,6 +545,19 @@ public class ShadowParams {
     }
 
     public final void measure(int widthMeasureSpec, int heightMeasureSpec, OnMeasureListener onMeasureSuperListener) {
+        if (!ShadowMetrics.enabled) {
+            measureInternal(widthMeasureSpec, heightMeasureSpec, onMeasureSuperListener);
+            return;
+        }
+        long start = ShadowMetrics.begin(obtainMetrics(), ShadowMetrics.OP_MEASURE);
+        try {
+            measureInternal(widthMeasureSpec, heightMeasureSpec, onMeasureSuperListener);
+        } finally {
+            ShadowMetrics.end(obtainMetrics(), ShadowMetrics.OP_MEASURE, start);
+        }
+    }
+
+    private void measureInternal(int widthMeasureSpec, int heightMeasureSpec, OnMeasureListener onMeasureSuperListener) {
         if (shadowInset) {
             restoreLayout();
         } else {
@@ -387,29 +572,74 @@ public class ShadowParams {
             drawAble = false;
             return;
         }
-        currentW = w;
-        currentH = h;
+        int newValidW, newValidH;
         if (currentPaddings != null) {
-            validW = w - currentPaddings.left - currentPaddings.right;
-            validH = h - currentPaddings.top - currentPaddings.bottom;
+            newValidW = w - currentPaddings.left - currentPaddings.right;
+            newValidH = h - currentPaddings.top - currentPaddings.bottom;
         } else {
-            validW = w;
-            validH = h;
+            newValidW = w;
+            newValidH = h;
+        }
+        if (w != currentW || h != currentH || newValidW != validW || newValidH != validH) {
+            currentW = w;
+            currentH = h;
+            validW = newValidW;
+            validH = newValidH;
+            geometryDirty = true;
         }
-        refreshParams();
         drawAble = true;
     }
 
+    /**
+     * 尺寸变化全部重建 否则只重建与上次参数不同的阶段
+     */
+    private void ensureGeometry() {
+        if (currentW == 0 || currentH == 0) {
+            return;
+        }
+        int dirty = geometryDirty ? DIRTY_GEOMETRY : geometrySnapshot.diff(this);
+        if (dirty != 0) {
+            rebuild(dirty);
+        }
+    }
+
     public final void draw(Canvas canvas, OnDrawSuperListener onDrawSuperListener) {
         if (!drawAble) {
             return;
         }
-        if (outClearMode == OUT_CLEAR_MODE_CLEAR) {
+        if (!ShadowMetrics.enabled) {
+            drawInternal(canvas, onDrawSuperListener);
+        } else {
+            long start = ShadowMetrics.begin(obtainMetrics(), ShadowMetrics.OP_DRAW);
+            try {
+                drawInternal(canvas, onDrawSuperListener);
+            } finally {
+                ShadowMetrics.end(obtainMetrics(), ShadowMetrics.OP_DRAW, start);
+            }
+        }
+        // 覆盖层不依赖 ShadowMetrics 关闭统计后仍跟随尺寸与渲染后端
+        if (ShadowDebugOverlay.enabled) {
+            ShadowDebugOverlay.update(this);
+        }
+    }
+
+    private void drawInternal(Canvas canvas, OnDrawSuperListener onDrawSuperListener) {
+        ensureGeometry();
+        if (canvas.isHardwareAccelerated() && !rendererHardwareAccelerated) {
+            // 测量时还未确定是否硬件加速
+            selectRenderer(true);
+            updateOutlineClip();
+        }
+        // 软件绘制(如截图)不支持 Outline 裁剪
+        boolean useOutlineClip = outlineClipActive && canvas.isHardwareAccelerated();
+        if (outClearMode == OUT_CLEAR_MODE_LAYER && underColor == Color.TRANSPARENT) {
+            drawLayerClear(canvas, onDrawSuperListener);
+        } else if (outClearMode == OUT_CLEAR_MODE_CLEAR || outClearMode == OUT_CLEAR_MODE_LAYER) {
             drawSuper(canvas, onDrawSuperListener);
             if (!shadowThicknessZero) {
                 // 绘制阴影
                 if (shadowInset) {
-                    drawInsetShadow(canvas);
+                    drawShadow(canvas);
                     // 把多余的清除
                     drawOuterClear(canvas);
                 } else {
@@ -424,28 +654,52 @@ public class ShadowParams {
             if (!shadowThicknessZero) {
                 // 绘制阴影
                 if (shadowInset) {
-                    drawClipSuper(canvas, onDrawSuperListener);
-                    drawInsetShadow(canvas);
+                    drawClipSuper(canvas, onDrawSuperListener, useOutlineClip);
+                    drawShadow(canvas);
                 } else {
                     drawShadow(canvas);
-                    canvas.saveLayer(0, 0, currentW, currentH, null, Canvas.ALL_SAVE_FLAG);
-                    drawClipSuper(canvas, onDrawSuperListener);
-                    canvas.restore();
+                    // 内容与阴影没有重叠 只需恢复裁剪 不需要离屏层
+                    int saveCount = canvas.save();
+                    drawClipSuper(canvas, onDrawSuperListener, useOutlineClip);
+                    canvas.restoreToCount(saveCount);
                 }
             } else {
-                drawClipSuper(canvas, onDrawSuperListener);
+                drawClipSuper(canvas, onDrawSuperListener, useOutlineClip);
             }
         }
         drawBorder(canvas);
-        if (innerClipPath != null) {
+        if (innerClipPath != null && !(useOutlineClip && borderThicknessZero)) {
+            // 有边框时子 View 限定在边框内 仍需要裁剪
             canvas.clipPath(innerClipPath);
         }
     }
 
     public final void refreshParams() {
+        rebuild(DIRTY_GEOMETRY);
+    }
+
+    /**
+     * 按阶段重建 裁剪路径 -> 边框路径 -> 阴影几何 -> 阴影着色
+     * 阴影几何重建时会同时生成着色 只有颜色变化时只重建着色 不重建任何 Path
+     */
+    private void rebuild(int dirty) {
         if (currentW == 0 || currentH == 0) {
             return;
         }
+        if (!ShadowMetrics.enabled) {
+            rebuildStages(dirty);
+            return;
+        }
+        long start = ShadowMetrics.begin(obtainMetrics(), ShadowMetrics.OP_REBUILD);
+        try {
+            rebuildStages(dirty);
+        } finally {
+            ShadowMetrics.end(obtainMetrics(), ShadowMetrics.OP_REBUILD, start);
+        }
+    }
+
+    private void rebuildStages(int dirty) {
+        rebuildCount++;
         if (backgroundDrawable != null) {
             backgroundDrawable.setBounds(0, 0, currentW, currentH);
         }
@@ -453,48 +707,813 @@ public class ShadowParams {
         shadowBlurZero = shadowBlurZero();
         borderThicknessZero = borderThicknessZero();
         shadowThicknessZero = shadowThicknessZero();
+        if ((dirty & DIRTY_CLIP) != 0) {
+            rebuildClip();
+        }
+        if ((dirty & DIRTY_BORDER) != 0) {
+            borderPath = getBorderPath(currentW, currentH, borderPath);
+        }
+        boolean hardwareAccelerated = view.isHardwareAccelerated() && view.getLayerType() != View.LAYER_TYPE_SOFTWARE;
+        if ((dirty & DIRTY_SHADOW) == 0 && (dirty & DIRTY_SHADER) != 0) {
+            if (renderer == null || ShadowRenderers.select(this, renderer, rendererHardwareAccelerated) != renderer) {
+                // 颜色影响后端选择
+                dirty |= DIRTY_SHADOW;
+            } else {
+                rebuildShader();
+            }
+        }
+        if ((dirty & DIRTY_SHADOW) != 0 || renderer == null || hardwareAccelerated != rendererHardwareAccelerated) {
+            selectRenderer(hardwareAccelerated);
+        }
+        updateOutlineClip();
+        geometryDirty = false;
+        geometrySnapshot.save(this);
+    }
+
+    private void rebuildClip() {
         if (outClearMode == OUT_CLEAR_MODE_CLEAR) {
-            outerPath = getOuterPath(currentW, currentH);
+            outerPath = getOuterPath(currentW, currentH, outerPath);
             if (outerPath != null) {
                 if (underColor == Color.TRANSPARENT) {
+                    if (view.getLayerType() != View.LAYER_TYPE_SOFTWARE) {
+                        countMetrics(ShadowMetrics.COUNTER_SOFTWARE_LAYER);
+                    }
                     view.setLayerType(View.LAYER_TYPE_SOFTWARE, null);
                 } else {
                     view.setLayerType(savedLayerType, null);
                 }
             }
+        } else if (outClearMode == OUT_CLEAR_MODE_LAYER) {
+            outerPath = getOuterPath(currentW, currentH, outerPath);
+            if (view.getLayerType() != savedLayerType) {
+                view.setLayerType(savedLayerType, null);
+            }
+            RectF area;
+            if (shadowInset) {
+                area = tempRectF;
+                area.set(0, 0, currentW, currentH);
+            } else {
+                area = getInnerArea(currentW, currentH);
+            }
+            if (area == null) {
+                clearLayerBounds = null;
+            } else {
+                if (clearLayerBounds == null) {
+                    clearLayerBounds = new RectF();
+                }
+                clearLayerBounds.set(area);
+            }
+        } else {
+            outerClipPath = getOuterClipPath(currentW, currentH, outerClipPath);
+        }
+        innerClipPath = getInnerClipPath(currentW, currentH, innerClipPath);
+    }
+
+    /**
+     * 只有阴影颜色变化 硬阴影重建渐变 软阴影绘制时着色无需处理
+     */
+    private void rebuildShader() {
+        if (shadowType == SHADOW_TYPE_HARD && !shadowThicknessZero) {
+            obtainShadowSplitShader();
+            ShadowRenderer base = renderer instanceof RenderNodeShadowRenderer
+                    ? ((RenderNodeShadowRenderer) renderer).getDelegate() : renderer;
+            if (base != null && base.getType() == ShadowRenderers.RENDERER_BITMAP) {
+                // 硬阴影遮罩已着色
+                redrawColorShadowMask();
+            }
+        }
+        if (renderer != null && renderer.getType() == ShadowRenderers.RENDERER_ELEVATION) {
+            // 系统阴影颜色
+            renderer.prepare(this);
+        }
+    }
+
+    /**
+     * 开始批量修改 commit 前 setter 只记录变化
+     * 可嵌套 最外层 commit 时统一重建一次并 invalidate 一次
+     */
+    public final void beginUpdate() {
+        updateDepth++;
+    }
+
+    public final void commit() {
+        if (updateDepth == 0) {
+            throw new IllegalStateException("commit() without beginUpdate()");
+        }
+        if (--updateDepth == 0) {
+            applyPending();
+        }
+    }
+
+    private void markDirty(int dirty) {
+        pendingDirty |= dirty;
+        if (updateDepth == 0) {
+            applyPending();
+        }
+    }
+
+    private void applyPending() {
+        int dirty = pendingDirty;
+        pendingDirty = 0;
+        if (dirty == 0) {
+            return;
+        }
+        if ((dirty & DIRTY_LAYOUT) != 0) {
+            // 边距变化 重新测量后按最终尺寸与参数差异重建
+            view.requestLayout();
+        } else if ((dirty & DIRTY_GEOMETRY) != 0) {
+            rebuild(dirty);
+        }
+        view.invalidate();
+    }
+
+    public final void setShadowColor(@ColorInt int shadowColor) {
+        if (this.shadowColor != shadowColor) {
+            this.shadowColor = shadowColor;
+            markDirty(DIRTY_SHADER);
+        }
+    }
+
+    public final void setShadowDx(int shadowDx) {
+        if (this.shadowDx != shadowDx) {
+            this.shadowDx = shadowDx;
+            markDirty(DIRTY_LAYOUT);
+        }
+    }
+
+    public final void setShadowDy(int shadowDy) {
+        if (this.shadowDy != shadowDy) {
+            this.shadowDy = shadowDy;
+            markDirty(DIRTY_LAYOUT);
+        }
+    }
+
+    public final void setShadowBlur(int shadowBlur) {
+        if (this.shadowBlur != shadowBlur) {
+            this.shadowBlur = shadowBlur;
+            markDirty(DIRTY_LAYOUT);
+        }
+    }
+
+    public final void setShadowSpread(int shadowSpread) {
+        if (this.shadowSpread != shadowSpread) {
+            this.shadowSpread = shadowSpread;
+            markDirty(DIRTY_LAYOUT);
+        }
+    }
+
+    public final void setShadowInset(boolean shadowInset) {
+        if (this.shadowInset != shadowInset) {
+            this.shadowInset = shadowInset;
+            markDirty(DIRTY_LAYOUT);
+        }
+    }
+
+    public final void setShadowClip(@ShadowClip int shadowClip) {
+        if (this.shadowClip != shadowClip) {
+            this.shadowClip = shadowClip;
+            markDirty(DIRTY_LAYOUT);
+        }
+    }
+
+    public final void setShadowType(@ShadowType int shadowType) {
+        if (this.shadowType != shadowType) {
+            this.shadowType = shadowType;
+            markDirty(DIRTY_SHADOW);
+        }
+    }
+
+    /**
+     * 四个圆角设为同一像素值
+     */
+    public final void setBoxRadius(int radius) {
+        setBoxRadius(radius, radius, radius, radius);
+    }
+
+    public final void setBoxRadius(int leftTop, int rightTop, int rightBottom, int leftBottom) {
+        boolean changed = setRadiusValue(boxRadiusLeftTop, leftTop, false, false);
+        changed |= setRadiusValue(boxRadiusRightTop, rightTop, false, false);
+        changed |= setRadiusValue(boxRadiusRightBottom, rightBottom, false, false);
+        changed |= setRadiusValue(boxRadiusLeftBottom, leftBottom, false, false);
+        if (changed) {
+            markDirty(DIRTY_CLIP | DIRTY_SHADOW | DIRTY_BORDER);
+        }
+    }
+
+    /**
+     * 圆角可为百分比 参数只复制值 不持有引用
+     */
+    public final void setBoxRadius(PwPhValue leftTop, PwPhValue rightTop, PwPhValue rightBottom, PwPhValue leftBottom) {
+        boolean changed = setRadiusValue(boxRadiusLeftTop, leftTop.value, leftTop.percent, leftTop.isWidth);
+        changed |= setRadiusValue(boxRadiusRightTop, rightTop.value, rightTop.percent, rightTop.isWidth);
+        changed |= setRadiusValue(boxRadiusRightBottom, rightBottom.value, rightBottom.percent, rightBottom.isWidth);
+        changed |= setRadiusValue(boxRadiusLeftBottom, leftBottom.value, leftBottom.percent, leftBottom.isWidth);
+        if (changed) {
+            markDirty(DIRTY_CLIP | DIRTY_SHADOW | DIRTY_BORDER);
+        }
+    }
+
+    private static boolean setRadiusValue(PwPhValue target, int value, boolean percent, boolean isWidth) {
+        if (target.value == value && target.percent == percent && target.isWidth == isWidth) {
+            return false;
+        }
+        target.value = value;
+        target.percent = percent;
+        target.isWidth = isWidth;
+        return true;
+    }
+
+    public final void setBoxBorderThickness(int boxBorderThickness) {
+        if (this.boxBorderThickness != boxBorderThickness) {
+            this.boxBorderThickness = boxBorderThickness;
+            markDirty(DIRTY_CLIP | DIRTY_SHADOW | DIRTY_BORDER);
+        }
+    }
+
+    /**
+     * 只影响画笔 不重建路径
+     */
+    public final void setBoxBorderColor(@ColorInt int boxBorderColor) {
+        if (this.boxBorderColor != boxBorderColor) {
+            this.boxBorderColor = boxBorderColor;
+            markDirty(DIRTY_PAINT);
+        }
+    }
+
+    /**
+     * 只影响画笔 不重建路径
+     */
+    public final void setBoxBorderType(@BorderType int boxBorderType) {
+        if (this.boxBorderType != boxBorderType) {
+            this.boxBorderType = boxBorderType;
+            markDirty(DIRTY_PAINT);
+        }
+    }
+
+    /**
+     * underColorAuto 获取成功时只记录 获取失败或关闭自动获取后使用
+     */
+    public final void setUnderColor(@ColorInt int underColor) {
+        configuredUnderColor = underColor;
+        if (underColorAuto && underColorResolver.resolved) {
+            return;
+        }
+        if (this.underColor != underColor) {
+            this.underColor = underColor;
+            markDirty(DIRTY_CLIP);
+        }
+    }
+
+    public final void setUnderColorAuto(boolean underColorAuto) {
+        if (this.underColorAuto != underColorAuto) {
+            this.underColorAuto = underColorAuto;
+            if (underColorAuto) {
+                // isAttachedToWindow 需要 API 19
+                if (view.getWindowToken() != null) {
+                    underColorResolver.listen(view);
+                }
+                underColorResolver.resolve();
+            } else {
+                underColorResolver.unlisten();
+                underColorResolver.resolved = false;
+                if (underColor != configuredUnderColor) {
+                    underColor = configuredUnderColor;
+                    markDirty(DIRTY_CLIP);
+                }
+            }
+        }
+    }
+
+    public final void setOutClearMode(@OutClearMode int outClearMode) {
+        if (this.outClearMode != outClearMode) {
+            this.outClearMode = outClearMode;
+            markDirty(DIRTY_CLIP | DIRTY_SHADOW);
+        }
+    }
+
+    public final void setAutoAddPadding(boolean autoAddPadding) {
+        if (this.autoAddPadding != autoAddPadding) {
+            this.autoAddPadding = autoAddPadding;
+            markDirty(DIRTY_LAYOUT);
+        }
+    }
+
+    public final void setAutoAddWidthHeight(boolean autoAddWidthHeight) {
+        if (this.autoAddWidthHeight != autoAddWidthHeight) {
+            this.autoAddWidthHeight = autoAddWidthHeight;
+            markDirty(DIRTY_LAYOUT);
+        }
+    }
+
+    public final void setAutoDelMargin(boolean autoDelMargin) {
+        if (this.autoDelMargin != autoDelMargin) {
+            this.autoDelMargin = autoDelMargin;
+            markDirty(DIRTY_LAYOUT);
+        }
+    }
+
+    public final void setShadowCache(boolean shadowCache) {
+        if (this.shadowCache != shadowCache) {
+            this.shadowCache = shadowCache;
+            markDirty(DIRTY_SHADOW);
+        }
+    }
+
+    public final void setShadowStretch(boolean shadowStretch) {
+        if (this.shadowStretch != shadowStretch) {
+            this.shadowStretch = shadowStretch;
+            markDirty(DIRTY_SHADOW);
+        }
+    }
+
+    public final void setRenderNodeCache(boolean renderNodeCache) {
+        if (this.renderNodeCache != renderNodeCache) {
+            this.renderNodeCache = renderNodeCache;
+            markDirty(DIRTY_SHADOW);
+        }
+    }
+
+    public final void setRendererType(@ShadowRenderers.RendererType int rendererType) {
+        if (this.rendererType != rendererType) {
+            this.rendererType = rendererType;
+            markDirty(DIRTY_SHADOW);
+        }
+    }
+
+    public final void setOutlineClip(boolean outlineClip) {
+        if (this.outlineClip != outlineClip) {
+            this.outlineClip = outlineClip;
+            markDirty(DIRTY_CLIP);
+        }
+    }
+
+    public final void setElevationAuto(boolean elevationAuto) {
+        if (this.elevationAuto != elevationAuto) {
+            this.elevationAuto = elevationAuto;
+            markDirty(DIRTY_SHADOW);
+        }
+    }
+
+    private void selectRenderer(boolean hardwareAccelerated) {
+        ShadowRenderer selected = ShadowRenderers.select(this, renderer, hardwareAccelerated);
+        if (renderer != null && renderer != selected) {
+            renderer.release(this);
+        }
+        renderer = selected;
+        rendererHardwareAccelerated = hardwareAccelerated;
+        shadowMask = null;
+        colorShadowMask = null;
+        colorShadowMaskCanvas = null;
+        shadowMaskStretch = false;
+        shadowMaskScale = 1;
+        selected.prepare(this);
+    }
+
+    /**
+     * 当前使用的渲染后端 未测量时为空
+     */
+    @Nullable
+    public final ShadowRenderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * 本 View 的开销统计 {@link ShadowMetrics} 未开启过时为 null
+     */
+    @Nullable
+    public final ShadowMetrics.Stats getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 供 View.hasOverlappingRendering() 使用 返回 false 时透明度动画直接作用在每次绘制上 不再额外创建离屏层
+     * 外阴影只绘制在显示区域外 与内容不重叠
+     * 背景 内容 边框 内阴影 叠在显示区域内 超过一层时视为重叠
+     * CLEAR 模式清除外部时依赖离屏层 视为重叠
+     *
+     * @param hasContent         View 自身是否有内容 如文字 图片 子 View
+     * @param contentOverlapping 内容本身是否重叠 一般传入 super.hasOverlappingRendering()
+     */
+    public final boolean hasOverlappingRendering(boolean hasContent, boolean contentOverlapping) {
+        if (hasContent && contentOverlapping) {
+            return true;
+        }
+        int layers = hasContent ? 1 : 0;
+        if (backgroundDrawable != null) {
+            layers++;
+        }
+        if (!borderThicknessZero) {
+            layers++;
+        }
+        if (shadowInset && !shadowThicknessZero) {
+            layers++;
+        }
+        if (outClearMode != OUT_CLEAR_MODE_CLIP && outerPath != null) {
+            layers++;
+        }
+        return layers > 1;
+    }
+
+    /**
+     * 获取阴影遮罩 shadowStretch 时优先使用点九拉伸遮罩
+     */
+    void obtainShadowMask() {
+        if (shadowThicknessZero) {
+            return;
+        }
+        if (shadowStretch && obtainStretchMask()) {
+            return;
+        }
+        obtainFullShadowMask();
+    }
+
+    /**
+     * 从共享缓存获取阴影遮罩 未命中时构建路径并渲染
+     */
+    private void obtainFullShadowMask() {
+        ShadowCache cache = ShadowCache.getInstance();
+        ShadowCache.Key key = getShadowMaskKey();
+        Bitmap mask = cache.get(key);
+        countMetrics(mask != null ? ShadowMetrics.COUNTER_CACHE_HIT : ShadowMetrics.COUNTER_CACHE_MISS);
+        int scale = softMaskScale();
+        shadowMaskScale = scale;
+        if (mask != null) {
+            if (scale > 1 && !shadowInset) {
+                // 绘制时挖去显示区域
+                innerPath = getInnerPath(currentW, currentH, innerPath);
+            }
+            shadowMask = mask;
+            return;
+        }
+        obtainShadowPaths();
+        if (shadowInset ? shadowInnerPath == null : innerPath == null || shadowInnerPath == null) {
+            shadowMask = null;
+            return;
+        }
+        if (shadowType == SHADOW_TYPE_SOFT && ShadowRenderers.getBlurEngine() != ShadowRenderers.BLUR_ENGINE_PLATFORM) {
+            mask = renderSoftMask(currentW, currentH, shadowInnerPath,
+                    shadowInset || scale > 1 ? null : innerPath, scale);
+            cache.put(key, mask);
+            shadowMask = mask;
+            return;
+        }
+        // 硬阴影渐变按颜色插值 不能只保存透明度
+        boolean hard = shadowType == SHADOW_TYPE_HARD;
+        mask = Bitmap.createBitmap(currentW, currentH, hard ? Bitmap.Config.ARGB_8888 : Bitmap.Config.ALPHA_8);
+        Canvas maskCanvas = new Canvas(mask);
+        int color = hard ? shadowColor : Color.BLACK;
+        if (shadowInset) {
+            drawInsetShadowPath(maskCanvas, color);
+        } else {
+            drawShadowPath(maskCanvas, color);
+        }
+        cache.put(key, mask);
+        shadowMask = mask;
+    }
+
+    /**
+     * 只有颜色变化时 硬阴影遮罩重绘到本 View 自己的 Bitmap 不按颜色放入缓存
+     * 颜色动画中每次变化只重绘一次路径 不分配 Bitmap 也不会挤掉缓存中其它 View 的遮罩
+     * 几何变化重新选择后端时丢弃 回到共享缓存
+     */
+    private void redrawColorShadowMask() {
+        if (colorShadowMask == null) {
+            // 缓存命中时没有构建路径 之后几何不变 路径可以继续使用
+            obtainShadowPaths();
+        }
+        if (shadowInset ? shadowInnerPath == null : innerPath == null || shadowInnerPath == null) {
+            shadowMask = null;
+            return;
+        }
+        Bitmap mask = colorShadowMask;
+        Canvas maskCanvas = colorShadowMaskCanvas;
+        if (mask == null || maskCanvas == null || mask.getWidth() != currentW || mask.getHeight() != currentH) {
+            mask = Bitmap.createBitmap(currentW, currentH, Bitmap.Config.ARGB_8888);
+            maskCanvas = new Canvas(mask);
+            colorShadowMask = mask;
+            colorShadowMaskCanvas = maskCanvas;
+        } else {
+            mask.eraseColor(Color.TRANSPARENT);
+        }
+        if (shadowInset) {
+            drawInsetShadowPath(maskCanvas, shadowColor);
+        } else {
+            drawShadowPath(maskCanvas, shadowColor);
+        }
+        shadowMask = mask;
+        shadowMaskScale = 1;
+    }
+
+    /**
+     * 获取点九拉伸遮罩 只渲染四角与 1px 的边 尺寸不够或圆角为百分比时返回 false
+     */
+    private boolean obtainStretchMask() {
+        if (shadowType != SHADOW_TYPE_SOFT) {
+            return false;
+        }
+        if (!radiusStretchable(boxRadiusLeftTop) || !radiusStretchable(boxRadiusRightTop)
+                || !radiusStretchable(boxRadiusRightBottom) || !radiusStretchable(boxRadiusLeftBottom)) {
+            return false;
+        }
+        // BlurMaskFilter 实际扩散范围约为 3 sigma
+        int blurExtent = (int) Math.ceil(getBlurRadius() * 1.8f) + 2;
+        float radiusLeft = Math.max(getRadiusLeftTop(), getRadiusLeftBottom());
+        float radiusTop = Math.max(getRadiusLeftTop(), getRadiusRightTop());
+        float radiusRight = Math.max(getRadiusRightTop(), getRadiusRightBottom());
+        float radiusBottom = Math.max(getRadiusLeftBottom(), getRadiusRightBottom());
+        float left, top, right, bottom;
+        if (shadowInset) {
+            float dis = shadowSpread + boxBorderThickness;
+            left = Math.max(0, dis + shadowDx) + radiusLeft + blurExtent;
+            top = Math.max(0, dis + shadowDy) + radiusTop + blurExtent;
+            right = Math.max(0, dis - shadowDx) + radiusRight + blurExtent;
+            bottom = Math.max(0, dis - shadowDy) + radiusBottom + blurExtent;
+        } else {
+            RectF innerArea = getInnerArea(currentW, currentH);
+            if (innerArea == null) {
+                return false;
+            }
+            float innerRight = currentW - innerArea.right;
+            float innerBottom = currentH - innerArea.bottom;
+            left = Math.max(innerArea.left + radiusLeft,
+                    innerArea.left - shadowSpread + shadowDx + radiusLeft + blurExtent);
+            top = Math.max(innerArea.top + radiusTop,
+                    innerArea.top - shadowSpread + shadowDy + radiusTop + blurExtent);
+            right = Math.max(innerRight + radiusRight,
+                    innerRight - shadowSpread - shadowDx + radiusRight + blurExtent);
+            bottom = Math.max(innerBottom + radiusBottom,
+                    innerBottom - shadowSpread - shadowDy + radiusBottom + blurExtent);
+        }
+        int sliceLeft = (int) Math.ceil(left) + 1;
+        int sliceTop = (int) Math.ceil(top) + 1;
+        int sliceRight = (int) Math.ceil(right) + 1;
+        int sliceBottom = (int) Math.ceil(bottom) + 1;
+        int maskW = sliceLeft + 1 + sliceRight;
+        int maskH = sliceTop + 1 + sliceBottom;
+        if (currentW < maskW || currentH < maskH) {
+            return false;
+        }
+        ShadowCache cache = ShadowCache.getInstance();
+        ShadowCache.Key key = getShadowMaskKey(maskW, maskH);
+        Bitmap mask = cache.get(key);
+        countMetrics(mask != null ? ShadowMetrics.COUNTER_CACHE_HIT : ShadowMetrics.COUNTER_CACHE_MISS);
+        if (mask == null) {
+            mask = renderShadowMask(maskW, maskH);
+            if (mask == null) {
+                return false;
+            }
+            cache.put(key, mask);
+        }
+        shadowMask = mask;
+        shadowMaskStretch = true;
+        shadowMaskScale = 1;
+        stretchLeft = sliceLeft;
+        stretchTop = sliceTop;
+        stretchRight = sliceRight;
+        stretchBottom = sliceBottom;
+        return true;
+    }
+
+    private static boolean radiusStretchable(PwPhValue value) {
+        return !value.percent || value.value == 0;
+    }
+
+    /**
+     * 按指定尺寸渲染软阴影遮罩 不影响当前尺寸的路径
+     */
+    @Nullable
+    private Bitmap renderShadowMask(int w, int h) {
+        Path shadowPath;
+        Path clearPath = null;
+        if (shadowInset) {
+            shadowPath = getInsetShadowPath(w, h, null);
+        } else {
+            shadowPath = getShadowInnerPath(w, h, null);
+            clearPath = getInnerPath(w, h, null);
+            if (clearPath == null) {
+                return null;
+            }
+        }
+        if (shadowPath == null) {
+            return null;
+        }
+        return renderSoftMask(w, h, shadowPath, clearPath, 1);
+    }
+
+    /**
+     * 软阴影遮罩的缩小倍数 按 {@link ShadowRenderers#setMaxBlurError(int)} 的误差决定
+     * 外阴影缩小后绘制时用 clipOutPath 挖去显示区域 API 28 起硬件加速的路径裁剪才有抗锯齿
+     * BlurMaskFilter 的半径随画布缩放 不做面积平均的修正 不缩小
+     */
+    private int softMaskScale() {
+        if (shadowType != SHADOW_TYPE_SOFT || ShadowRenderers.getBlurEngine() == ShadowRenderers.BLUR_ENGINE_PLATFORM) {
+            return 1;
+        }
+        if (!shadowInset && Build.VERSION.SDK_INT < Build.VERSION_CODES.P) {
+            return 1;
+        }
+        return MaskBlur.downsampleFactor(MaskBlur.sigma(getBlurRadius()), ShadowRenderers.getMaxBlurError() / 255f);
+    }
+
+    /**
+     * 软阴影遮罩 BLUR_ENGINE_PLATFORM 时使用 BlurMaskFilter BLUR_ENGINE_ANALYTIC 时用 {@link AnalyticShadow} 直接计算
+     * 否则形状不带模糊绘制到四周外扩模糊范围的 ALPHA_8 位图 用 {@link MaskBlur} 原地模糊后裁出
+     * scale 大于 1 时遮罩缩小 scale 倍 四周多一个像素 放大时边缘的像素也能插值
+     * 大遮罩由 {@link ParallelMask} 分带并行计算
+     */
+    private Bitmap renderSoftMask(int w, int h, Path shadowPath, @Nullable Path clearPath, int scale) {
+        int border = scale > 1 ? 1 : 0;
+        int maskW = (w + scale - 1) / scale + border * 2;
+        int maskH = (h + scale - 1) / scale + border * 2;
+        Bitmap mask = Bitmap.createBitmap(maskW, maskH, Bitmap.Config.ALPHA_8);
+        // 直接绘制路径时 scale 总是 1
+        Canvas maskCanvas = new Canvas(mask);
+        float blurRadius = getBlurRadius();
+        paint.setColor(Color.BLACK);
+        paint.setStyle(Paint.Style.FILL);
+        int engine = ShadowRenderers.getBlurEngine();
+        if (blurRadius > 0 && engine == ShadowRenderers.BLUR_ENGINE_PLATFORM) {
+            paint.setMaskFilter(obtainBlurMaskFilter(blurRadius));
+            maskCanvas.drawPath(shadowPath, paint);
+            paint.setMaskFilter(null);
+        } else if (blurRadius > 0 && engine == ShadowRenderers.BLUR_ENGINE_ANALYTIC
+                && renderAnalyticMask(mask, w, h, blurRadius, scale)) {
+            // 已直接写入遮罩 不能再绘制未模糊的形状
+        } else if (blurRadius > 0) {
+            float sigma = MaskBlur.downsampledSigma(MaskBlur.sigma(blurRadius), scale);
+            int margin = MaskBlur.extent(sigma);
+            Bitmap shape = Bitmap.createBitmap(maskW + margin * 2, maskH + margin * 2, Bitmap.Config.ALPHA_8);
+            Canvas shapeCanvas = new Canvas(shape);
+            shapeCanvas.translate(margin + border, margin + border);
+            shapeCanvas.scale(1f / scale, 1f / scale);
+            shapeCanvas.drawPath(shadowPath, paint);
+            // ALPHA_8 的行可能有对齐 按 rowBytes 访问
+            int stride = shape.getRowBytes();
+            byte[] pixels = new byte[stride * shape.getHeight()];
+            ByteBuffer buffer = ByteBuffer.wrap(pixels);
+            shape.copyPixelsToBuffer(buffer);
+            int mode = engine == ShadowRenderers.BLUR_ENGINE_STACK ? MaskBlur.MODE_STACK : MaskBlur.MODE_BOX3;
+            obtainParallelMask().blur(mode, pixels, 0, stride, shape.getWidth(), shape.getHeight(), sigma);
+            buffer.rewind();
+            shape.copyPixelsFromBuffer(buffer);
+            maskCanvas.drawBitmap(shape, -margin, -margin, paint);
+            shape.recycle();
         } else {
-            outerClipPath = getOuterClipPath(currentW, currentH);
+            maskCanvas.drawPath(shadowPath, paint);
+        }
+        if (clearPath != null) {
+            paint.setXfermode(porterDuffDstOutMode);
+            maskCanvas.drawPath(clearPath, paint);
+            paint.setXfermode(null);
+        }
+        return mask;
+    }
+
+    /**
+     * 解析计算软阴影遮罩 形状与 getShadowInnerPath getInsetShadowPath 相同
+     * 圆角超过较短边的一半时 路径按 CornerAngles 截断圆弧 与解析形状不同 返回 false 改用卷积
+     */
+    private boolean renderAnalyticMask(Bitmap mask, int w, int h, float blurRadius, int scale) {
+        RectF rectF;
+        float radiusOffset = 0;
+        if (shadowInset) {
+            float dis = shadowSpread + boxBorderThickness;
+            rectF = tempRectF;
+            rectF.set(dis, dis, w - dis, h - dis);
+            radiusOffset = -boxBorderThickness;
+        } else {
+            rectF = getInnerArea(w, h);
+            if (rectF == null) {
+                return false;
+            }
+            rectF.inset(-shadowSpread, -shadowSpread);
+        }
+        rectF.offset(shadowDx, shadowDy);
+        if (rectNoSize(rectF)) {
+            return false;
+        }
+        float radiusLeftTop = Math.max(getRadiusLeftTop() + radiusOffset, 0);
+        float radiusRightTop = Math.max(getRadiusRightTop() + radiusOffset, 0);
+        float radiusRightBottom = Math.max(getRadiusRightBottom() + radiusOffset, 0);
+        float radiusLeftBottom = Math.max(getRadiusLeftBottom() + radiusOffset, 0);
+        if (!AnalyticShadow.isExact(rectF.width(), rectF.height(),
+                radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom)) {
+            return false;
+        }
+        if (analyticShadow == null) {
+            analyticShadow = new AnalyticShadow();
+        }
+        AnalyticShadow analytic = analyticShadow;
+        float inv = 1f / scale;
+        float border = scale > 1 ? 1 : 0;
+        analytic.setRect(rectF.left * inv + border, rectF.top * inv + border,
+                rectF.right * inv + border, rectF.bottom * inv + border,
+                radiusLeftTop * inv, radiusRightTop * inv, radiusRightBottom * inv, radiusLeftBottom * inv);
+        if (shadowInset) {
+            analytic.setFrame(-shadowBlur * inv + border, -shadowBlur * inv + border,
+                    (w + shadowBlur) * inv + border, (h + shadowBlur) * inv + border);
+        } else {
+            analytic.clearFrame();
+        }
+        analytic.setSigma(MaskBlur.downsampledSigma(MaskBlur.sigma(blurRadius), scale));
+        int stride = mask.getRowBytes();
+        byte[] pixels = new byte[stride * mask.getHeight()];
+        obtainParallelMask().render(analytic, pixels, 0, stride, mask.getWidth(), mask.getHeight());
+        mask.copyPixelsFromBuffer(ByteBuffer.wrap(pixels));
+        return true;
+    }
+
+    /**
+     * 遮罩只在主线程生成 所有 View 共用各条带的临时缓冲与线程池 线程数改变时换新的实例
+     */
+    private static ParallelMask obtainParallelMask() {
+        int threads = ShadowRenderers.getMaskThreads();
+        if (parallelMask == null || parallelMask.getParallelism() != threads) {
+            if (parallelMask != null) {
+                parallelMask.shutdown();
+            }
+            parallelMask = new ParallelMask(threads);
+        }
+        return parallelMask;
+    }
+
+    private ShadowCache.Key getShadowMaskKey() {
+        return getShadowMaskKey(currentW, currentH);
+    }
+
+    private ShadowCache.Key getShadowMaskKey(int w, int h) {
+        return new ShadowCache.Key(w, h, getBlurRadius(),
+                shadowBlur, shadowSpread, shadowDx, shadowDy,
+                getRadiusLeftTop(), getRadiusRightTop(), getRadiusRightBottom(), getRadiusLeftBottom(),
+                shadowInset, shadowType, shadowClip, shadowInset ? boxBorderThickness : 0,
+                shadowType == SHADOW_TYPE_HARD ? shadowColor : 0);
+    }
+
+    /**
+     * BlurMaskFilter 实际使用的模糊半径 0 表示不模糊
+     */
+    float getBlurRadius() {
+        if (shadowInset) {
+            return shadowBlurZero ? 0 : shadowBlur;
+        }
+        int min = dpi2px(1.5f);
+        return shadowBlur > min ? shadowBlur - min : 0;
+    }
+
+    void obtainShadowPaths() {
+        if (shadowThicknessZero) {
+            return;
         }
-        innerClipPath = getInnerClipPath(currentW, currentH);
-        borderPath = getBorderPath(currentW, currentH);
-        if (shadowThicknessZero) return;
         if (shadowInset) {
             if (shadowType == SHADOW_TYPE_SOFT) {
-                shadowInnerPath = getInsetShadowPath(currentW, currentH);
-                if (!shadowBlurZero) {
-                    blurMaskFilter = new BlurMaskFilter(shadowBlur, BlurMaskFilter.Blur.NORMAL);
+                shadowInnerPath = getInsetShadowPath(currentW, currentH, shadowInnerPath);
+                float blurRadius = getBlurRadius();
+                if (blurRadius > 0) {
+                    blurMaskFilter = obtainBlurMaskFilter(blurRadius);
                 } else {
                     blurMaskFilter = null;
                 }
             } else {
-                obtainInsetShadowSplitPathAndShader();
+                obtainInsetShadowSplitPath();
             }
         } else {
-            innerPath = getInnerPath(currentW, currentH);
+            innerPath = getInnerPath(currentW, currentH, innerPath);
             if (shadowType == SHADOW_TYPE_SOFT) {
                 // 软阴影 使用 blurMaskFilter
                 // 获取 BlurMaskFilter
-                shadowInnerPath = getShadowInnerPath(currentW, currentH);
-                int min = dpi2px(1.5f);
-                if (shadowBlur > min) {
-                    blurMaskFilter = new BlurMaskFilter(shadowBlur - min, BlurMaskFilter.Blur.NORMAL);
+                shadowInnerPath = getShadowInnerPath(currentW, currentH, shadowInnerPath);
+                float blurRadius = getBlurRadius();
+                if (blurRadius > 0) {
+                    blurMaskFilter = obtainBlurMaskFilter(blurRadius);
                 } else {
                     blurMaskFilter = null;
                 }
             } else {
                 // 硬阴影 使用 渐变 shader
-                obtainOuterShadowSplitPathAndShader();
+                obtainOuterShadowSplitPath();
             }
+            obtainShadowLayerBounds();
+        }
+    }
+
+    /**
+     * 外阴影离屏层只需覆盖阴影所在范围 挖去的显示区域在层外的部分本来就没有阴影
+     */
+    private void obtainShadowLayerBounds() {
+        if (shadowInnerPath == null) {
+            shadowLayerBounds = null;
+            return;
+        }
+        if (shadowLayerBounds == null) {
+            shadowLayerBounds = new RectF();
+        }
+        shadowInnerPath.computeBounds(shadowLayerBounds, true);
+        // BlurMaskFilter 实际扩散范围约为 3 sigma 硬阴影渐变宽度为 shadowBlur
+        float extent = shadowType == SHADOW_TYPE_SOFT
+                ? (float) Math.ceil(getBlurRadius() * 1.8f) + 2 : shadowBlur + 1;
+        shadowLayerBounds.inset(-extent, -extent);
+        if (!shadowLayerBounds.intersect(0, 0, currentW, currentH)) {
+            shadowLayerBounds.setEmpty();
         }
     }
 
@@ -505,8 +1524,8 @@ public class ShadowParams {
         onDrawSuperListener.onDrawSuper(canvas);
     }
 
-    private void drawClipSuper(Canvas canvas, OnDrawSuperListener onDrawSuperListener) {
-        if (outerClipPath != null) {
+    private void drawClipSuper(Canvas canvas, OnDrawSuperListener onDrawSuperListener, boolean useOutlineClip) {
+        if (outerClipPath != null && !useOutlineClip) {
             canvas.clipPath(outerClipPath);
         }
         if (backgroundDrawable != null) {
@@ -515,6 +1534,37 @@ public class ShadowParams {
         onDrawSuperListener.onDrawSuper(canvas);
     }
 
+    /**
+     * 内容绘制在限定于显示区域的离屏层中 再用抗锯齿的 CLEAR 清除圆角外部
+     * 离屏层由硬件加速处理 无圆角时只需 clipRect 不需要离屏层
+     */
+    private void drawLayerClear(Canvas canvas, OnDrawSuperListener onDrawSuperListener) {
+        int saveCount = canvas.save();
+        if (clearLayerBounds != null) {
+            canvas.clipRect(clearLayerBounds);
+        }
+        boolean clearCorner = outerPath != null && !allRadiusZero;
+        if (clearCorner) {
+            countMetrics(ShadowMetrics.COUNTER_SAVE_LAYER);
+            if (clearLayerBounds != null) {
+                canvas.saveLayer(clearLayerBounds, null, Canvas.ALL_SAVE_FLAG);
+            } else {
+                canvas.saveLayer(0, 0, currentW, currentH, null, Canvas.ALL_SAVE_FLAG);
+            }
+        }
+        drawSuper(canvas, onDrawSuperListener);
+        if (shadowInset && !shadowThicknessZero) {
+            drawShadow(canvas);
+        }
+        if (clearCorner) {
+            drawOuterClear(canvas);
+        }
+        canvas.restoreToCount(saveCount);
+        if (!shadowInset && !shadowThicknessZero) {
+            drawShadow(canvas);
+        }
+    }
+
     private void drawOuterClear(Canvas canvas) {
         if (outerPath == null) {
             return;
@@ -529,17 +1579,116 @@ public class ShadowParams {
     }
 
     private void drawShadow(Canvas canvas) {
+        if (renderer != null) {
+            renderer.drawShadow(this, canvas);
+        }
+    }
+
+    /**
+     * 使用路径绘制阴影
+     */
+    void drawShadowPath(Canvas canvas) {
+        if (shadowInset) {
+            drawInsetShadowPath(canvas, shadowColor);
+        } else {
+            drawShadowPath(canvas, shadowColor);
+        }
+    }
+
+    /**
+     * ALPHA_8 遮罩使用画笔颜色着色 硬阴影的 ARGB 遮罩已着色 画笔只需不透明
+     */
+    boolean drawShadowMask(Canvas canvas) {
+        if (shadowMask == null) {
+            return false;
+        }
+        paint.setColor(shadowMask.getConfig() == Bitmap.Config.ALPHA_8 ? shadowColor : Color.BLACK);
+        paint.setStyle(Paint.Style.FILL);
+        if (shadowMaskScale > 1) {
+            // 缩小的遮罩双线性放大 外阴影挖去显示区域
+            int saveCount = canvas.save();
+            if (!shadowInset && innerPath != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                canvas.clipOutPath(innerPath);
+            }
+            canvas.scale(shadowMaskScale, shadowMaskScale);
+            canvas.translate(-1, -1);
+            paint.setFilterBitmap(true);
+            canvas.drawBitmap(shadowMask, 0, 0, paint);
+            paint.setFilterBitmap(false);
+            canvas.restoreToCount(saveCount);
+            return true;
+        }
+        if (!shadowMaskStretch) {
+            canvas.drawBitmap(shadowMask, 0, 0, paint);
+            return true;
+        }
+        int maskW = shadowMask.getWidth();
+        int maskH = shadowMask.getHeight();
+        // 左上 上 右上
+        drawStretchSlice(canvas, 0, 0, stretchLeft, stretchTop,
+                0, 0, stretchLeft, stretchTop);
+        drawStretchSlice(canvas, stretchLeft, 0, maskW - stretchRight, stretchTop,
+                stretchLeft, 0, currentW - stretchRight, stretchTop);
+        drawStretchSlice(canvas, maskW - stretchRight, 0, maskW, stretchTop,
+                currentW - stretchRight, 0, currentW, stretchTop);
+        // 左 中 右
+        drawStretchSlice(canvas, 0, stretchTop, stretchLeft, maskH - stretchBottom,
+                0, stretchTop, stretchLeft, currentH - stretchBottom);
+        drawStretchSlice(canvas, stretchLeft, stretchTop, maskW - stretchRight, maskH - stretchBottom,
+                stretchLeft, stretchTop, currentW - stretchRight, currentH - stretchBottom);
+        drawStretchSlice(canvas, maskW - stretchRight, stretchTop, maskW, maskH - stretchBottom,
+                currentW - stretchRight, stretchTop, currentW, currentH - stretchBottom);
+        // 左下 下 右下
+        drawStretchSlice(canvas, 0, maskH - stretchBottom, stretchLeft, maskH,
+                0, currentH - stretchBottom, stretchLeft, currentH);
+        drawStretchSlice(canvas, stretchLeft, maskH - stretchBottom, maskW - stretchRight, maskH,
+                stretchLeft, currentH - stretchBottom, currentW - stretchRight, currentH);
+        drawStretchSlice(canvas, maskW - stretchRight, maskH - stretchBottom, maskW, maskH,
+                currentW - stretchRight, currentH - stretchBottom, currentW, currentH);
+        return true;
+    }
+
+    private void drawStretchSlice(Canvas canvas, int srcLeft, int srcTop, int srcRight, int srcBottom,
+                                  int dstLeft, int dstTop, int dstRight, int dstBottom) {
+        stretchSrc.set(srcLeft, srcTop, srcRight, srcBottom);
+        stretchDst.set(dstLeft, dstTop, dstRight, dstBottom);
+        //noinspection ConstantConditions
+        canvas.drawBitmap(shadowMask, stretchSrc, stretchDst, paint);
+    }
+
+    private void drawShadowPath(Canvas canvas, @ColorInt int color) {
         if (innerPath == null || shadowInnerPath == null) {
             return;
         }
-        canvas.saveLayer(0, 0, currentW, currentH, null, Canvas.ALL_SAVE_FLAG);
-        paint.setColor(shadowColor);
+        if (shadowLayerBounds != null && shadowLayerBounds.isEmpty()) {
+            // 阴影完全在 View 外
+            return;
+        }
+        // clipOutPath 需要 API 26 P 之前硬件加速的路径裁剪没有抗锯齿 仍使用离屏层清除
+        boolean ringClip = Build.VERSION.SDK_INT >= Build.VERSION_CODES.P;
+        int saveCount;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            // 只绘制显示区域外的环形部分 不需要离屏层与清除
+            saveCount = canvas.save();
+            canvas.clipOutPath(innerPath);
+        } else {
+            countMetrics(ShadowMetrics.COUNTER_SAVE_LAYER);
+            if (shadowLayerBounds != null) {
+                saveCount = canvas.saveLayer(shadowLayerBounds, null, Canvas.ALL_SAVE_FLAG);
+            } else {
+                saveCount = canvas.saveLayer(0, 0, currentW, currentH, null, Canvas.ALL_SAVE_FLAG);
+            }
+        }
+        paint.setColor(color);
         paint.setStyle(Paint.Style.FILL);
         if (shadowType == SHADOW_TYPE_SOFT) {
             if (blurMaskFilter != null) {
+                countMetrics(ShadowMetrics.COUNTER_MASK_FILTER);
                 paint.setMaskFilter(blurMaskFilter);
             }
         } else {
+            // 渐变颜色已带阴影颜色的透明度 画笔的透明度会再乘一次
+            paint.setAlpha(255);
             if (shadowLeftTopPath != null) {
                 paint.setShader(leftTopShader);
                 canvas.drawPath(shadowLeftTopPath, paint);
@@ -574,23 +1723,29 @@ public class ShadowParams {
             }
             paint.setMaskFilter(null);
             paint.setShader(null);
+            paint.setColor(color);
         }
         canvas.drawPath(shadowInnerPath, paint);
         paint.setMaskFilter(null);
-        paint.setXfermode(porterDuffDstOutMode);
-        canvas.drawPath(innerPath, paint);
-        paint.setXfermode(null);
-        canvas.restore();
+        if (!ringClip) {
+            paint.setXfermode(porterDuffDstOutMode);
+            canvas.drawPath(innerPath, paint);
+            paint.setXfermode(null);
+        }
+        canvas.restoreToCount(saveCount);
     }
 
-    private void drawInsetShadow(Canvas canvas) {
-        paint.setColor(shadowColor);
+    private void drawInsetShadowPath(Canvas canvas, @ColorInt int color) {
+        paint.setColor(color);
         paint.setStyle(Paint.Style.FILL);
         if (shadowType == SHADOW_TYPE_SOFT) {
             if (blurMaskFilter != null) {
+                countMetrics(ShadowMetrics.COUNTER_MASK_FILTER);
                 paint.setMaskFilter(blurMaskFilter);
             }
         } else {
+            // 渐变颜色已带阴影颜色的透明度 画笔的透明度会再乘一次
+            paint.setAlpha(255);
             if (shadowLeftTopPath != null) {
                 paint.setShader(leftTopShader);
                 canvas.drawPath(shadowLeftTopPath, paint);
@@ -629,25 +1784,119 @@ public class ShadowParams {
             paint.setMaskFilter(null);
             return;
         }
-        paint.setShader(null);
-        canvas.drawPath(shadowInnerPath, paint);
-        paint.setMaskFilter(null);
+        paint.setShader(null);
+        paint.setColor(color);
+        canvas.drawPath(shadowInnerPath, paint);
+        paint.setMaskFilter(null);
+    }
+
+
+    private void drawBorder(Canvas canvas) {
+        if (renderer != null) {
+            renderer.drawBorder(this, canvas);
+        }
+    }
+
+    void drawBorderPath(Canvas canvas) {
+        if (borderPath == null) {
+            return;
+        }
+        paint.setColor(boxBorderColor);
+        paint.setStrokeWidth(boxBorderThickness);
+        paint.setStyle(Paint.Style.STROKE);
+        if (boxBorderType == BORDER_TYPE_DASHED) {
+            if (dashPathEffect == null || dashPathEffectThickness != boxBorderThickness) {
+                dashPathEffect = new DashPathEffect(new float[]{boxBorderThickness * 2, boxBorderThickness}, 0);
+                dashPathEffectThickness = boxBorderThickness;
+            }
+            paint.setPathEffect(dashPathEffect);
+        }
+        canvas.drawPath(borderPath, paint);
+        paint.setStrokeWidth(0);
+        paint.setPathEffect(null);
+    }
+
+    View getView() {
+        return view;
+    }
+
+    private ShadowMetrics.Stats obtainMetrics() {
+        if (metrics == null) {
+            metrics = new ShadowMetrics.Stats();
+        }
+        return metrics;
+    }
+
+    private void countMetrics(@ShadowMetrics.Counter int counter) {
+        if (ShadowMetrics.enabled) {
+            ShadowMetrics.count(obtainMetrics(), counter);
+        }
+    }
+
+    int getCurrentWidth() {
+        return currentW;
     }
 
+    int getCurrentHeight() {
+        return currentH;
+    }
 
-    private void drawBorder(Canvas canvas) {
-        if (borderPath == null) {
+    /**
+     * 显示区域 外阴影时为阴影内部区域
+     */
+    @Nullable
+    RectF getDisplayArea() {
+        if (shadowInset) {
+            tempRectF.set(0, 0, currentW, currentH);
+            return tempRectF;
+        }
+        return getInnerArea(currentW, currentH);
+    }
+
+    /**
+     * clip 模式显示区域的路径 无阴影且无圆角时为空
+     */
+    @Nullable
+    Path getBoxClipPath() {
+        return outerClipPath;
+    }
+
+    @RequiresApi(Build.VERSION_CODES.LOLLIPOP)
+    ShadowOutline obtainOutline() {
+        if (outline == null) {
+            outline = new ShadowOutline(this);
+        }
+        return outline;
+    }
+
+    /**
+     * 外阴影绘制在显示区域外 会被 Outline 裁掉 只有系统阴影不受影响
+     */
+    private void updateOutlineClip() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
             return;
         }
-        paint.setColor(boxBorderColor);
-        paint.setStrokeWidth(boxBorderThickness);
-        paint.setStyle(Paint.Style.STROKE);
-        if (boxBorderType == BORDER_TYPE_DASHED) {
-            paint.setPathEffect(new DashPathEffect(new float[]{boxBorderThickness * 2, boxBorderThickness}, 0));
+        boolean active = outlineClip && rendererHardwareAccelerated && outClearMode == OUT_CLEAR_MODE_CLIP
+                && (shadowInset || shadowThicknessZero
+                || renderer != null && renderer.getType() == ShadowRenderers.RENDERER_ELEVATION);
+        if (active || outline != null) {
+            ShadowOutline shadowOutline = obtainOutline();
+            shadowOutline.update();
+            active = active && shadowOutline.canClip();
+            shadowOutline.setClipUser(active);
         }
-        canvas.drawPath(borderPath, paint);
-        paint.setStrokeWidth(0);
-        paint.setPathEffect(null);
+        outlineClipActive = active;
+    }
+
+    /**
+     * 四个圆角相同时返回圆角半径 否则返回 -1
+     */
+    float getUniformRadius() {
+        float radius = getRadiusLeftTop();
+        if (radius != getRadiusRightTop() || radius != getRadiusRightBottom() || radius != getRadiusLeftBottom()) {
+            return -1;
+        }
+        return radius;
     }
 
     private void restoreLayout() {
@@ -672,8 +1921,12 @@ public class ShadowParams {
 
     private void changeLayout() {
         layoutChanged = true;
-        currentPaddings = getPaddingRect();
-        Rect paddings = new Rect(currentPaddings.left, currentPaddings.top, currentPaddings.right, currentPaddings.bottom);
+        if (currentPaddings == null) {
+            currentPaddings = new Rect();
+        }
+        getPaddingRect(currentPaddings);
+        Rect paddings = layoutPaddings;
+        paddings.set(currentPaddings);
         ViewGroup.LayoutParams params = view.getLayoutParams();
         boolean widthChangeAble = savedWidthHeight.getWidth() > 0;
         boolean heightChangeAble = savedWidthHeight.getHeight() > 0;
@@ -790,17 +2043,8 @@ public class ShadowParams {
         float radiusRightTop = Math.max(getRadiusRightTop() + thickness, 0);
         float radiusRightBottom = Math.max(getRadiusRightBottom() + thickness, 0);
         float radiusLeftBottom = Math.max(getRadiusLeftBottom() + thickness, 0);
-        IntegerBox angleTopLeft = new IntegerBox(),
-                angleTopRight = new IntegerBox(),
-                angleRightTop = new IntegerBox(),
-                angleRightBottom = new IntegerBox(),
-                angleBottomRight = new IntegerBox(),
-                angleBottomLeft = new IntegerBox(),
-                angleLeftBottom = new IntegerBox(),
-                angleLeftTop = new IntegerBox();
-        getAngles(angleTopLeft, angleTopRight, angleRightTop, angleRightBottom,
-                angleBottomRight, angleBottomLeft, angleLeftBottom, angleLeftTop,
-                left, top, right, bottom,
+        CornerAngles angles = cornerAngles;
+        angles.compute(left, top, right, bottom,
                 radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom);
         float doubleRadius;
         if (clockwise) {
@@ -824,10 +2068,10 @@ public class ShadowParams {
                 doubleRadius = radiusRightTop * 2f;
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
                     path.arcTo(right - doubleRadius, top, right, top + doubleRadius,
-                            angleTopRight.value, angleRightTop.value - angleTopRight.value, false);
+                            angles.angleTopRight, angles.angleRightTop - angles.angleTopRight, false);
                 } else {
-                    path.arcTo(new RectF(right - doubleRadius, top, right, top + doubleRadius),
-                            angleTopRight.value, angleRightTop.value - angleTopRight.value, false);
+                    path.arcTo(arcRectF(right - doubleRadius, top, right, top + doubleRadius),
+                            angles.angleTopRight, angles.angleRightTop - angles.angleTopRight, false);
                 }
             }
             if (radiusRightBottom == 0) {
@@ -836,10 +2080,10 @@ public class ShadowParams {
                 doubleRadius = radiusRightBottom * 2f;
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
                     path.arcTo(right - doubleRadius, bottom - doubleRadius, right, bottom,
-                            angleRightBottom.value, angleBottomRight.value - angleRightBottom.value, false);
+                            angles.angleRightBottom, angles.angleBottomRight - angles.angleRightBottom, false);
                 } else {
-                    path.arcTo(new RectF(right - doubleRadius, bottom - doubleRadius, right, bottom),
-                            angleRightBottom.value, angleBottomRight.value - angleRightBottom.value, false);
+                    path.arcTo(arcRectF(right - doubleRadius, bottom - doubleRadius, right, bottom),
+                            angles.angleRightBottom, angles.angleBottomRight - angles.angleRightBottom, false);
                 }
             }
             if (radiusLeftBottom == 0) {
@@ -848,10 +2092,10 @@ public class ShadowParams {
                 doubleRadius = radiusLeftBottom * 2f;
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
                     path.arcTo(left, bottom - doubleRadius, left + doubleRadius, bottom,
-                            angleBottomLeft.value, angleLeftBottom.value - angleBottomLeft.value, false);
+                            angles.angleBottomLeft, angles.angleLeftBottom - angles.angleBottomLeft, false);
                 } else {
-                    path.arcTo(new RectF(left, bottom - doubleRadius, left + doubleRadius, bottom),
-                            angleBottomLeft.value, angleLeftBottom.value - angleBottomLeft.value, false);
+                    path.arcTo(arcRectF(left, bottom - doubleRadius, left + doubleRadius, bottom),
+                            angles.angleBottomLeft, angles.angleLeftBottom - angles.angleBottomLeft, false);
                 }
             }
             if (radiusLeftTop == 0) {
@@ -860,10 +2104,10 @@ public class ShadowParams {
                 doubleRadius = radiusLeftTop * 2f;
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
                     path.arcTo(left, top, left + doubleRadius, top + doubleRadius,
-                            angleLeftTop.value, angleTopLeft.value - angleLeftTop.value, false);
+                            angles.angleLeftTop, angles.angleTopLeft - angles.angleLeftTop, false);
                 } else {
-                    path.arcTo(new RectF(left, top, left + doubleRadius, top + doubleRadius),
-                            angleLeftTop.value, angleTopLeft.value - angleLeftTop.value, false);
+                    path.arcTo(arcRectF(left, top, left + doubleRadius, top + doubleRadius),
+                            angles.angleLeftTop, angles.angleTopLeft - angles.angleLeftTop, false);
                 }
             }
         } else {
@@ -883,10 +2127,10 @@ public class ShadowParams {
                 }
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
                     path.arcTo(left, top, left + doubleRadius, top + doubleRadius,
-                            angleTopLeft.value, angleLeftTop.value - angleTopLeft.value, false);
+                            angles.angleTopLeft, angles.angleLeftTop - angles.angleTopLeft, false);
                 } else {
-                    path.arcTo(new RectF(left, top, left + doubleRadius, top + doubleRadius),
-                            angleTopLeft.value, angleLeftTop.value - angleTopLeft.value, false);
+                    path.arcTo(arcRectF(left, top, left + doubleRadius, top + doubleRadius),
+                            angles.angleTopLeft, angles.angleLeftTop - angles.angleTopLeft, false);
                 }
             }
             if (radiusLeftBottom == 0) {
@@ -895,10 +2139,10 @@ public class ShadowParams {
                 doubleRadius = radiusLeftBottom * 2f;
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
                     path.arcTo(left, bottom - doubleRadius, left + doubleRadius, bottom,
-                            angleLeftBottom.value, angleBottomLeft.value - angleLeftBottom.value, false);
+                            angles.angleLeftBottom, angles.angleBottomLeft - angles.angleLeftBottom, false);
                 } else {
-                    path.arcTo(new RectF(left, bottom - doubleRadius, left + doubleRadius, bottom),
-                            angleLeftBottom.value, angleBottomLeft.value - angleLeftBottom.value, false);
+                    path.arcTo(arcRectF(left, bottom - doubleRadius, left + doubleRadius, bottom),
+                            angles.angleLeftBottom, angles.angleBottomLeft - angles.angleLeftBottom, false);
                 }
             }
             if (radiusRightBottom == 0) {
@@ -907,10 +2151,10 @@ public class ShadowParams {
                 doubleRadius = radiusRightBottom * 2f;
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
                     path.arcTo(right - doubleRadius, bottom - doubleRadius, right, bottom,
-                            angleBottomRight.value, angleRightBottom.value - angleBottomRight.value, false);
+                            angles.angleBottomRight, angles.angleRightBottom - angles.angleBottomRight, false);
                 } else {
-                    path.arcTo(new RectF(right - doubleRadius, bottom - doubleRadius, right, bottom),
-                            angleBottomRight.value, angleRightBottom.value - angleBottomRight.value, false);
+                    path.arcTo(arcRectF(right - doubleRadius, bottom - doubleRadius, right, bottom),
+                            angles.angleBottomRight, angles.angleRightBottom - angles.angleBottomRight, false);
                 }
             }
             if (radiusRightTop == 0) {
@@ -919,10 +2163,10 @@ public class ShadowParams {
                 doubleRadius = radiusRightTop * 2f;
                 if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
                     path.arcTo(right - doubleRadius, top, right, top + doubleRadius,
-                            angleRightTop.value, angleTopRight.value - angleRightTop.value, false);
+                            angles.angleRightTop, angles.angleTopRight - angles.angleRightTop, false);
                 } else {
-                    path.arcTo(new RectF(right - doubleRadius, top, right, top + doubleRadius),
-                            angleRightTop.value, angleTopRight.value - angleRightTop.value, false);
+                    path.arcTo(arcRectF(right - doubleRadius, top, right, top + doubleRadius),
+                            angles.angleRightTop, angles.angleTopRight - angles.angleRightTop, false);
                 }
             }
             if (radiusLeftTop == 0) {
@@ -933,61 +2177,6 @@ public class ShadowParams {
         }
     }
 
-    private void obtainRadiusSplitPathAndShader(
-            PathBox leftTopPath, PathBox rightTopPath, PathBox rightBottomPath, PathBox leftBottomPath,
-            PathBox leftPath, PathBox topPath, PathBox rightPath, PathBox bottomPath,
-            ShaderBox leftTopShader, ShaderBox rightTopShader, ShaderBox rightBottomShader, ShaderBox leftBottomShader,
-            ShaderBox leftShader, ShaderBox topShader, ShaderBox rightShader, ShaderBox bottomShader,
-            float rectLeft, float rectTop, float rectRight, float rectBottom, float thickness,
-            @ColorInt int innerColor, @ColorInt int outerColor) {
-        obtainRadiusSplitPathAndShader(leftTopPath, rightTopPath, rightBottomPath, leftBottomPath,
-                leftPath, topPath, rightPath, bottomPath,
-                leftTopShader, rightTopShader, rightBottomShader, leftBottomShader,
-                leftShader, topShader, rightShader, bottomShader,
-                rectLeft, rectTop, rectRight, rectBottom, thickness,
-                innerColor, outerColor, true);
-    }
-
-    private void obtainRadiusSplitPathAndShader(
-            PathBox leftTopPath, PathBox rightTopPath, PathBox rightBottomPath, PathBox leftBottomPath,
-            PathBox leftPath, PathBox topPath, PathBox rightPath, PathBox bottomPath,
-            ShaderBox leftTopShader, ShaderBox rightTopShader, ShaderBox rightBottomShader, ShaderBox leftBottomShader,
-            ShaderBox leftShader, ShaderBox topShader, ShaderBox rightShader, ShaderBox bottomShader,
-            float rectLeft, float rectTop, float rectRight, float rectBottom, float thickness,
-            @ColorInt int innerColor, @ColorInt int outerColor, boolean colorToOuter) {
-        // thickness 正外 负内
-        float radiusLeftTop = getRadiusLeftTop();
-        float radiusRightTop = getRadiusRightTop();
-        float radiusRightBottom = getRadiusRightBottom();
-        float radiusLeftBottom = getRadiusLeftBottom();
-        if (thickness > 0) {
-            obtainRadiusSplitPathAndShader(leftTopPath, rightTopPath, rightBottomPath, leftBottomPath,
-                    leftPath, topPath, rightPath, bottomPath,
-                    leftTopShader, rightTopShader, rightBottomShader, leftBottomShader,
-                    leftShader, topShader, rightShader, bottomShader,
-                    rectLeft - thickness, rectTop - thickness,
-                    rectRight + thickness, rectBottom + thickness,
-                    rectLeft, rectTop, rectRight, rectBottom,
-                    radiusLeftTop + thickness, radiusRightTop + thickness,
-                    radiusRightBottom + thickness, radiusLeftBottom + thickness,
-                    radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom,
-                    innerColor, outerColor, colorToOuter);
-        } else {
-            thickness = -thickness;
-            obtainRadiusSplitPathAndShader(leftTopPath, rightTopPath, rightBottomPath, leftBottomPath,
-                    leftPath, topPath, rightPath, bottomPath,
-                    leftTopShader, rightTopShader, rightBottomShader, leftBottomShader,
-                    leftShader, topShader, rightShader, bottomShader,
-                    rectLeft, rectTop, rectRight, rectBottom,
-                    rectLeft + thickness, rectTop + thickness,
-                    rectRight - thickness, rectBottom - thickness,
-                    radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom,
-                    radiusLeftTop - thickness, radiusRightTop - thickness,
-                    radiusRightBottom - thickness, radiusLeftBottom - thickness,
-                    innerColor, outerColor, colorToOuter);
-        }
-    }
-
     private boolean shadowThicknessZero() {
         return shadowSpread + shadowBlur < 0.5f;
     }
@@ -1073,59 +2262,23 @@ public class ShadowParams {
     }
 
     private float getRadiusLeftTop() {
-        if (!boxRadiusLeftTop.percent) {
-            return boxRadiusLeftTop.value;
-        }
-        if (boxRadiusLeftTop.value == 0) {
-            return 0;
-        }
-        float percent = Math.min(100f, boxRadiusLeftTop.value) / 100f;
-        if (boxRadiusLeftTop.isWidth) {
-            return validW * percent;
-        }
-        return validH * percent;
+        return ShadowGeometry.resolveRadius(boxRadiusLeftTop.value, boxRadiusLeftTop.percent, boxRadiusLeftTop.isWidth,
+                validW, validH);
     }
 
     private float getRadiusRightTop() {
-        if (!boxRadiusRightTop.percent) {
-            return boxRadiusRightTop.value;
-        }
-        if (boxRadiusRightTop.value == 0) {
-            return 0;
-        }
-        float percent = Math.min(100f, boxRadiusRightTop.value) / 100f;
-        if (boxRadiusRightTop.isWidth) {
-            return validW * percent;
-        }
-        return validH * percent;
+        return ShadowGeometry.resolveRadius(boxRadiusRightTop.value, boxRadiusRightTop.percent, boxRadiusRightTop.isWidth,
+                validW, validH);
     }
 
     private float getRadiusRightBottom() {
-        if (!boxRadiusRightBottom.percent) {
-            return boxRadiusRightBottom.value;
-        }
-        if (boxRadiusRightBottom.value == 0) {
-            return 0;
-        }
-        float percent = Math.min(100f, boxRadiusRightBottom.value) / 100f;
-        if (boxRadiusRightBottom.isWidth) {
-            return validW * percent;
-        }
-        return validH * percent;
+        return ShadowGeometry.resolveRadius(boxRadiusRightBottom.value, boxRadiusRightBottom.percent, boxRadiusRightBottom.isWidth,
+                validW, validH);
     }
 
     private float getRadiusLeftBottom() {
-        if (!boxRadiusLeftBottom.percent) {
-            return boxRadiusLeftBottom.value;
-        }
-        if (boxRadiusLeftBottom.value == 0) {
-            return 0;
-        }
-        float percent = Math.min(100f, boxRadiusLeftBottom.value) / 100f;
-        if (boxRadiusLeftBottom.isWidth) {
-            return validW * percent;
-        }
-        return validH * percent;
+        return ShadowGeometry.resolveRadius(boxRadiusLeftBottom.value, boxRadiusLeftBottom.percent, boxRadiusLeftBottom.isWidth,
+                validW, validH);
     }
 
     /**
@@ -1133,46 +2286,12 @@ public class ShadowParams {
      */
     @Nullable
     private RectF getInnerArea(int w, int h) {
-        float dis = shadowSpread + shadowBlur;
-        RectF rectF = new RectF(dis, dis, dis, dis);
-        // 外阴影 dx 增加 整体左移 来绘制右侧阴影
-        // dy 增加 整体上移 来绘制下侧阴影 出现负值需要偏移到可见区域
-        rectF.left -= shadowDx;
-        rectF.top -= shadowDy;
-        rectF.right += shadowDx;
-        rectF.bottom += shadowDy;
-        // 如果有小于0的值,再次偏移
-        if (rectF.right < 0) {
-            rectF.left -= rectF.right;
-            rectF.right = 0;
-        } else if (rectF.left < 0) {
-            rectF.right -= rectF.left;
-            rectF.left = 0;
-        }
-        if (rectF.bottom < 0) {
-            rectF.top -= rectF.bottom;
-            rectF.bottom = 0;
-        } else if (rectF.top < 0) {
-            rectF.bottom -= rectF.top;
-            rectF.top = 0;
-        }
-        if ((shadowClip & SHADOW_CLIP_LEFT) == SHADOW_CLIP_LEFT) {
-            rectF.left = 0;
-        }
-        if ((shadowClip & SHADOW_CLIP_TOP) == SHADOW_CLIP_TOP) {
-            rectF.top = 0;
-        }
-        if ((shadowClip & SHADOW_CLIP_RIGHT) == SHADOW_CLIP_RIGHT) {
-            rectF.right = 0;
-        }
-        if ((shadowClip & SHADOW_CLIP_BOTTOM) == SHADOW_CLIP_BOTTOM) {
-            rectF.bottom = 0;
-        }
-        rectF.right = w - rectF.right;
-        rectF.bottom = h - rectF.bottom;
-        if (rectNoSize(rectF)) {
+        Bounds bounds = tempBounds;
+        if (!ShadowGeometry.innerArea(bounds, w, h, shadowSpread, shadowBlur, shadowDx, shadowDy, shadowClip)) {
             return null;
         }
+        RectF rectF = tempRectF;
+        rectF.set(bounds.left, bounds.top, bounds.right, bounds.bottom);
         return rectF;
     }
 
@@ -1180,13 +2299,14 @@ public class ShadowParams {
      * 获取外部区域 圆角外或者阴影区域
      */
     @Nullable
-    private Path getOuterPath(int w, int h) {
+    private Path getOuterPath(int w, int h, @Nullable Path reuse) {
         if (shadowInset) {
             if (allRadiusZero) {
                 return null;
             } else {
-                Path path = new Path();
-                RectF rectF = new RectF(0, 0, w, h);
+                Path path = obtainPath(reuse);
+                RectF rectF = tempRectF;
+                rectF.set(0, 0, w, h);
                 rectRadiusPath(path, rectF);
                 rectPath(path, rectF, false);
                 return path;
@@ -1195,7 +2315,7 @@ public class ShadowParams {
         if (shadowThicknessZero && allRadiusZero) {
             return null;
         }
-        Path path = new Path();
+        Path path = obtainPath(reuse);
         RectF innerArea = getInnerArea(w, h);
         if (innerArea == null) {
             return null;
@@ -1207,19 +2327,19 @@ public class ShadowParams {
     }
 
     @Nullable
-    private Path getOuterClipPath(int w, int h) {
+    private Path getOuterClipPath(int w, int h, @Nullable Path reuse) {
         if (shadowInset) {
             if (allRadiusZero) {
                 return null;
             }
-            Path path = new Path();
+            Path path = obtainPath(reuse);
             rectRadiusPath(path, 0, 0, w, h, true, false, 0);
             return path;
         }
         if (shadowThicknessZero && allRadiusZero) {
             return null;
         }
-        Path path = new Path();
+        Path path = obtainPath(reuse);
         RectF innerArea = getInnerArea(w, h);
         if (innerArea == null) {
             return null;
@@ -1233,24 +2353,25 @@ public class ShadowParams {
      * 获取内部矩形区域路径
      */
     @Nullable
-    private Path getInnerPath(int w, int h) {
+    private Path getInnerPath(int w, int h, @Nullable Path reuse) {
         RectF innerArea = getInnerArea(w, h);
         if (innerArea == null) {
             return null;
         }
-        Path path = new Path();
+        Path path = obtainPath(reuse);
         rectRadiusPath(path, innerArea);
         return path;
     }
 
     @Nullable
-    private Path getInnerClipPath(int w, int h) {
+    private Path getInnerClipPath(int w, int h, @Nullable Path reuse) {
         RectF area;
         if (shadowThicknessZero && allRadiusZero) {
             return null;
         }
         if (shadowInset) {
-            area = new RectF(0, 0, w, h);
+            area = tempRectF;
+            area.set(0, 0, w, h);
         } else {
             area = getInnerArea(w, h);
         }
@@ -1262,7 +2383,7 @@ public class ShadowParams {
         area.top += thickness;
         area.right -= thickness;
         area.bottom -= thickness;
-        Path path = new Path();
+        Path path = obtainPath(reuse);
         if (allRadiusZero) {
             rectPath(path, area, true);
         } else {
@@ -1275,7 +2396,7 @@ public class ShadowParams {
      * 获取阴影内部路径 阴影内部区域 减去绘制内部区域
      */
     @Nullable
-    private Path getShadowInnerPath(int w, int h) {
+    private Path getShadowInnerPath(int w, int h, @Nullable Path reuse) {
         RectF rectF = getInnerArea(w, h);
         if (rectF == null) {
             return null;
@@ -1291,16 +2412,17 @@ public class ShadowParams {
         if (rectNoSize(rectF)) {
             return null;
         }
-        Path path = new Path();
+        Path path = obtainPath(reuse);
         rectRadiusPath(path, rectF);
         return path;
     }
 
     @Nullable
-    private Path getInsetShadowPath(int w, int h) {
-        Path path = new Path();
+    private Path getInsetShadowPath(int w, int h, @Nullable Path reuse) {
+        Path path = obtainPath(reuse);
         float dis = shadowSpread + boxBorderThickness;
-        RectF rectF = new RectF(dis, dis, w - dis, h - dis);
+        RectF rectF = tempRectF;
+        rectF.set(dis, dis, w - dis, h - dis);
         if (rectNoSize(rectF)) {
             return null;
         }
@@ -1317,13 +2439,14 @@ public class ShadowParams {
      * 获取边框路径
      */
     @Nullable
-    private Path getBorderPath(int w, int h) {
+    private Path getBorderPath(int w, int h, @Nullable Path reuse) {
         if (borderThicknessZero) {
             return null;
         }
         RectF rectF;
         if (shadowInset) {
-            rectF = new RectF(0, 0, w, h);
+            rectF = tempRectF;
+            rectF.set(0, 0, w, h);
         } else {
             rectF = getInnerArea(w, h);
         }
@@ -1338,20 +2461,13 @@ public class ShadowParams {
         if (rectNoSize(rectF)) {
             return null;
         }
-        Path path = new Path();
+        Path path = obtainPath(reuse);
         rectRadiusPath(path, rectF, true, -halfBorderThickness);
         return path;
     }
 
-    private void obtainOuterShadowSplitPathAndShader() {
-        leftTopShader = null;
-        rightTopShader = null;
-        rightBottomShader = null;
-        leftBottomShader = null;
-        toLeftShader = null;
-        toTopShader = null;
-        toRightShader = null;
-        toBottomShader = null;
+    private void obtainOuterShadowSplitPath() {
+        clearShadowSplit();
         if (shadowBlurZero) {
             return;
         }
@@ -1370,82 +2486,215 @@ public class ShadowParams {
             shadowInnerPath = null;
             return;
         }
-        shadowInnerPath = new Path();
+        shadowInnerPath = obtainPath(shadowInnerPath);
         rectRadiusPath(shadowInnerPath, shadowInnerArea);
-        obtainShadowSplitPathAndShader(shadowInnerArea, shadowBlur, shadowColor, Color.TRANSPARENT);
+        obtainShadowSplitPath(shadowInnerArea, shadowBlur);
     }
 
 
-    private void obtainInsetShadowSplitPathAndShader() {
-        leftTopShader = null;
-        rightTopShader = null;
-        rightBottomShader = null;
-        leftBottomShader = null;
-        toLeftShader = null;
-        toTopShader = null;
-        toRightShader = null;
-        toBottomShader = null;
+    private void obtainInsetShadowSplitPath() {
+        clearShadowSplit();
         shadowInnerPath = null;
         if (shadowBlurZero) {
             return;
         }
         float dis = shadowSpread + boxBorderThickness;
-        final RectF shadowOuterArea = new RectF(dis, dis, currentW - dis, currentH - dis);
+        final RectF shadowOuterArea = tempRectF;
+        shadowOuterArea.set(dis, dis, currentW - dis, currentH - dis);
         shadowOuterArea.left += shadowDx;
         shadowOuterArea.top += shadowDy;
         shadowOuterArea.right += shadowDx;
         shadowOuterArea.bottom += shadowDy;
         if (shadowOuterArea.left != 0 || shadowOuterArea.top != 0 ||
                 shadowOuterArea.right != currentW || shadowOuterArea.bottom != currentH) {
-            shadowInnerPath = new Path();
+            shadowInnerPath = obtainPath(shadowInnerPath);
             rectRadiusPath(shadowInnerPath, shadowOuterArea);
             rectRadiusPath(shadowInnerPath, 0, 0, currentW, currentH, false, true, 0);
         } // else 没厚度
-        obtainShadowSplitPathAndShader(shadowOuterArea, -shadowBlur, Color.TRANSPARENT, shadowColor);
-    }
-
-    private void obtainShadowSplitPathAndShader(RectF area, float thickness, @ColorInt int innerColor, @ColorInt int outerColor) {
-        PathBox leftTopPathBox = new PathBox(),
-                rightTopPathBox = new PathBox(),
-                rightBottomPathBox = new PathBox(),
-                leftBottomPathBox = new PathBox(),
-                leftPathBox = new PathBox(),
-                topPathBox = new PathBox(),
-                rightPathBox = new PathBox(),
-                bottomPathBox = new PathBox();
-        ShaderBox leftTopShaderBox = new ShaderBox(),
-                rightTopShaderBox = new ShaderBox(),
-                rightBottomShaderBox = new ShaderBox(),
-                leftBottomShaderBox = new ShaderBox(),
-                leftShaderBox = new ShaderBox(),
-                topShaderBox = new ShaderBox(),
-                rightShaderBox = new ShaderBox(),
-                bottomShaderBox = new ShaderBox();
-        obtainRadiusSplitPathAndShader(leftTopPathBox, rightTopPathBox, rightBottomPathBox, leftBottomPathBox,
-                leftPathBox, topPathBox, rightPathBox, bottomPathBox,
-                leftTopShaderBox, rightTopShaderBox, rightBottomShaderBox, leftBottomShaderBox,
-                leftShaderBox, topShaderBox, rightShaderBox, bottomShaderBox,
-                area.left, area.top, area.right, area.bottom, thickness,
-                innerColor, outerColor);
-        shadowLeftTopPath = leftTopPathBox.value;
-        shadowRightTopPath = rightTopPathBox.value;
-        shadowRightBottomPath = rightBottomPathBox.value;
-        shadowLeftBottomPath = leftBottomPathBox.value;
-        shadowToLeftPath = leftPathBox.value;
-        shadowToTopPath = topPathBox.value;
-        shadowToRightPath = rightPathBox.value;
-        shadowToBottomPath = bottomPathBox.value;
-        leftTopShader = leftTopShaderBox.value;
-        rightTopShader = rightTopShaderBox.value;
-        rightBottomShader = rightBottomShaderBox.value;
-        leftBottomShader = leftBottomShaderBox.value;
-        toLeftShader = leftShaderBox.value;
-        toTopShader = topShaderBox.value;
-        toRightShader = rightShaderBox.value;
-        toBottomShader = bottomShaderBox.value;
-    }
-
-    @SuppressWarnings("SameParameterValue")
+        obtainShadowSplitPath(shadowOuterArea, -shadowBlur);
+    }
+
+    private void clearShadowSplit() {
+        splitThickness = 0;
+        shadowLeftTopPath = null;
+        shadowRightTopPath = null;
+        shadowRightBottomPath = null;
+        shadowLeftBottomPath = null;
+        shadowToLeftPath = null;
+        shadowToTopPath = null;
+        shadowToRightPath = null;
+        shadowToBottomPath = null;
+        leftTopShader = null;
+        rightTopShader = null;
+        rightBottomShader = null;
+        leftBottomShader = null;
+        toLeftShader = null;
+        toTopShader = null;
+        toRightShader = null;
+        toBottomShader = null;
+    }
+
+    private void obtainShadowSplitPath(RectF area, float thickness) {
+        SplitGeometry split = splitGeometry;
+        split.compute(area.left, area.top, area.right, area.bottom, thickness,
+                getRadiusLeftTop(), getRadiusRightTop(), getRadiusRightBottom(), getRadiusLeftBottom());
+        shadowLeftTopPath = obtainSplitPath(splitLeftTopPath, split.leftTop, true);
+        shadowRightTopPath = obtainSplitPath(splitRightTopPath, split.rightTop, false);
+        shadowRightBottomPath = obtainSplitPath(splitRightBottomPath, split.rightBottom, false);
+        shadowLeftBottomPath = obtainSplitPath(splitLeftBottomPath, split.leftBottom, false);
+        shadowToLeftPath = obtainSplitPath(splitLeftPath, split.left);
+        shadowToTopPath = obtainSplitPath(splitTopPath, split.top);
+        shadowToRightPath = obtainSplitPath(splitRightPath, split.right);
+        shadowToBottomPath = obtainSplitPath(splitBottomPath, split.bottom);
+        splitThickness = thickness;
+        obtainShadowSplitShader();
+    }
+
+    /**
+     * 按当前阴影颜色生成硬阴影渐变 只依赖上次分块的结果 不重建路径
+     */
+    private void obtainShadowSplitShader() {
+        if (splitThickness == 0) {
+            return;
+        }
+        SplitGeometry split = splitGeometry;
+        if (split.isEmpty()) {
+            leftTopShader = rightTopShader = rightBottomShader = leftBottomShader = null;
+            toLeftShader = toTopShader = toRightShader = toBottomShader = null;
+            return;
+        }
+        // 渐变会复制颜色与位置数组 可以复用
+        int[] color2 = shaderColors2;
+        int[] color3 = shaderColors3;
+        if (splitThickness > 0) {
+            color2[0] = shadowColor;
+            color2[1] = Color.TRANSPARENT;
+        } else {
+            color2[0] = Color.TRANSPARENT;
+            color2[1] = shadowColor;
+        }
+        color3[0] = color2[0];
+        color3[1] = color2[0];
+        color3[2] = color2[1];
+        leftTopShader = obtainSplitShader(split.leftTop);
+        rightTopShader = obtainSplitShader(split.rightTop);
+        rightBottomShader = obtainSplitShader(split.rightBottom);
+        leftBottomShader = obtainSplitShader(split.leftBottom);
+        toLeftShader = obtainSplitShader(split.left);
+        toTopShader = obtainSplitShader(split.top);
+        toRightShader = obtainSplitShader(split.right);
+        toBottomShader = obtainSplitShader(split.bottom);
+    }
+
+    /**
+     * 圆角扇环 外圆弧 再连到内圆弧或内角点
+     */
+    @Nullable
+    private Path obtainSplitPath(PathBox box, SplitGeometry.Corner corner, boolean forceMoveTo) {
+        if (!corner.present) {
+            // 没有外圆角 内圆角也将没有
+            box.value = null;
+            return null;
+        }
+        Path path = box.value = obtainPath(box.value);
+        Bounds oval = corner.outerOval;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            path.arcTo(oval.left, oval.top, oval.right, oval.bottom,
+                    corner.outerStartAngle, corner.outerSweepAngle, forceMoveTo);
+        } else {
+            path.arcTo(arcRectF(oval.left, oval.top, oval.right, oval.bottom),
+                    corner.outerStartAngle, corner.outerSweepAngle, forceMoveTo);
+        }
+        if (corner.innerArc) {
+            oval = corner.innerOval;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                path.arcTo(oval.left, oval.top, oval.right, oval.bottom,
+                        corner.innerStartAngle, corner.innerSweepAngle, false);
+            } else {
+                path.arcTo(arcRectF(oval.left, oval.top, oval.right, oval.bottom),
+                        corner.innerStartAngle, corner.innerSweepAngle, false);
+            }
+        } else {
+            path.lineTo(corner.innerX, corner.innerY);
+        }
+        path.close();
+        return path;
+    }
+
+    /**
+     * 边的梯形
+     */
+    @Nullable
+    private static Path obtainSplitPath(PathBox box, SplitGeometry.Side side) {
+        if (!side.present) {
+            // 这一侧没有尺寸
+            box.value = null;
+            return null;
+        }
+        Path path = box.value = obtainPath(box.value);
+        path.moveTo(side.x0, side.y0);
+        path.lineTo(side.x1, side.y1);
+        path.lineTo(side.x2, side.y2);
+        path.lineTo(side.x3, side.y3);
+        path.close();
+        return path;
+    }
+
+    @Nullable
+    private Shader obtainSplitShader(SplitGeometry.Corner corner) {
+        if (!corner.present) {
+            return null;
+        }
+        if (corner.innerArc) {
+            return new RadialGradient(corner.gradientCenterX, corner.gradientCenterY, corner.gradientRadius,
+                    shaderColors3, shaderPositions(corner.gradientStop), Shader.TileMode.CLAMP);
+        }
+        return new RadialGradient(corner.gradientCenterX, corner.gradientCenterY, corner.gradientRadius,
+                shaderColors2, null, Shader.TileMode.CLAMP);
+    }
+
+    private Shader obtainSplitShader(SplitGeometry.Side side) {
+        return new LinearGradient(side.gradientX0, side.gradientY0, side.gradientX1, side.gradientY1,
+                shaderColors2, null, Shader.TileMode.CLAMP);
+    }
+
+    /**
+     * 复用上次的 Path 没有时才创建
+     */
+    private static Path obtainPath(@Nullable Path path) {
+        if (path == null) {
+            return new Path();
+        }
+        path.rewind();
+        return path;
+    }
+
+    /**
+     * API 21 以下 arcTo 只接受 RectF
+     */
+    private RectF arcRectF(float left, float top, float right, float bottom) {
+        arcRectF.set(left, top, right, bottom);
+        return arcRectF;
+    }
+
+    private float[] shaderPositions(float middle) {
+        shaderPositions3[0] = 0;
+        shaderPositions3[1] = middle;
+        shaderPositions3[2] = 1;
+        return shaderPositions3;
+    }
+
+    /**
+     * 模糊半径不变时复用 BlurMaskFilter
+     */
+    private BlurMaskFilter obtainBlurMaskFilter(float blurRadius) {
+        if (cachedBlurMaskFilter == null || cachedBlurRadius != blurRadius) {
+            cachedBlurMaskFilter = new BlurMaskFilter(blurRadius, BlurMaskFilter.Blur.NORMAL);
+            cachedBlurRadius = blurRadius;
+        }
+        return cachedBlurMaskFilter;
+    }
+
     private int dpi2px(float dpi) {
         Context context = view.getContext();
         return (int) (context.getResources().getDisplayMetrics().density * dpi + 0.5f);
@@ -1455,394 +2704,281 @@ public class ShadowParams {
         return rectF.right <= rectF.left || rectF.bottom <= rectF.top;
     }
 
-    private static int getAngle(float y, float x) {
-        return (int) Math.toDegrees(Math.atan2(y, x));
+    public interface OnMeasureListener {
+        void onMeasure(int widthMeasureSpec, int heightMeasureSpec);
     }
 
-    private static void getAngles(
-            IntegerBox angleTopLeft, IntegerBox angleTopRight, IntegerBox angleRightTop, IntegerBox angleRightBottom,
-            IntegerBox angleBottomRight, IntegerBox angleBottomLeft, IntegerBox angleLeftBottom, IntegerBox angleLeftTop,
-            float left, float top, float right, float bottom,
-            float radiusLeftTop, float radiusRightTop, float radiusRightBottom, float radiusLeftBottom
-    ) {
-        FloatBox sizeTopLeft = new FloatBox();
-        FloatBox sizeTopRight = new FloatBox();
-        FloatBox sizeRightTop = new FloatBox();
-        FloatBox sizeRightBottom = new FloatBox();
-        FloatBox sizeBottomRight = new FloatBox();
-        FloatBox sizeBottomLeft = new FloatBox();
-        FloatBox sizeLeftBottom = new FloatBox();
-        FloatBox sizeLeftTop = new FloatBox();
-        getAngles(angleTopLeft, angleTopRight, angleRightTop, angleRightBottom,
-                angleBottomRight, angleBottomLeft, angleLeftBottom, angleLeftTop,
-                sizeTopLeft, sizeTopRight, sizeRightTop, sizeRightBottom,
-                sizeBottomRight, sizeBottomLeft, sizeLeftBottom, sizeLeftTop,
-                left, top, right, bottom,
-                radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom);
+    public interface OnDrawSuperListener {
+        void onDrawSuper(Canvas canvas);
     }
 
-    private static void getAngles(
-            IntegerBox angleTopLeft, IntegerBox angleTopRight, IntegerBox angleRightTop, IntegerBox angleRightBottom,
-            IntegerBox angleBottomRight, IntegerBox angleBottomLeft, IntegerBox angleLeftBottom, IntegerBox angleLeftTop,
-            FloatBox sizeTopLeft, FloatBox sizeTopRight, FloatBox sizeRightTop, FloatBox sizeRightBottom,
-            FloatBox sizeBottomRight, FloatBox sizeBottomLeft, FloatBox sizeLeftBottom, FloatBox sizeLeftTop,
-            float left, float top, float right, float bottom,
-            float radiusLeftTop, float radiusRightTop, float radiusRightBottom, float radiusLeftBottom
-    ) {
-        sizeTopLeft.value = radiusLeftTop;
-        sizeTopRight.value = radiusRightTop;
-        sizeRightTop.value = radiusRightTop;
-        sizeRightBottom.value = radiusRightBottom;
-        sizeBottomRight.value = radiusRightBottom;
-        sizeBottomLeft.value = radiusLeftBottom;
-        sizeLeftBottom.value = radiusLeftBottom;
-        sizeLeftTop.value = radiusLeftTop;
-        float width = right - left;
-        float height = bottom - top;
-        float radiusSubLeft = radiusLeftTop + radiusLeftBottom;
-        float radiusSubRight = radiusRightTop + radiusRightBottom;
-        float radiusSubTop = radiusLeftTop + radiusRightTop;
-        float radiusSubBottom = radiusLeftBottom + radiusRightBottom;
-        float scaleLeft, scaleRight, scaleTop, scaleBottom;
-        if (radiusSubLeft < height) {
-            scaleLeft = 1f;
-        } else {
-            scaleLeft = height / radiusSubLeft;
-        }
-        if (radiusSubRight < height) {
-            scaleRight = 1f;
-        } else {
-            scaleRight = height / radiusSubRight;
+    /**
+     * 向上查找不透明纯色背景 遇到无法识别的非透明背景即停止 此时下层颜色不可知
+     * 只在 underColorAuto 时监听 父布局变化时重新查找 每帧绘制前检查上次停止处的背景
+     */
+    private final class UnderColorResolver implements View.OnAttachStateChangeListener,
+            View.OnLayoutChangeListener, ViewTreeObserver.OnPreDrawListener {
+        private boolean resolved;
+        private boolean warned;
+        @Nullable
+        private View parent;
+        @Nullable
+        private ViewTreeObserver observer;
+        // 上次查找停止处的祖先 及其背景与取得的颜色
+        @Nullable
+        private View source;
+        @Nullable
+        private Drawable sourceBackground;
+        private int sourceColor;
+        private final TypedValue typedValue = new TypedValue();
+
+        @Override
+        public void onViewAttachedToWindow(View v) {
+            if (underColorAuto) {
+                listen(v);
+                resolve();
+            }
         }
-        if (radiusSubTop < width) {
-            scaleTop = 1f;
-        } else {
-            scaleTop = width / radiusSubTop;
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            unlisten();
         }
-        if (radiusSubBottom < width) {
-            scaleBottom = 1f;
-        } else {
-            scaleBottom = width / radiusSubBottom;
-        }
-        sizeTopLeft.value *= scaleTop;
-        sizeTopRight.value *= scaleTop;
-        sizeRightTop.value *= scaleRight;
-        sizeRightBottom.value *= scaleRight;
-        sizeBottomRight.value *= scaleBottom;
-        sizeBottomLeft.value *= scaleBottom;
-        sizeLeftBottom.value *= scaleLeft;
-        sizeLeftTop.value *= scaleLeft;
-        angleTopLeft.value = 270 - getAngle(radiusLeftTop - sizeTopLeft.value, radiusLeftTop);
-        angleTopRight.value = 270 + getAngle(radiusRightTop - sizeTopRight.value, radiusRightTop);
-        angleRightTop.value = 360 - getAngle(radiusRightTop - sizeRightTop.value, radiusRightTop);
-        angleRightBottom.value = getAngle(radiusRightBottom - sizeRightBottom.value, radiusRightBottom);
-        angleBottomRight.value = 90 - getAngle(radiusRightBottom - sizeBottomRight.value, radiusRightBottom);
-        angleBottomLeft.value = 90 + getAngle(radiusLeftBottom - sizeBottomLeft.value, radiusLeftBottom);
-        angleLeftBottom.value = 180 - getAngle(radiusLeftBottom - sizeLeftBottom.value, radiusLeftBottom);
-        angleLeftTop.value = 180 + getAngle(radiusLeftTop - sizeLeftTop.value, radiusLeftTop);
-    }
-
-    private static void obtainRadiusSplitPathAndShader(
-            PathBox leftTopPath, PathBox rightTopPath, PathBox rightBottomPath, PathBox leftBottomPath,
-            PathBox leftPath, PathBox topPath, PathBox rightPath, PathBox bottomPath,
-            ShaderBox leftTopShader, ShaderBox rightTopShader, ShaderBox rightBottomShader, ShaderBox leftBottomShader,
-            ShaderBox leftShader, ShaderBox topShader, ShaderBox rightShader, ShaderBox bottomShader,
-            float outerLeft, float outerTop, float outerRight, float outerBottom,
-            float innerLeft, float innerTop, float innerRight, float innerBottom,
-            float outerRadiusLeftTop, float outerRadiusRightTop, float outerRadiusRightBottom, float outerRadiusLeftBottom,
-            float innerRadiusLeftTop, float innerRadiusRightTop, float innerRadiusRightBottom, float innerRadiusLeftBottom,
-            @ColorInt int innerColor, @ColorInt int outerColor, boolean colorToOuter
-    ) {
-        if (outerRight <= outerLeft || outerBottom <= outerTop) {
-            return;
+
+        @Override
+        public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                   int oldLeft, int oldTop, int oldRight, int oldBottom) {
+            if (underColorAuto) {
+                resolve();
+            }
         }
-        int[] color3 = new int[]{innerColor, colorToOuter ? innerColor : outerColor, outerColor};
-        int[] color2 = new int[]{innerColor, outerColor};
-        if (innerRight < innerLeft) {
-            innerLeft = innerRight = (innerLeft + innerRight) / 2f;
-            // 没有尺寸
-            innerRadiusLeftTop = innerRadiusRightTop = innerRadiusRightBottom = innerRadiusLeftBottom = 0;
-        }
-        if (innerBottom < innerTop) {
-            innerTop = innerBottom = (innerTop + innerBottom) / 2f;
-            // 没有尺寸
-            innerRadiusLeftTop = innerRadiusRightTop = innerRadiusRightBottom = innerRadiusLeftBottom = 0;
-        }
-        float disLeft = innerLeft - outerLeft;
-        float disTop = innerTop - outerTop;
-        float disRight = outerRight - innerRight;
-        float disBottom = outerBottom - innerBottom;
-        innerRadiusLeftTop = Math.max(innerRadiusLeftTop, 0);
-        innerRadiusRightTop = Math.max(innerRadiusRightTop, 0);
-        innerRadiusRightBottom = Math.max(innerRadiusRightBottom, 0);
-        innerRadiusLeftBottom = Math.max(innerRadiusLeftBottom, 0);
-        IntegerBox outerAngleTopLeft = new IntegerBox(),
-                outerAngleTopRight = new IntegerBox(),
-                outerAngleRightTop = new IntegerBox(),
-                outerAngleRightBottom = new IntegerBox(),
-                outerAngleBottomRight = new IntegerBox(),
-                outerAngleBottomLeft = new IntegerBox(),
-                outerAngleLeftBottom = new IntegerBox(),
-                outerAngleLeftTop = new IntegerBox();
-        FloatBox outerSizeTopLeft = new FloatBox();
-        FloatBox outerSizeTopRight = new FloatBox();
-        FloatBox outerSizeRightTop = new FloatBox();
-        FloatBox outerSizeRightBottom = new FloatBox();
-        FloatBox outerSizeBottomRight = new FloatBox();
-        FloatBox outerSizeBottomLeft = new FloatBox();
-        FloatBox outerSizeLeftBottom = new FloatBox();
-        FloatBox outerSizeLeftTop = new FloatBox();
-        getAngles(outerAngleTopLeft, outerAngleTopRight, outerAngleRightTop, outerAngleRightBottom,
-                outerAngleBottomRight, outerAngleBottomLeft, outerAngleLeftBottom, outerAngleLeftTop,
-                outerSizeTopLeft, outerSizeTopRight, outerSizeRightTop, outerSizeRightBottom,
-                outerSizeBottomRight, outerSizeBottomLeft, outerSizeLeftBottom, outerSizeLeftTop,
-                outerLeft, outerTop, outerRight, outerBottom,
-                outerRadiusLeftTop, outerRadiusRightTop, outerRadiusRightBottom, outerRadiusLeftBottom);
-        IntegerBox innerAngleTopLeft = new IntegerBox(),
-                innerAngleTopRight = new IntegerBox(),
-                innerAngleRightTop = new IntegerBox(),
-                innerAngleRightBottom = new IntegerBox(),
-                innerAngleBottomRight = new IntegerBox(),
-                innerAngleBottomLeft = new IntegerBox(),
-                innerAngleLeftBottom = new IntegerBox(),
-                innerAngleLeftTop = new IntegerBox();
-        FloatBox innerSizeTopLeft = new FloatBox();
-        FloatBox innerSizeTopRight = new FloatBox();
-        FloatBox innerSizeRightTop = new FloatBox();
-        FloatBox innerSizeRightBottom = new FloatBox();
-        FloatBox innerSizeBottomRight = new FloatBox();
-        FloatBox innerSizeBottomLeft = new FloatBox();
-        FloatBox innerSizeLeftBottom = new FloatBox();
-        FloatBox innerSizeLeftTop = new FloatBox();
-        getAngles(innerAngleTopLeft, innerAngleTopRight, innerAngleRightTop, innerAngleRightBottom,
-                innerAngleBottomRight, innerAngleBottomLeft, innerAngleLeftBottom, innerAngleLeftTop,
-                innerSizeTopLeft, innerSizeTopRight, innerSizeRightTop, innerSizeRightBottom,
-                innerSizeBottomRight, innerSizeBottomLeft, innerSizeLeftBottom, innerSizeLeftTop,
-                innerLeft, innerTop, innerRight, innerBottom,
-                innerRadiusLeftTop, innerRadiusRightTop, innerRadiusRightBottom, innerRadiusLeftBottom);
-        float doubleRadius;
-        if (outerRadiusLeftTop != 0) {
-            // 画外圆角
-            leftTopPath.value = new Path();
-            doubleRadius = outerRadiusLeftTop * 2f;
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                leftTopPath.value.arcTo(outerLeft, outerTop, outerLeft + doubleRadius, outerTop + doubleRadius,
-                        outerAngleLeftTop.value, outerAngleTopLeft.value - outerAngleLeftTop.value, true);
-            } else {
-                leftTopPath.value.arcTo(new RectF(outerLeft, outerTop, outerLeft + doubleRadius, outerTop + doubleRadius),
-                        outerAngleLeftTop.value, outerAngleTopLeft.value - outerAngleLeftTop.value, true);
-            }
-            if (innerRadiusLeftTop == 0) {
-                leftTopPath.value.lineTo(innerLeft, innerTop);
-                // 设置左上角阴影
-                float shaderRadiusLeftTop;
-                float shaderLeftTopOffsetX = 0, shaderLeftTopOffsetY = 0;
-                if (disTop > disLeft) {
-                    shaderRadiusLeftTop = disTop;
-                    shaderLeftTopOffsetX = disLeft - disTop;
-                } else {
-                    shaderRadiusLeftTop = disLeft;
-                    shaderLeftTopOffsetY = disTop - disLeft;
-                }
-                leftTopShader.value = new RadialGradient(innerLeft + shaderLeftTopOffsetX, innerTop + shaderLeftTopOffsetY,
-                        shaderRadiusLeftTop, color2, null, Shader.TileMode.CLAMP);
-            } else {
-                // 画内圆角
-                doubleRadius = innerRadiusLeftTop * 2f;
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                    leftTopPath.value.arcTo(innerLeft, innerTop, innerLeft + doubleRadius, innerTop + doubleRadius,
-                            innerAngleTopLeft.value, innerAngleLeftTop.value - innerAngleTopLeft.value, false);
-                } else {
-                    leftTopPath.value.arcTo(new RectF(innerLeft, innerTop, innerLeft + doubleRadius, innerTop + doubleRadius),
-                            innerAngleTopLeft.value, innerAngleLeftTop.value - innerAngleTopLeft.value, false);
-                }
-                // 设置左上角阴影
-                leftTopShader.value = new RadialGradient(outerLeft + outerRadiusLeftTop,
-                        outerTop + outerRadiusLeftTop, outerRadiusLeftTop, color3,
-                        new float[]{0, innerRadiusLeftTop / outerRadiusLeftTop, 1}, Shader.TileMode.CLAMP);
-            }
-            leftTopPath.value.close();
-        } // else // 没有外圆角 内圆角也将没有
-        if (outerRadiusRightTop != 0) {
-            // 画外圆角
-            rightTopPath.value = new Path();
-            doubleRadius = outerRadiusRightTop * 2f;
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                rightTopPath.value.arcTo(outerRight - doubleRadius, outerTop, outerRight, outerTop + doubleRadius,
-                        outerAngleTopRight.value, outerAngleRightTop.value - outerAngleTopRight.value, false);
-            } else {
-                rightTopPath.value.arcTo(new RectF(outerRight - doubleRadius, outerTop, outerRight, outerTop + doubleRadius),
-                        outerAngleTopRight.value, outerAngleRightTop.value - outerAngleTopRight.value, false);
-            }
-            if (innerRadiusRightTop == 0) {
-                rightTopPath.value.lineTo(innerRight, innerTop);
-                // 设置右上角阴影
-                float shaderRadiusRightTop;
-                float shaderRightTopOffsetX = 0, shaderRightTopOffsetY = 0;
-                if (disTop > disRight) {
-                    shaderRadiusRightTop = disTop;
-                    shaderRightTopOffsetX = disRight - disTop;
-                } else {
-                    shaderRadiusRightTop = disRight;
-                    shaderRightTopOffsetY = disTop - disRight;
-                }
-                rightTopShader.value = new RadialGradient(innerRight + shaderRightTopOffsetX, innerTop + shaderRightTopOffsetY,
-                        shaderRadiusRightTop, color2, null, Shader.TileMode.CLAMP);
-            } else {
-                // 画内圆角
-                doubleRadius = innerRadiusRightTop * 2f;
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                    rightTopPath.value.arcTo(innerRight - doubleRadius, innerTop, innerRight, innerTop + doubleRadius,
-                            innerAngleRightTop.value, innerAngleTopRight.value - innerAngleRightTop.value, false);
-                } else {
-                    rightTopPath.value.arcTo(new RectF(innerRight - doubleRadius, innerTop, innerRight, innerTop + doubleRadius),
-                            innerAngleRightTop.value, innerAngleTopRight.value - innerAngleRightTop.value, false);
+
+        /**
+         * 背景单独变化不会触发布局 只比较对象与颜色 不向上查找
+         */
+        @Override
+        public boolean onPreDraw() {
+            View source = this.source;
+            if (underColorAuto && source != null) {
+                Drawable background = source.getBackground();
+                if (background != sourceBackground
+                        || (background != null && getOpaqueColor(background) != sourceColor)) {
+                    resolve();
                 }
-                // 设置右上角阴影
-                rightTopShader.value = new RadialGradient(outerRight - outerRadiusRightTop,
-                        outerTop + outerRadiusRightTop, outerRadiusRightTop, color3,
-                        new float[]{0, innerRadiusRightTop / outerRadiusRightTop, 1}, Shader.TileMode.CLAMP);
-            }
-            rightTopPath.value.close();
-        }// else // 没有外圆角 内圆角也将没有
-        if (outerRadiusRightBottom != 0) {
-            // 画外圆角
-            rightBottomPath.value = new Path();
-            doubleRadius = outerRadiusRightBottom * 2f;
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                rightBottomPath.value.arcTo(outerRight - doubleRadius, outerBottom - doubleRadius, outerRight, outerBottom,
-                        outerAngleRightBottom.value, outerAngleBottomRight.value - outerAngleRightBottom.value, false);
-            } else {
-                rightBottomPath.value.arcTo(new RectF(outerRight - doubleRadius, outerBottom - doubleRadius, outerRight, outerBottom),
-                        outerAngleRightBottom.value, outerAngleBottomRight.value - outerAngleRightBottom.value, false);
-            }
-            if (innerRadiusRightBottom == 0) {
-                rightBottomPath.value.lineTo(innerRight, innerBottom);
-                // 设置右下角阴影
-                float shaderRadiusRightBottom;
-                float shaderRightBottomOffsetX = 0, shaderRightBottomOffsetY = 0;
-                if (disBottom > disRight) {
-                    shaderRadiusRightBottom = disBottom;
-                    shaderRightBottomOffsetX = disRight - disBottom;
-                } else {
-                    shaderRadiusRightBottom = disRight;
-                    shaderRightBottomOffsetY = disBottom - disRight;
+            }
+            return true;
+        }
+
+        private void listen(View v) {
+            unlisten();
+            ViewParent viewParent = v.getParent();
+            if (viewParent instanceof View) {
+                parent = (View) viewParent;
+                parent.addOnLayoutChangeListener(this);
+            }
+            observer = v.getViewTreeObserver();
+            observer.addOnPreDrawListener(this);
+        }
+
+        private void unlisten() {
+            if (parent != null) {
+                parent.removeOnLayoutChangeListener(this);
+                parent = null;
+            }
+            if (observer != null) {
+                if (observer.isAlive()) {
+                    observer.removeOnPreDrawListener(this);
                 }
-                rightBottomShader.value = new RadialGradient(innerRight + shaderRightBottomOffsetX, innerBottom + shaderRightBottomOffsetY,
-                        shaderRadiusRightBottom, color2, null, Shader.TileMode.CLAMP);
-            } else {
-                // 画内圆角
-                doubleRadius = innerRadiusRightBottom * 2f;
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                    rightBottomPath.value.arcTo(innerRight - doubleRadius, innerBottom - doubleRadius, innerRight, innerBottom,
-                            innerAngleBottomRight.value, innerAngleRightBottom.value - innerAngleBottomRight.value, false);
-                } else {
-                    rightBottomPath.value.arcTo(new RectF(innerRight - doubleRadius, innerBottom - doubleRadius, innerRight, innerBottom),
-                            innerAngleBottomRight.value, innerAngleRightBottom.value - innerAngleBottomRight.value, false);
+                observer = null;
+            }
+            source = null;
+            sourceBackground = null;
+        }
+
+        private void resolve() {
+            // 透明表示获取失败
+            int newColor = findUnderColor();
+            resolved = newColor != Color.TRANSPARENT;
+            if (!resolved) {
+                newColor = configuredUnderColor;
+            }
+            if (newColor == Color.TRANSPARENT && !warned && outClearMode == OUT_CLEAR_MODE_CLEAR) {
+                warned = true;
+                Log.w(TAG, "under_color_auto: no opaque background found for " + view
+                        + ", out_clear_mode clear falls back to LAYER_TYPE_SOFTWARE");
+            }
+            if (newColor == underColor) {
+                return;
+            }
+            underColor = newColor;
+            markDirty(DIRTY_CLIP);
+        }
+
+        @ColorInt
+        private int findUnderColor() {
+            source = null;
+            sourceBackground = null;
+            ViewParent parent = view.getParent();
+            while (parent instanceof View) {
+                Drawable background = ((View) parent).getBackground();
+                if (background != null) {
+                    if (isTransparent(background)) {
+                        parent = parent.getParent();
+                        continue;
+                    }
+                    source = (View) parent;
+                    sourceBackground = background;
+                    sourceColor = getOpaqueColor(background);
+                    return sourceColor;
                 }
-                // 设置右下角阴影
-                rightBottomShader.value = new RadialGradient(outerRight - outerRadiusRightBottom,
-                        outerBottom - outerRadiusRightBottom, outerRadiusRightBottom, color3,
-                        new float[]{0, innerRadiusRightBottom / outerRadiusRightBottom, 1}, Shader.TileMode.CLAMP);
-            }
-            rightBottomPath.value.close();
-        }// else // 没有外圆角 内圆角也将没有
-        if (outerRadiusLeftBottom != 0) {
-            // 画外圆角
-            leftBottomPath.value = new Path();
-            doubleRadius = outerRadiusLeftBottom * 2f;
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                leftBottomPath.value.arcTo(outerLeft, outerBottom - doubleRadius, outerLeft + doubleRadius, outerBottom,
-                        outerAngleBottomLeft.value, outerAngleLeftBottom.value - outerAngleBottomLeft.value, false);
-            } else {
-                leftBottomPath.value.arcTo(new RectF(outerLeft, outerBottom - doubleRadius, outerLeft + doubleRadius, outerBottom),
-                        outerAngleBottomLeft.value, outerAngleLeftBottom.value - outerAngleBottomLeft.value, false);
-            }
-            if (innerRadiusLeftBottom == 0) {
-                leftBottomPath.value.lineTo(innerLeft, innerBottom);
-                // 设置左下角阴影
-                float shaderRadiusLeftBottom;
-                float shaderLeftBottomOffsetX = 0, shaderLeftBottomOffsetY = 0;
-                if (disBottom > disLeft) {
-                    shaderRadiusLeftBottom = disBottom;
-                    shaderLeftBottomOffsetX = disLeft - disBottom;
-                } else {
-                    shaderRadiusLeftBottom = disLeft;
-                    shaderLeftBottomOffsetY = disBottom - disLeft;
+                parent = parent.getParent();
+            }
+            // 未 attach 到 DecorView 时读取主题的窗口背景
+            Context context = view.getContext();
+            while (context instanceof ContextWrapper && !(context instanceof Activity)) {
+                context = ((ContextWrapper) context).getBaseContext();
+            }
+            if (context instanceof Activity) {
+                Drawable windowBackground = ((Activity) context).getWindow().getDecorView().getBackground();
+                if (windowBackground != null) {
+                    return getOpaqueColor(windowBackground);
                 }
-                leftBottomShader.value = new RadialGradient(innerLeft + shaderLeftBottomOffsetX, innerBottom + shaderLeftBottomOffsetY,
-                        shaderRadiusLeftBottom, color2, null, Shader.TileMode.CLAMP);
-            } else {
-                // 画内圆角
-                doubleRadius = innerRadiusLeftBottom * 2f;
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                    leftBottomPath.value.arcTo(innerLeft, innerBottom - doubleRadius, innerLeft + doubleRadius, innerBottom,
-                            innerAngleLeftBottom.value, innerAngleBottomLeft.value - innerAngleLeftBottom.value, false);
-                } else {
-                    leftBottomPath.value.arcTo(new RectF(innerLeft, innerBottom - doubleRadius, innerLeft + doubleRadius, innerBottom),
-                            innerAngleLeftBottom.value, innerAngleBottomLeft.value - innerAngleLeftBottom.value, false);
+            }
+            TypedValue value = typedValue;
+            if (view.getContext().getTheme().resolveAttribute(android.R.attr.windowBackground, value, true)
+                    && value.type >= TypedValue.TYPE_FIRST_COLOR_INT && value.type <= TypedValue.TYPE_LAST_COLOR_INT
+                    && Color.alpha(value.data) == 255) {
+                return value.data;
+            }
+            return Color.TRANSPARENT;
+        }
+
+        private boolean isTransparent(Drawable drawable) {
+            return drawable instanceof ColorDrawable && Color.alpha(((ColorDrawable) drawable).getColor()) == 0;
+        }
+
+        @ColorInt
+        private int getOpaqueColor(Drawable drawable) {
+            if (drawable instanceof ColorDrawable) {
+                int color = ((ColorDrawable) drawable).getColor();
+                return Color.alpha(color) == 255 ? color : Color.TRANSPARENT;
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && drawable instanceof GradientDrawable
+                    && drawable.getOpacity() == PixelFormat.OPAQUE) {
+                ColorStateList colors = ((GradientDrawable) drawable).getColor();
+                if (colors != null) {
+                    int color = colors.getColorForState(drawable.getState(), colors.getDefaultColor());
+                    return Color.alpha(color) == 255 ? color : Color.TRANSPARENT;
                 }
-                // 设置左下角阴影
-                leftBottomShader.value = new RadialGradient(outerLeft + outerRadiusLeftBottom,
-                        outerBottom - outerRadiusLeftBottom, outerRadiusLeftBottom, color3,
-                        new float[]{0, innerRadiusLeftBottom / outerRadiusLeftBottom, 1}, Shader.TileMode.CLAMP);
-            }
-            leftBottomPath.value.close();
-        }// else // 没有外圆角 内圆角也将没有
-        float outerWidth = outerRight - outerLeft;
-        float outerHeight = outerBottom - outerTop;
-        if (outerHeight - outerSizeLeftTop.value - outerSizeLeftBottom.value > 0) {
-            // 画左侧梯形
-            leftPath.value = new Path();
-            leftPath.value.moveTo(outerLeft, outerTop + outerSizeLeftTop.value);
-            leftPath.value.lineTo(innerLeft, innerTop + innerSizeLeftTop.value);
-            leftPath.value.lineTo(innerLeft, innerBottom - innerSizeLeftBottom.value);
-            leftPath.value.lineTo(outerLeft, outerBottom - outerSizeLeftBottom.value);
-            leftPath.value.close();
-            // 设置左侧阴影
-            leftShader.value = new LinearGradient(innerLeft, 0, outerLeft, 0, color2, null, Shader.TileMode.CLAMP);
-        } // else // 左侧没有尺寸
-        if (outerWidth - outerSizeTopLeft.value - outerSizeTopRight.value > 0) {
-            // 画上侧梯形
-            topPath.value = new Path();
-            topPath.value.moveTo(outerLeft + outerSizeTopLeft.value, outerTop);
-            topPath.value.lineTo(innerLeft + innerSizeTopLeft.value, innerTop);
-            topPath.value.lineTo(innerRight - innerSizeTopRight.value, innerTop);
-            topPath.value.lineTo(outerRight - outerSizeTopRight.value, outerTop);
-            topPath.value.close();
-            // 设置上侧阴影
-            topShader.value = new LinearGradient(0, innerTop, 0, outerTop, color2, null, Shader.TileMode.CLAMP);
-        } // else // 上侧没有尺寸
-        if (outerHeight - outerSizeRightTop.value - outerSizeRightBottom.value > 0) {
-            // 画右侧梯形
-            rightPath.value = new Path();
-            rightPath.value.moveTo(outerRight, outerTop + outerSizeRightTop.value);
-            rightPath.value.lineTo(innerRight, innerTop + innerSizeRightTop.value);
-            rightPath.value.lineTo(innerRight, innerBottom - innerSizeRightBottom.value);
-            rightPath.value.lineTo(outerRight, outerBottom - outerSizeRightBottom.value);
-            rightPath.value.close();
-            // 设置右侧阴影
-            rightShader.value = new LinearGradient(innerRight, 0, outerRight, 0, color2, null, Shader.TileMode.CLAMP);
-        } // else // 右侧没有尺寸
-        if (outerWidth - outerSizeBottomLeft.value - outerSizeBottomRight.value > 0) {
-            // 画下侧梯形
-            bottomPath.value = new Path();
-            bottomPath.value.moveTo(outerLeft + outerSizeBottomLeft.value, outerBottom);
-            bottomPath.value.lineTo(innerLeft + innerSizeBottomLeft.value, innerBottom);
-            bottomPath.value.lineTo(innerRight - innerSizeBottomRight.value, innerBottom);
-            bottomPath.value.lineTo(outerRight - outerSizeBottomRight.value, outerBottom);
-            bottomPath.value.close();
-            // 设置下侧阴影
-            bottomShader.value = new LinearGradient(0, innerBottom, 0, outerBottom, color2, null, Shader.TileMode.CLAMP);
-        } // else // 下侧没有尺寸
+            }
+            return Color.TRANSPARENT;
+        }
     }
 
-    public interface OnMeasureListener {
-        void onMeasure(int widthMeasureSpec, int heightMeasureSpec);
-    }
+    /**
+     * 上次重建几何参数时的阴影参数 用于判断公开字段是否被直接修改
+     */
+    private static final class GeometrySnapshot {
+        private int shadowColor;
+        private int shadowDx;
+        private int shadowDy;
+        private int shadowBlur;
+        private int shadowSpread;
+        private boolean shadowInset;
+        private int shadowClip;
+        private int shadowType;
+        private final PwPhValue boxRadiusLeftTop = new PwPhValue();
+        private final PwPhValue boxRadiusRightTop = new PwPhValue();
+        private final PwPhValue boxRadiusRightBottom = new PwPhValue();
+        private final PwPhValue boxRadiusLeftBottom = new PwPhValue();
+        private int boxBorderThickness;
+        private int underColor;
+        private int outClearMode;
+        private boolean shadowCache;
+        private boolean shadowStretch;
+        private boolean renderNodeCache;
+        private int rendererType;
+        private boolean outlineClip;
+        private boolean elevationAuto;
+
+        private void save(ShadowParams params) {
+            shadowColor = params.shadowColor;
+            shadowDx = params.shadowDx;
+            shadowDy = params.shadowDy;
+            shadowBlur = params.shadowBlur;
+            shadowSpread = params.shadowSpread;
+            shadowInset = params.shadowInset;
+            shadowClip = params.shadowClip;
+            shadowType = params.shadowType;
+            copy(params.boxRadiusLeftTop, boxRadiusLeftTop);
+            copy(params.boxRadiusRightTop, boxRadiusRightTop);
+            copy(params.boxRadiusRightBottom, boxRadiusRightBottom);
+            copy(params.boxRadiusLeftBottom, boxRadiusLeftBottom);
+            boxBorderThickness = params.boxBorderThickness;
+            underColor = params.underColor;
+            outClearMode = params.outClearMode;
+            shadowCache = params.shadowCache;
+            shadowStretch = params.shadowStretch;
+            renderNodeCache = params.renderNodeCache;
+            rendererType = params.rendererType;
+            outlineClip = params.outlineClip;
+            elevationAuto = params.elevationAuto;
+        }
+
+        /**
+         * 与当前参数比较 返回需要重建的阶段
+         */
+        private int diff(ShadowParams params) {
+            int dirty = 0;
+            if (shadowColor != params.shadowColor) {
+                dirty |= DIRTY_SHADER;
+            }
+            if (shadowDx != params.shadowDx
+                    || shadowDy != params.shadowDy
+                    || shadowBlur != params.shadowBlur
+                    || shadowSpread != params.shadowSpread
+                    || shadowInset != params.shadowInset
+                    || shadowClip != params.shadowClip) {
+                dirty |= DIRTY_GEOMETRY;
+            }
+            if (shadowType != params.shadowType) {
+                dirty |= DIRTY_SHADOW;
+            }
+            if (!same(params.boxRadiusLeftTop, boxRadiusLeftTop)
+                    || !same(params.boxRadiusRightTop, boxRadiusRightTop)
+                    || !same(params.boxRadiusRightBottom, boxRadiusRightBottom)
+                    || !same(params.boxRadiusLeftBottom, boxRadiusLeftBottom)
+                    || boxBorderThickness != params.boxBorderThickness) {
+                dirty |= DIRTY_CLIP | DIRTY_SHADOW | DIRTY_BORDER;
+            }
+            if (underColor != params.underColor) {
+                dirty |= DIRTY_CLIP;
+            }
+            if (outClearMode != params.outClearMode) {
+                dirty |= DIRTY_CLIP | DIRTY_SHADOW;
+            }
+            if (outlineClip != params.outlineClip) {
+                dirty |= DIRTY_CLIP;
+            }
+            if (shadowCache != params.shadowCache
+                    || shadowStretch != params.shadowStretch
+                    || renderNodeCache != params.renderNodeCache
+                    || rendererType != params.rendererType
+                    || elevationAuto != params.elevationAuto) {
+                dirty |= DIRTY_SHADOW;
+            }
+            return dirty;
+        }
 
-    public interface OnDrawSuperListener {
-        void onDrawSuper(Canvas canvas);
+        private static void copy(PwPhValue from, PwPhValue to) {
+            to.value = from.value;
+            to.percent = from.percent;
+            to.isWidth = from.isWidth;
+        }
+
+        private static boolean same(PwPhValue a, PwPhValue b) {
+            return a.value == b.value && a.percent == b.percent && a.isWidth == b.isWidth;
+        }
     }
 
     public static class PwPhValue {
@@ -1897,42 +3033,6 @@ public class ShadowParams {
         }
     }
 
-    private static class IntegerBox {
-        public int value;
-
-        public IntegerBox() {
-            value = 0;
-        }
-
-        public IntegerBox(int value) {
-            this.value = value;
-        }
-    }
-
-    private static class FloatBox {
-        public float value;
-
-        public FloatBox() {
-            value = 0;
-        }
-
-        public FloatBox(float value) {
-            this.value = value;
-        }
-    }
-
-    private static class ShaderBox {
-        public Shader value;
-
-        public ShaderBox() {
-            value = null;
-        }
-
-        public ShaderBox(Shader value) {
-            this.value = value;
-        }
-    }
-
     private static class PathBox {
         public Path value;
 
@@ -17,6 +17,8 @@ import androidx.annotation.Nullable;
  */
 public class ShadowRelativeLayout extends RelativeLayout {
     private ShadowParams shadowParams;
+    private final ShadowParams.OnMeasureListener superMeasure = super::onMeasure;
+    private final ShadowParams.OnDrawSuperListener superDraw = super::onDraw;
     private Drawable background;
 
     public ShadowRelativeLayout(Context context) {
@@ -46,7 +48,7 @@ public class ShadowRelativeLayout extends RelativeLayout {
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-        shadowParams.measure(widthMeasureSpec, heightMeasureSpec, super::onMeasure);
+        shadowParams.measure(widthMeasureSpec, heightMeasureSpec, superMeasure);
     }
     @Override
     public void setBackgroundDrawable(Drawable background) {
@@ -58,6 +60,11 @@ public class ShadowRelativeLayout extends RelativeLayout {
     }
     @Override
     protected void onDraw(Canvas canvas) {
-        shadowParams.draw(canvas, super::onDraw);
+        shadowParams.draw(canvas, superDraw);
+    }
+
+    @Override
+    public boolean hasOverlappingRendering() {
+        return shadowParams.hasOverlappingRendering(getChildCount() > 0, super.hasOverlappingRendering());
     }
 }
@@ -0,0 +1,57 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.graphics.Canvas;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.os.Build;
+
+import androidx.annotation.RequiresApi;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:10
+ * 说明：阴影与边框的显示列表缓存 API 29+
+ * 只有参数、尺寸或绘制状态变化时才重新录制 其余情况直接 drawRenderNode
+ * 内容刷新(文字变化 水波纹 子 View 更新)不会重新执行阴影的绘制指令
+ */
+@RequiresApi(Build.VERSION_CODES.Q)
+final class ShadowRenderNode {
+    private final RenderNode node;
+    private boolean dirty = true;
+    private int recordedState0;
+    private int recordedState1;
+
+    ShadowRenderNode(String name) {
+        node = new RenderNode(name);
+    }
+
+    /**
+     * 参数变化后调用 下一次绘制时重新录制
+     */
+    void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * @param state0 state1 录制时依赖的绘制状态 如颜色 变化时重新录制
+     */
+    void draw(Canvas canvas, int w, int h, int state0, int state1,
+              ShadowParams.OnDrawSuperListener recorder) {
+        if (dirty || node.getWidth() != w || node.getHeight() != h
+                || recordedState0 != state0 || recordedState1 != state1) {
+            node.setPosition(0, 0, w, h);
+            RecordingCanvas recordingCanvas = node.beginRecording(w, h);
+            try {
+                recorder.onDrawSuper(recordingCanvas);
+            } finally {
+                node.endRecording();
+            }
+            recordedState0 = state0;
+            recordedState1 = state1;
+            dirty = false;
+        }
+        canvas.drawRenderNode(node);
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.graphics.Canvas;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:12
+ * 说明：阴影渲染后端
+ * 每个 ShadowParams 持有自己的实例 由 {@link ShadowRenderers} 按 API 版本、阴影参数与硬件加速状态选择
+ * 也可以通过 {@link ShadowRenderers#setForcedRenderer(int)} 或 {@link ShadowParams#rendererType} 强制指定
+ */
+public interface ShadowRenderer {
+    /**
+     * @see ShadowRenderers.RendererType
+     */
+    @ShadowRenderers.RendererType
+    int getType();
+
+    /**
+     * 当前参数下能否正确渲染
+     *
+     * @param hardwareAccelerated View 是否使用硬件加速绘制
+     */
+    boolean isSupported(ShadowParams params, boolean hardwareAccelerated);
+
+    /**
+     * 几何参数或尺寸变化后调用 准备绘制需要的资源
+     */
+    void prepare(ShadowParams params);
+
+    /**
+     * 绘制阴影 内阴影与外阴影均由此绘制
+     */
+    void drawShadow(ShadowParams params, Canvas canvas);
+
+    void drawBorder(ShadowParams params, Canvas canvas);
+
+    /**
+     * 切换到其它渲染后端时调用 还原对 View 的修改
+     */
+    void release(ShadowParams params);
+}
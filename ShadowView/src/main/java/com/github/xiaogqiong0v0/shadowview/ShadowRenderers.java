@@ -0,0 +1,208 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.os.Build;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.Nullable;
+
+import com.github.xiaogqiong0v0.shadowview.core.ParallelMask;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:12
+ * 说明：渲染后端选择
+ * 优先级 View 指定 > 全局强制 > 自动选择 指定的后端不支持当前参数时使用自动选择
+ * 自动选择：
+ * API 28 以下硬件加速不支持 BlurMaskFilter 软阴影使用遮罩
+ * 设置了 shadowCache 或 shadowStretch 的软阴影使用遮罩 其余软阴影使用路径
+ * 硬阴影使用遮罩 避免每帧切换八个渐变 ARGB 遮罩超过缓存上限时使用路径
+ * API 28+ 硬件加速 elevationAuto 且参数与系统阴影相差在容差内时使用系统 elevation 阴影
+ * API 29+ 硬件加速且 renderNodeCache 时再录制到 RenderNode
+ * 软阴影遮罩默认由 {@link com.github.xiaogqiong0v0.shadowview.core.AnalyticShadow} 直接计算 不经过 BlurMaskFilter
+ * 大遮罩分带在多个线程生成 见 {@link #setMaskThreads(int)}
+ */
+public final class ShadowRenderers {
+    @IntDef({RENDERER_AUTO, RENDERER_PATH, RENDERER_BITMAP, RENDERER_RENDER_NODE, RENDERER_ELEVATION})
+    public @interface RendererType {
+    }
+
+    public static final int RENDERER_AUTO = 0;
+    public static final int RENDERER_PATH = 1;
+    public static final int RENDERER_BITMAP = 2;
+    public static final int RENDERER_RENDER_NODE = 3;
+    public static final int RENDERER_ELEVATION = 4;
+
+    @IntDef({BLUR_ENGINE_PLATFORM, BLUR_ENGINE_BOX, BLUR_ENGINE_STACK, BLUR_ENGINE_ANALYTIC})
+    public @interface BlurEngine {
+    }
+
+    // BlurMaskFilter
+    public static final int BLUR_ENGINE_PLATFORM = 0;
+    // 三次盒式模糊 接近高斯
+    public static final int BLUR_ENGINE_BOX = 1;
+    // 三角核 更快 边缘略硬
+    public static final int BLUR_ENGINE_STACK = 2;
+    // 圆角矩形的解析计算 不做卷积 圆角超过较短边的一半时使用 BLUR_ENGINE_BOX
+    public static final int BLUR_ENGINE_ANALYTIC = 3;
+
+    @RendererType
+    private static volatile int forcedRenderer = RENDERER_AUTO;
+    // 自动替换为系统阴影的容差 dp 小于 0 时全局关闭替换
+    private static volatile float elevationToleranceDp = 1f;
+    @BlurEngine
+    private static volatile int blurEngine = BLUR_ENGINE_ANALYTIC;
+    // 软阴影遮罩缩小后放大允许的最大误差 8 位 alpha 的级数
+    private static volatile int maxBlurError = 2;
+    // 生成软阴影遮罩的线程数 包括主线程
+    private static volatile int maskThreads = ParallelMask.defaultParallelism();
+
+    private ShadowRenderers() {
+    }
+
+    /**
+     * 全局强制使用指定的渲染后端 用于性能对比测试 已显示的 View 需要 refreshParams 后生效
+     */
+    public static void setForcedRenderer(@RendererType int type) {
+        forcedRenderer = type;
+    }
+
+    @RendererType
+    public static int getForcedRenderer() {
+        return forcedRenderer;
+    }
+
+    /**
+     * 自动替换为系统 elevation 阴影时 水平偏移 张度 纵向偏移允许的误差 默认 1dp
+     * 小于 0 时全局关闭替换 单个 View 使用 {@link ShadowParams#setElevationAuto(boolean)}
+     * 已显示的 View 需要 refreshParams 后生效
+     */
+    public static void setElevationTolerance(float dp) {
+        elevationToleranceDp = dp;
+    }
+
+    public static float getElevationTolerance() {
+        return elevationToleranceDp;
+    }
+
+    /**
+     * 软阴影遮罩的模糊方式 只影响遮罩渲染 路径渲染仍使用 BlurMaskFilter
+     * 切换时清空 {@link ShadowCache} 已显示的 View 需要 refreshParams 后生效
+     */
+    public static void setBlurEngine(@BlurEngine int engine) {
+        if (blurEngine == engine) {
+            return;
+        }
+        blurEngine = engine;
+        ShadowCache.getInstance().evictAll();
+    }
+
+    @BlurEngine
+    public static int getBlurEngine() {
+        return blurEngine;
+    }
+
+    /**
+     * 大模糊半径的软阴影遮罩在低分辨率上生成 绘制时双线性放大 缩小倍数保证误差不超过 levels 级 默认 2
+     * 0 时不缩小 BLUR_ENGINE_PLATFORM 与 API 28 以下的外阴影不缩小
+     * 切换时清空 {@link ShadowCache} 已显示的 View 需要 refreshParams 后生效
+     */
+    public static void setMaxBlurError(int levels) {
+        levels = Math.max(levels, 0);
+        if (maxBlurError == levels) {
+            return;
+        }
+        maxBlurError = levels;
+        ShadowCache.getInstance().evictAll();
+    }
+
+    public static int getMaxBlurError() {
+        return maxBlurError;
+    }
+
+    /**
+     * 软阴影遮罩超过 {@link ParallelMask#DEFAULT_THRESHOLD} 个像素时分带在多个线程生成 主线程处理其中一条
+     * 默认为核数 最多 4 1 时只在主线程生成 结果与线程数无关 不清空缓存
+     */
+    public static void setMaskThreads(int threads) {
+        maskThreads = Math.max(threads, 1);
+    }
+
+    public static int getMaskThreads() {
+        return maskThreads;
+    }
+
+    /**
+     * 选择渲染后端 类型相同时复用 current 以保留其状态
+     */
+    static ShadowRenderer select(ShadowParams params, @Nullable ShadowRenderer current, boolean hardwareAccelerated) {
+        int type = params.rendererType != RENDERER_AUTO ? params.rendererType : forcedRenderer;
+        if (type != RENDERER_AUTO) {
+            ShadowRenderer renderer = obtain(type, params, current, hardwareAccelerated);
+            if (renderer != null && renderer.isSupported(params, hardwareAccelerated)) {
+                return renderer;
+            }
+        }
+        if (params.elevationAuto && Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            float tolerance = elevationToleranceDp * params.getView().getResources().getDisplayMetrics().density;
+            if (ElevationShadowRenderer.approximates(params, hardwareAccelerated, tolerance)) {
+                //noinspection ConstantConditions
+                return obtain(RENDERER_ELEVATION, params, current, true);
+            }
+        }
+        int baseType = selectBaseType(params, hardwareAccelerated);
+        if (params.renderNodeCache && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && hardwareAccelerated) {
+            ShadowRenderer renderer = obtain(RENDERER_RENDER_NODE, params, current, true);
+            if (renderer != null) {
+                return renderer;
+            }
+        }
+        //noinspection ConstantConditions
+        return obtain(baseType, params, current, hardwareAccelerated);
+    }
+
+    @RendererType
+    private static int selectBaseType(ShadowParams params, boolean hardwareAccelerated) {
+        if (params.shadowType != ShadowParams.SHADOW_TYPE_SOFT) {
+            long bytes = 4L * params.getCurrentWidth() * params.getCurrentHeight();
+            return bytes <= ShadowCache.getInstance().maxSize() ? RENDERER_BITMAP : RENDERER_PATH;
+        }
+        if (hardwareAccelerated && Build.VERSION.SDK_INT < Build.VERSION_CODES.P && params.shadowBlur > 0) {
+            return RENDERER_BITMAP;
+        }
+        if (params.shadowCache || params.shadowStretch) {
+            return RENDERER_BITMAP;
+        }
+        return RENDERER_PATH;
+    }
+
+    @Nullable
+    private static ShadowRenderer obtain(int type, ShadowParams params, @Nullable ShadowRenderer current,
+                                         boolean hardwareAccelerated) {
+        switch (type) {
+            case RENDERER_PATH:
+                return current instanceof PathShadowRenderer ? current : new PathShadowRenderer();
+            case RENDERER_BITMAP:
+                return current instanceof BitmapShadowRenderer ? current : new BitmapShadowRenderer();
+            case RENDERER_RENDER_NODE:
+                if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+                    return null;
+                }
+                int baseType = selectBaseType(params, hardwareAccelerated);
+                if (current instanceof RenderNodeShadowRenderer
+                        && ((RenderNodeShadowRenderer) current).getDelegate().getType() == baseType) {
+                    return current;
+                }
+                //noinspection ConstantConditions
+                return new RenderNodeShadowRenderer(obtain(baseType, params, null, hardwareAccelerated));
+            case RENDERER_ELEVATION:
+                if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+                    return null;
+                }
+                return current instanceof ElevationShadowRenderer ? current : new ElevationShadowRenderer();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.*;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:33
+ * 说明：各模式的 Canvas 操作统计
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 29)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ShadowDrawProfilerTest {
+    private ShadowView view;
+    private ShadowParams params;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        FrameLayout root = new FrameLayout(activity);
+        view = new ShadowView(activity);
+        params = view.getShadowParams();
+        params.beginUpdate();
+        params.setShadowBlur(12);
+        params.setShadowDy(4);
+        params.setBoxRadius(16);
+        params.commit();
+        root.addView(view, new ViewGroup.LayoutParams(200, 120));
+        activity.setContentView(root);
+        ShadowLooper.idleMainLooper();
+    }
+
+    private ShadowDrawProfiler.Report profile() {
+        ShadowLooper.idleMainLooper();
+        return ShadowDrawProfiler.profile(params);
+    }
+
+    @Test
+    public void softOuterShadow_usesMaskFilter() {
+        ShadowDrawProfiler.Report report = profile();
+        assertTrue(report.toString(), report.maskFilterDrawCount > 0);
+        assertEquals(report.toString(), 0, report.shaderSwitchCount);
+    }
+
+    @Test
+    public void hardOuterShadow_pathRendererUsesShadersWithoutMaskFilter() {
+        params.beginUpdate();
+        params.setShadowType(ShadowParams.SHADOW_TYPE_HARD);
+        params.setRendererType(ShadowRenderers.RENDERER_PATH);
+        params.commit();
+        ShadowDrawProfiler.Report report = profile();
+        assertEquals(report.toString(), 0, report.maskFilterDrawCount);
+        // 四个圆角与四条边
+        assertEquals(report.toString(), 8, report.shaderSwitchCount);
+    }
+
+    @Test
+    public void hardOuterShadow_singleMaskDraw() {
+        params.setShadowType(ShadowParams.SHADOW_TYPE_HARD);
+        ShadowDrawProfiler.Report report = profile();
+        assertEquals(report.toString(), 1, report.drawBitmapCount);
+        assertEquals(report.toString(), 0, report.shaderSwitchCount);
+        assertEquals(report.toString(), 0, report.saveLayerCount);
+        // 颜色变化重新获取遮罩
+        params.setShadowColor(0x80FF5722);
+        assertEquals(report.toString(), 1, profile().drawBitmapCount);
+    }
+
+    @Test
+    public void largeBlur_downsampledMask() {
+        ShadowCache.getInstance().evictAll();
+        params.beginUpdate();
+        params.setShadowBlur(40);
+        params.setRendererType(ShadowRenderers.RENDERER_BITMAP);
+        params.commit();
+        ShadowDrawProfiler.Report report = profile();
+        assertEquals(report.toString(), 1, report.drawBitmapCount);
+        // 缩小的遮罩在绘制时挖去显示区域
+        assertEquals(report.toString(), 1, report.clipOutPathCount);
+        assertTrue(ShadowCache.getInstance().toString(),
+                ShadowCache.getInstance().size() * 16 <= view.getWidth() * view.getHeight());
+    }
+
+    @Test
+    public void clipMode_ringClipWithoutLayer() {
+        ShadowDrawProfiler.Report report = profile();
+        // 外阴影裁剪为环形 内容只需 save 恢复裁剪 没有离屏层
+        assertEquals(report.toString(), 0, report.saveLayerCount);
+        assertEquals(report.toString(), 0, report.layerPixels);
+        assertEquals(report.toString(), 1, report.clipOutPathCount);
+        assertTrue(report.toString(), report.saveCount >= 2);
+    }
+
+    /**
+     * 原生图形在 API 29 以下不可用 只统计操作数 使用旧的图形模式
+     */
+    @Test
+    @Config(sdk = 27)
+    @GraphicsMode(GraphicsMode.Mode.LEGACY)
+    public void clipMode_beforeP_shadowLayerOnly() {
+        ShadowDrawProfiler.Report report = profile();
+        // P 之前路径裁剪没有抗锯齿 阴影仍在限定范围的离屏层中清除
+        assertEquals(report.toString(), 1, report.saveLayerCount);
+        assertEquals(report.toString(), 0, report.clipOutPathCount);
+        assertTrue(report.toString(), report.layerPixels <= (long) view.getWidth() * view.getHeight());
+    }
+
+    @Test
+    public void hasOverlappingRendering_onlyWhenLayersStack() {
+        assertFalse(view.hasOverlappingRendering());
+        assertFalse(params.hasOverlappingRendering(true, false));
+        assertTrue(params.hasOverlappingRendering(true, true));
+        params.setBoxBorderThickness(2);
+        ShadowLooper.idleMainLooper();
+        assertFalse(view.hasOverlappingRendering());
+        assertTrue(params.hasOverlappingRendering(true, false));
+    }
+
+    @Test
+    public void layerMode_reportsLayerArea() {
+        params.setOutClearMode(ShadowParams.OUT_CLEAR_MODE_LAYER);
+        ShadowDrawProfiler.Report report = profile();
+        assertTrue(report.toString(), report.saveLayerCount > 0);
+        assertTrue(report.toString(), report.layerPixels > 0);
+        assertTrue(report.layerPixels <= (long) report.saveLayerCount * view.getWidth() * view.getHeight());
+    }
+
+    @Test
+    public void clearModeWithUnderColor_paintsCornersWithoutExtraLayer() {
+        params.beginUpdate();
+        params.setUnderColor(Color.WHITE);
+        params.setOutClearMode(ShadowParams.OUT_CLEAR_MODE_CLEAR);
+        params.commit();
+        ShadowDrawProfiler.Report report = profile();
+        // 阴影裁剪为环形 圆角外部用下层颜色覆盖 没有离屏层
+        assertEquals(report.toString(), 0, report.saveLayerCount);
+        // 只有留给子 View 的内部裁剪
+        assertEquals(report.toString(), 1, report.clipPathCount);
+        // 下层颜色覆盖圆角外部 与模糊的阴影各一次
+        assertEquals(report.toString(), 2, report.drawPathCount);
+        assertEquals(report.toString(), 1, report.maskFilterDrawCount);
+    }
+
+    @Test
+    public void elevationAuto_rejectsShadowsThePlatformCannotMatch() {
+        // 系统 spot 阴影的 alpha 最多为主题的 spotShadowAlpha 默认的不透明颜色不能替代
+        assertFalse(ElevationShadowRenderer.approximates(params, true, 1));
+        params.beginUpdate();
+        params.setShadowColor(0x20000000);
+        params.setShadowDy(1);
+        params.setShadowSpread(1);
+        params.commit();
+        ShadowLooper.idleMainLooper();
+        assertTrue(ElevationShadowRenderer.approximates(params, true, 1));
+        // 靠近屏幕顶部时系统阴影的纵向偏移约为 1px
+        params.setShadowDy(4);
+        ShadowLooper.idleMainLooper();
+        assertFalse(ElevationShadowRenderer.approximates(params, true, 1));
+    }
+
+    @Test
+    public void elevationRenderer_softwareCanvasDrawsPath() {
+        ElevationShadowRenderer renderer = new ElevationShadowRenderer();
+        renderer.prepare(params);
+        ShadowDrawProfiler.CountingCanvas canvas = new ShadowDrawProfiler.CountingCanvas(
+                Bitmap.createBitmap(view.getWidth(), view.getHeight(), Bitmap.Config.ARGB_8888));
+        // 截图等软件绘制没有系统阴影
+        renderer.drawShadow(params, canvas);
+        renderer.release(params);
+        assertEquals(canvas.getReport().toString(), 1, canvas.getReport().maskFilterDrawCount);
+    }
+
+    @Test
+    public void debugOverlay_costFollowsRendererWithoutMetrics() {
+        ShadowDebugOverlay.setEnabled(true);
+        ShadowMetrics.setEnabled(false);
+        try {
+            params.setRendererType(ShadowRenderers.RENDERER_PATH);
+            profile();
+            assertEquals(ShadowDebugOverlay.COST_BLUR, ShadowDebugOverlay.getCost(params));
+            params.setRendererType(ShadowRenderers.RENDERER_BITMAP);
+            profile();
+            assertEquals(ShadowDebugOverlay.COST_CHEAP, ShadowDebugOverlay.getCost(params));
+            // 关闭统计后覆盖层仍然添加
+            view.draw(new Canvas(Bitmap.createBitmap(view.getWidth(), view.getHeight(), Bitmap.Config.ARGB_8888)));
+            assertNotNull(params.debugOverlay);
+        } finally {
+            ShadowDebugOverlay.setEnabled(false);
+        }
+    }
+
+    @Test
+    public void emptyView_emptyReport() {
+        ShadowView empty = new ShadowView(view.getContext());
+        ShadowDrawProfiler.Report report = ShadowDrawProfiler.profile(empty.getShadowParams());
+        assertEquals(0, report.drawCount());
+        assertEquals(0, report.saveLayerCount);
+    }
+}
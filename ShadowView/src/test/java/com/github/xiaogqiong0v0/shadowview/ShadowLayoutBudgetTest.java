@@ -0,0 +1,333 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:31
+ * 说明：布局次数 重建次数 每帧分配的回归测试 超过预算即失败
+ * 页面结构 ShadowFrameLayout > ShadowLinearLayout > 两个 ShadowTextView
+ * Robolectric 的原生图形(NATIVE)在 API 28 及以下加载时找不到 HardwareRenderer 而退出 使用原生图形的测试都在 API 29 运行
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 29)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ShadowLayoutBudgetTest {
+    /////////// 预算 修改前先确认是有意的变化
+    // 一次布局中每个 View 的 onMeasure 次数
+    private static final int MEASURE_PER_PASS = 1;
+    // 一次布局中每个 View 的 onLayout 次数
+    private static final int LAYOUT_PER_PASS = 1;
+    // 参数不变时 一帧内的重建次数
+    private static final int REBUILD_STEADY = 0;
+    // 稳定状态下每帧分配的字节数 记录值 337~356 同结构的普通 View 为 211 其余是原生 Canvas 的绑定
+    private static final long ALLOCATION_PER_FRAME = 384;
+    // 硬阴影遮罩渲染后 每次只改颜色分配的字节数 记录值 9872~9894 主要是按新颜色重建的渐变 Shader
+    private static final long COLOR_CHANGE_ALLOCATION = 10240;
+    private static final int FRAMES = 50;
+
+    private FrameLayout root;
+    private CountingFrameLayout frame;
+    private CountingLinearLayout linear;
+    private CountingTextView title;
+    private CountingTextView content;
+    private Canvas canvas;
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        root = new FrameLayout(activity);
+        frame = new CountingFrameLayout(activity);
+        frame.getShadowParams().setShadowBlur(16);
+        frame.getShadowParams().setShadowDy(4);
+        frame.getShadowParams().setBoxRadius(12);
+        linear = new CountingLinearLayout(activity);
+        linear.setOrientation(LinearLayout.VERTICAL);
+        linear.getShadowParams().setShadowType(ShadowParams.SHADOW_TYPE_HARD);
+        linear.getShadowParams().setShadowBlur(8);
+        linear.getShadowParams().setBoxRadius(8);
+        title = new CountingTextView(activity);
+        title.setText("title");
+        title.getShadowParams().setShadowBlur(12);
+        title.getShadowParams().setBoxRadius(8);
+        content = new CountingTextView(activity);
+        content.setText("content");
+        content.getShadowParams().setShadowInset(true);
+        content.getShadowParams().setShadowBlur(6);
+        linear.addView(title, wrap());
+        linear.addView(content, wrap());
+        frame.addView(linear, wrap());
+        root.addView(frame, wrap());
+        activity.setContentView(root);
+        ShadowLooper.idleMainLooper();
+        canvas = new Canvas(Bitmap.createBitmap(root.getWidth(), root.getHeight(), Bitmap.Config.ARGB_8888));
+        drawFrame();
+        resetCounters();
+    }
+
+    @Test
+    public void layoutPass_measuresEachViewOnce() {
+        title.requestLayout();
+        ShadowLooper.idleMainLooper();
+        drawFrame();
+        assertLayoutPass(frame.measureCount, frame.layoutCount, "frame");
+        assertLayoutPass(linear.measureCount, linear.layoutCount, "linear");
+        assertLayoutPass(title.measureCount, title.layoutCount, "title");
+        // measure 修改 LayoutParams 与 padding 不能再次请求布局
+        assertFalse(root.isLayoutRequested());
+        assertFalse(frame.isLayoutRequested());
+        assertFalse(linear.isLayoutRequested());
+        assertFalse(title.isLayoutRequested());
+        assertEquals(REBUILD_STEADY, totalRebuildCount());
+    }
+
+    @Test
+    public void steadyFrame_noRebuild() {
+        for (int i = 0; i < FRAMES; i++) {
+            drawFrame();
+        }
+        assertEquals(REBUILD_STEADY, totalRebuildCount());
+    }
+
+    @Test
+    public void colorChange_rebuildsWithoutLayout() {
+        title.getShadowParams().setShadowColor(Color.RED);
+        ShadowLooper.idleMainLooper();
+        drawFrame();
+        assertEquals(0, frame.measureCount + linear.measureCount + title.measureCount + content.measureCount);
+        assertEquals(1, title.getShadowParams().rebuildCount);
+        assertEquals(1, totalRebuildCount());
+    }
+
+    @Test
+    public void hardShadowColorChange_reusesMask() {
+        ShadowParams params = linear.getShadowParams();
+        assertEquals(ShadowRenderers.RENDERER_BITMAP, params.getRenderer().getType());
+        ShadowCache cache = ShadowCache.getInstance();
+        // 第一次变化创建本 View 的遮罩
+        params.setShadowColor(0xFF000001);
+        drawFrame();
+        int putCount = cache.putCount();
+        long start = allocatedBytes();
+        for (int i = 0; i < FRAMES; i++) {
+            params.setShadowColor(0xFF000002 + i);
+            drawFrame();
+        }
+        long perChange = (allocatedBytes() - start) / FRAMES;
+        // 颜色动画不放入缓存 不挤掉其它 View 的遮罩
+        assertEquals(putCount, cache.putCount());
+        assertEquals(FRAMES + 1, params.rebuildCount);
+        assertEquals(0, frame.measureCount + linear.measureCount);
+        assertTrue("allocated " + perChange + " bytes per color change", perChange <= COLOR_CHANGE_ALLOCATION);
+    }
+
+    @Test
+    public void underColorAuto_followsBackgroundWithoutLayout() {
+        root.setBackgroundColor(Color.WHITE);
+        ShadowParams params = frame.getShadowParams();
+        params.setUnderColorAuto(true);
+        assertEquals(Color.WHITE, params.underColor);
+        // 背景变化不触发布局 绘制前比较所取的背景
+        drawWindow();
+        root.setBackgroundColor(Color.BLUE);
+        ShadowLooper.idleMainLooper();
+        assertEquals(Color.BLUE, params.underColor);
+        drawWindow();
+        root.setBackground(new ColorDrawable(Color.GREEN));
+        ShadowLooper.idleMainLooper();
+        assertEquals(Color.GREEN, params.underColor);
+        assertEquals(0, frame.measureCount + frame.layoutCount);
+        root.requestLayout();
+        ShadowLooper.idleMainLooper();
+        assertEquals(Color.GREEN, params.underColor);
+    }
+
+    @Test
+    public void underColorAuto_fallsBackToConfiguredColor() {
+        ShadowParams params = frame.getShadowParams();
+        params.setUnderColor(Color.RED);
+        // 半透明背景 下层颜色不可知
+        root.setBackgroundColor(0x80FFFFFF);
+        params.setUnderColorAuto(true);
+        assertFalse(params.isUnderColorResolved());
+        assertEquals(Color.RED, params.underColor);
+        drawWindow();
+        root.setBackgroundColor(Color.WHITE);
+        ShadowLooper.idleMainLooper();
+        assertTrue(params.isUnderColorResolved());
+        assertEquals(Color.WHITE, params.underColor);
+        params.setUnderColorAuto(false);
+        assertEquals(Color.RED, params.underColor);
+        // 关闭后不再跟随
+        drawWindow();
+        root.setBackgroundColor(Color.BLUE);
+        ShadowLooper.idleMainLooper();
+        assertEquals(Color.RED, params.underColor);
+    }
+
+    @Test
+    public void blurChange_singleLayoutPass() {
+        title.getShadowParams().setShadowBlur(20);
+        ShadowLooper.idleMainLooper();
+        drawFrame();
+        assertLayoutPass(frame.measureCount, frame.layoutCount, "frame");
+        assertLayoutPass(linear.measureCount, linear.layoutCount, "linear");
+        assertLayoutPass(title.measureCount, title.layoutCount, "title");
+        assertFalse(root.isLayoutRequested());
+        assertEquals(1, title.getShadowParams().rebuildCount);
+        // 尺寸跟随变化的父布局最多各重建一次
+        assertTrue(frame.getShadowParams().rebuildCount <= 1);
+        assertTrue(linear.getShadowParams().rebuildCount <= 1);
+    }
+
+    @Test
+    public void steadyFrame_allocationBudget() {
+        // 预热
+        for (int i = 0; i < FRAMES; i++) {
+            drawFrame();
+        }
+        long start = allocatedBytes();
+        for (int i = 0; i < FRAMES; i++) {
+            drawFrame();
+        }
+        long perFrame = (allocatedBytes() - start) / FRAMES;
+        assertTrue("allocated " + perFrame + " bytes per frame", perFrame <= ALLOCATION_PER_FRAME);
+    }
+
+    /**
+     * 当前线程累计分配的字节数 JVM 不支持时跳过测试
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private void drawFrame() {
+        root.draw(canvas);
+    }
+
+    /**
+     * ViewRootImpl 在测试中不绘制 绘制整个窗口后 invalidate 才会向上传递并触发下一帧
+     */
+    private void drawWindow() {
+        View decor = root.getRootView();
+        decor.draw(new Canvas(Bitmap.createBitmap(decor.getWidth(), decor.getHeight(), Bitmap.Config.ARGB_8888)));
+    }
+
+    private void resetCounters() {
+        frame.measureCount = frame.layoutCount = 0;
+        linear.measureCount = linear.layoutCount = 0;
+        title.measureCount = title.layoutCount = 0;
+        content.measureCount = content.layoutCount = 0;
+        frame.getShadowParams().rebuildCount = 0;
+        linear.getShadowParams().rebuildCount = 0;
+        title.getShadowParams().rebuildCount = 0;
+        content.getShadowParams().rebuildCount = 0;
+    }
+
+    private int totalRebuildCount() {
+        return frame.getShadowParams().rebuildCount + linear.getShadowParams().rebuildCount
+                + title.getShadowParams().rebuildCount + content.getShadowParams().rebuildCount;
+    }
+
+    private static void assertLayoutPass(int measureCount, int layoutCount, String name) {
+        assertTrue(name + " measured " + measureCount + " times", measureCount <= MEASURE_PER_PASS);
+        assertTrue(name + " laid out " + layoutCount + " times", layoutCount <= LAYOUT_PER_PASS);
+    }
+
+    private static ViewGroup.MarginLayoutParams wrap() {
+        return new ViewGroup.MarginLayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+    }
+
+    private static final class CountingFrameLayout extends ShadowFrameLayout {
+        int measureCount;
+        int layoutCount;
+
+        CountingFrameLayout(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            measureCount++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+            layoutCount++;
+            super.onLayout(changed, left, top, right, bottom);
+        }
+    }
+
+    private static final class CountingLinearLayout extends ShadowLinearLayout {
+        int measureCount;
+        int layoutCount;
+
+        CountingLinearLayout(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            measureCount++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+            layoutCount++;
+            super.onLayout(changed, left, top, right, bottom);
+        }
+    }
+
+    private static final class CountingTextView extends ShadowTextView {
+        int measureCount;
+        int layoutCount;
+
+        CountingTextView(Context context) {
+            super(context);
+        }
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            measureCount++;
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+            layoutCount++;
+            super.onLayout(changed, left, top, right, bottom);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:42
+ * 说明：统计与耗时分布 不依赖 Android 运行环境
+ */
+public class ShadowMetricsTest {
+    @Test
+    public void histogram_percentileIsBucketUpperBound() {
+        ShadowMetrics.Stats stats = new ShadowMetrics.Stats();
+        for (int i = 0; i < 90; i++) {
+            stats.record(ShadowMetrics.OP_DRAW, 3_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            stats.record(ShadowMetrics.OP_DRAW, 100_000);
+        }
+        ShadowMetrics.Histogram histogram = stats.getHistogram(ShadowMetrics.OP_DRAW);
+        assertEquals(100, histogram.getCount());
+        assertEquals(12_700, histogram.getMeanNanos());
+        // 3us 在 [2, 4) 桶 100us 在 [64, 128) 桶
+        assertEquals(4_000, histogram.getPercentileNanos(50));
+        assertEquals(4_000, histogram.getPercentileNanos(90));
+        assertEquals(100_000, histogram.getPercentileNanos(99));
+        assertEquals(100_000, histogram.getMaxNanos());
+        assertEquals(0, stats.getCount(ShadowMetrics.OP_MEASURE));
+    }
+
+    @Test
+    public void counters_resetAndDump() {
+        ShadowMetrics.Stats stats = new ShadowMetrics.Stats();
+        ShadowMetrics.count(stats, ShadowMetrics.COUNTER_CACHE_HIT);
+        ShadowMetrics.count(stats, ShadowMetrics.COUNTER_CACHE_HIT);
+        ShadowMetrics.count(stats, ShadowMetrics.COUNTER_SAVE_LAYER);
+        assertEquals(2, stats.getCounter(ShadowMetrics.COUNTER_CACHE_HIT));
+        assertEquals(1, stats.getCounter(ShadowMetrics.COUNTER_SAVE_LAYER));
+        assertTrue(ShadowMetrics.global().getCounter(ShadowMetrics.COUNTER_CACHE_HIT) >= 2);
+        StringWriter out = new StringWriter();
+        stats.dump(new PrintWriter(out, true), "");
+        assertTrue(out.toString(), out.toString().contains("cacheHit=2"));
+        stats.reset();
+        assertEquals(0, stats.getCounter(ShadowMetrics.COUNTER_CACHE_HIT));
+    }
+
+    @Test
+    public void disabledByDefault() {
+        assertFalse(ShadowMetrics.isEnabled());
+    }
+
+    @Test
+    public void debugOverlay_restoresMetricsWhenDisabled() {
+        ShadowDebugOverlay.setEnabled(true);
+        assertTrue(ShadowMetrics.isEnabled());
+        ShadowDebugOverlay.setEnabled(false);
+        assertFalse(ShadowMetrics.isEnabled());
+        // 已单独开启的统计保持开启
+        ShadowMetrics.setEnabled(true);
+        try {
+            ShadowDebugOverlay.setEnabled(true);
+            ShadowDebugOverlay.setEnabled(false);
+            assertTrue(ShadowMetrics.isEnabled());
+        } finally {
+            ShadowMetrics.setEnabled(false);
+        }
+    }
+
+    @Test
+    public void debugOverlay_systemPropertyUnsetStaysDisabled() {
+        assertFalse(ShadowDebugOverlay.enableFromSystemProperty());
+        assertFalse(ShadowDebugOverlay.isEnabled());
+        assertFalse(ShadowMetrics.isEnabled());
+    }
+}
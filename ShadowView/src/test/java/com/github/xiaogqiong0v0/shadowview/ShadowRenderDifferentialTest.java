@@ -0,0 +1,195 @@
+package com.github.xiaogqiong0v0.shadowview;
+
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import com.github.xiaogqiong0v0.shadowview.core.RasterDiff;
+import com.github.xiaogqiong0v0.shadowview.core.ReferenceRasterizer;
+import com.github.xiaogqiong0v0.shadowview.core.ShadowGeometry;
+import com.github.xiaogqiong0v0.shadowview.core.ShadowSpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.*;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:40
+ * 说明：各渲染器在真实 Canvas 上的结果与 JVM 参考光栅化的差异比对
+ * Skia 的模糊为近似实现 软阴影的容差大于硬阴影
+ * 软阴影遮罩覆盖各模糊方式 以及大模糊半径缩小生成的遮罩 硬阴影遮罩覆盖只改颜色的重绘
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 29)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ShadowRenderDifferentialTest {
+    private static final int WIDTH = 160;
+    private static final int HEIGHT = 120;
+    private static final int SOFT_TOLERANCE = 24;
+    private static final float SOFT_MISMATCH_RATIO = 0.03f;
+    private static final int HARD_TOLERANCE = 8;
+    private static final float HARD_MISMATCH_RATIO = 0.01f;
+    private static final int BLUR = 10;
+    // 缩小 4 倍生成遮罩的模糊半径
+    private static final int LARGE_BLUR = 24;
+
+    private ShadowView view;
+    private ShadowParams params;
+    private final ReferenceRasterizer reference = new ReferenceRasterizer();
+
+    @Before
+    public void setUp() {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        FrameLayout root = new FrameLayout(activity);
+        view = new ShadowView(activity);
+        params = view.getShadowParams();
+        params.setAutoAddWidthHeight(false);
+        root.addView(view, new ViewGroup.LayoutParams(WIDTH, HEIGHT));
+        // 代码创建的 View 添加后才有布局参数 内外阴影切换时按此恢复宽高
+        params.loadWidthHeightChanged();
+        activity.setContentView(root);
+        ShadowLooper.idleMainLooper();
+    }
+
+    @After
+    public void tearDown() {
+        ShadowRenderers.setBlurEngine(ShadowRenderers.BLUR_ENGINE_ANALYTIC);
+    }
+
+    @Test
+    public void pathRenderer_matchesReference() {
+        assertRenderers(ShadowRenderers.RENDERER_PATH, false, BLUR, true);
+    }
+
+    @Test
+    public void bitmapRenderer_matchesReference() {
+        assertRenderers(ShadowRenderers.RENDERER_BITMAP, false, BLUR, true);
+    }
+
+    @Test
+    public void stretchedBitmapRenderer_matchesReference() {
+        assertRenderers(ShadowRenderers.RENDERER_BITMAP, true, BLUR, true);
+    }
+
+    @Test
+    public void bitmapRenderer_blurEngines_matchReference() {
+        int[] engines = {ShadowRenderers.BLUR_ENGINE_PLATFORM, ShadowRenderers.BLUR_ENGINE_BOX,
+                ShadowRenderers.BLUR_ENGINE_STACK};
+        for (int engine : engines) {
+            ShadowRenderers.setBlurEngine(engine);
+            assertRenderers(ShadowRenderers.RENDERER_BITMAP, false, BLUR, false);
+        }
+    }
+
+    @Test
+    public void bitmapRenderer_downsampledMask_matchesReference() {
+        int[] engines = {ShadowRenderers.BLUR_ENGINE_ANALYTIC, ShadowRenderers.BLUR_ENGINE_BOX};
+        for (int engine : engines) {
+            ShadowRenderers.setBlurEngine(engine);
+            assertRenderers(ShadowRenderers.RENDERER_BITMAP, false, LARGE_BLUR, false);
+        }
+    }
+
+    @Test
+    public void bitmapRenderer_hardColorChange_matchesReference() {
+        ShadowSpec spec = spec(false, ShadowSpec.TYPE_HARD, new int[]{0, 16, 6, 24}, BLUR);
+        render(spec, ShadowRenderers.RENDERER_BITMAP, false);
+        // 只改颜色时重绘本 View 的遮罩 不经过缓存
+        spec.shadowColor = 0xCC3F51B5;
+        assertMatches(spec, render(spec, ShadowRenderers.RENDERER_BITMAP, false), ShadowRenderers.RENDERER_BITMAP);
+        spec.shadowColor = 0x66E91E63;
+        assertMatches(spec, render(spec, ShadowRenderers.RENDERER_BITMAP, false), ShadowRenderers.RENDERER_BITMAP);
+    }
+
+    /**
+     * @param hard 是否包括硬阴影 只换软阴影遮罩生成方式的配置不需要
+     */
+    private void assertRenderers(int rendererType, boolean stretch, int blur, boolean hard) {
+        int[][] radii = {{0, 0, 0, 0}, {12, 12, 12, 12}, {0, 16, 6, 24}};
+        int lastType = hard ? ShadowSpec.TYPE_HARD : ShadowSpec.TYPE_SOFT;
+        for (int inset = 0; inset < 2; inset++) {
+            for (int type = ShadowSpec.TYPE_SOFT; type <= lastType; type++) {
+                for (int[] radius : radii) {
+                    if (inset == 1 && type == ShadowSpec.TYPE_HARD && radius[1] == 16) {
+                        // 内阴影圆角小于模糊半径时 分块与参考实现的定义不同
+                        continue;
+                    }
+                    ShadowSpec spec = spec(inset == 1, type, radius, blur);
+                    assertMatches(spec, render(spec, rendererType, stretch), rendererType);
+                }
+            }
+        }
+    }
+
+    private ShadowSpec spec(boolean inset, int type, int[] radius, int blur) {
+        ShadowSpec spec = new ShadowSpec(WIDTH, HEIGHT);
+        spec.shadowInset = inset;
+        spec.shadowType = type;
+        spec.shadowColor = 0x99000000;
+        spec.shadowBlur = blur;
+        spec.shadowSpread = 2;
+        spec.shadowDx = 2;
+        spec.shadowDy = 4;
+        spec.shadowClip = ShadowGeometry.CLIP_NONE;
+        spec.setRadius(radius[0], radius[1], radius[2], radius[3]);
+        spec.borderThickness = 2;
+        spec.borderColor = 0xFF3F51B5;
+        // Skia 按折线近似量取圆弧长度 每个圆角短约 0.1px 虚线相位逐段偏移 参考实现使用精确弧长 只在直角时比对虚线
+        boolean square = radius[0] == 0 && radius[1] == 0 && radius[2] == 0 && radius[3] == 0;
+        spec.borderType = square ? ShadowSpec.BORDER_DASHED : ShadowSpec.BORDER_SOLID;
+        spec.density = view.getResources().getDisplayMetrics().density;
+        return spec;
+    }
+
+    private void assertMatches(ShadowSpec spec, int[] actual, int rendererType) {
+        boolean hard = spec.shadowType == ShadowSpec.TYPE_HARD;
+        RasterDiff.Result result = RasterDiff.compare(reference.rasterize(spec), actual, WIDTH, HEIGHT,
+                hard ? HARD_TOLERANCE : SOFT_TOLERANCE);
+        assertTrue(rendererType + " engine " + ShadowRenderers.getBlurEngine() + " " + spec + " " + result,
+                result.within(hard ? HARD_MISMATCH_RATIO : SOFT_MISMATCH_RATIO));
+    }
+
+    private int[] render(ShadowSpec spec, int rendererType, boolean stretch) {
+        params.beginUpdate();
+        params.setRendererType(rendererType);
+        params.setShadowStretch(stretch);
+        params.setShadowInset(spec.shadowInset);
+        params.setShadowType(spec.shadowType == ShadowSpec.TYPE_HARD
+                ? ShadowParams.SHADOW_TYPE_HARD : ShadowParams.SHADOW_TYPE_SOFT);
+        params.setShadowColor(spec.shadowColor);
+        params.setShadowBlur(spec.shadowBlur);
+        params.setShadowSpread(spec.shadowSpread);
+        params.setShadowDx(spec.shadowDx);
+        params.setShadowDy(spec.shadowDy);
+        params.setShadowClip(spec.shadowClip);
+        params.setBoxRadius((int) spec.radiusLeftTop, (int) spec.radiusRightTop,
+                (int) spec.radiusRightBottom, (int) spec.radiusLeftBottom);
+        params.setBoxBorderThickness(spec.borderThickness);
+        params.setBoxBorderColor(spec.borderColor);
+        params.setBoxBorderType(spec.borderType == ShadowSpec.BORDER_DASHED
+                ? ShadowParams.BORDER_TYPE_DASHED : ShadowParams.BORDER_TYPE_SOLID);
+        params.commit();
+        ShadowLooper.idleMainLooper();
+        assertEquals(WIDTH, view.getWidth());
+        assertEquals(HEIGHT, view.getHeight());
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        params.draw(new Canvas(bitmap), canvas -> {
+        });
+        int[] pixels = new int[WIDTH * HEIGHT];
+        bitmap.getPixels(pixels, 0, WIDTH, 0, 0, WIDTH, HEIGHT);
+        return pixels;
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 10:03
+ * 说明：解析软阴影的基准测试 与 MaskBlurBenchmark 的尺寸和模糊半径相同 输出包含模糊的边距
+ * 耗时应只与像素数和圆角带的高度有关 与模糊半径无关 缓冲复用 gc.alloc.rate.norm 应为 0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class AnalyticShadowBenchmark {
+    @Param({"360x120", "1080x1920"})
+    public String size;
+    @Param({"8", "24", "64"})
+    public int blur;
+    /**
+     * none 无圆角 uniform 四角相同 mixed 四角不同
+     */
+    @Param({"none", "uniform", "mixed"})
+    public String radius;
+
+    private int width;
+    private int height;
+    private byte[] mask;
+    private AnalyticShadow analytic;
+
+    @Setup
+    public void setup() {
+        int index = size.indexOf('x');
+        float sigma = MaskBlur.sigma(blur);
+        int margin = MaskBlur.extent(sigma);
+        int shapeWidth = Integer.parseInt(size.substring(0, index));
+        int shapeHeight = Integer.parseInt(size.substring(index + 1));
+        width = shapeWidth + margin * 2;
+        height = shapeHeight + margin * 2;
+        mask = new byte[width * height];
+        float lt = 0, rt = 0, rb = 0, lb = 0;
+        if ("uniform".equals(radius)) {
+            lt = rt = rb = lb = 16;
+        } else if ("mixed".equals(radius)) {
+            lt = 8;
+            rt = 24;
+            rb = 0;
+            lb = 40;
+        }
+        analytic = new AnalyticShadow()
+                .setRect(margin + blur, margin + blur, margin + shapeWidth - blur, margin + shapeHeight - blur, lt, rt, rb, lb)
+                .setSigma(sigma);
+        render();
+    }
+
+    @Benchmark
+    public byte[] render() {
+        analytic.render(mask, 0, width, width, height);
+        return mask;
+    }
+}
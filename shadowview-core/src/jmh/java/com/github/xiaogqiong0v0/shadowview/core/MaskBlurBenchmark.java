@@ -0,0 +1,64 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:56
+ * 说明：遮罩模糊的基准测试 每次从模板复制形状后原地模糊
+ * 两种模式的耗时应只与像素数有关 与模糊半径无关 缓冲复用 gc.alloc.rate.norm 应为 0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class MaskBlurBenchmark {
+    @Param({"360x120", "1080x1920"})
+    public String size;
+    @Param({"8", "24", "64"})
+    public int blur;
+    @Param({"box3", "stack"})
+    public String mode;
+
+    private int width;
+    private int height;
+    private float sigma;
+    private byte[] template;
+    private byte[] mask;
+    private MaskBlur maskBlur;
+
+    @Setup
+    public void setup() {
+        int index = size.indexOf('x');
+        sigma = MaskBlur.sigma(blur);
+        int margin = MaskBlur.extent(sigma);
+        width = Integer.parseInt(size.substring(0, index)) + margin * 2;
+        height = Integer.parseInt(size.substring(index + 1)) + margin * 2;
+        template = new byte[width * height];
+        for (int y = margin + blur; y < height - margin - blur; y++) {
+            for (int x = margin + blur; x < width - margin - blur; x++) {
+                template[y * width + x] = (byte) 0xFF;
+            }
+        }
+        mask = new byte[template.length];
+        maskBlur = new MaskBlur("stack".equals(mode) ? MaskBlur.MODE_STACK : MaskBlur.MODE_BOX3);
+        blur();
+    }
+
+    @Benchmark
+    public byte[] blur() {
+        System.arraycopy(template, 0, mask, 0, template.length);
+        maskBlur.blur(mask, 0, width, width, height, sigma);
+        return mask;
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 10:10
+ * 说明：全屏遮罩分带并行的基准测试 threads 为 1 时即单线程 耗时应随核数近似线性下降
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ParallelMaskBenchmark {
+    @Param({"1080x1920"})
+    public String size;
+    @Param({"24"})
+    public int blur;
+    @Param({"analytic", "box3", "stack"})
+    public String engine;
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    private int width;
+    private int height;
+    private float sigma;
+    private byte[] template;
+    private byte[] mask;
+    private AnalyticShadow analytic;
+    private ParallelMask parallel;
+
+    @Setup
+    public void setup() {
+        int index = size.indexOf('x');
+        sigma = MaskBlur.sigma(blur);
+        int margin = MaskBlur.extent(sigma);
+        int shapeWidth = Integer.parseInt(size.substring(0, index));
+        int shapeHeight = Integer.parseInt(size.substring(index + 1));
+        width = shapeWidth + margin * 2;
+        height = shapeHeight + margin * 2;
+        template = new byte[width * height];
+        for (int y = margin + blur; y < height - margin - blur; y++) {
+            for (int x = margin + blur; x < width - margin - blur; x++) {
+                template[y * width + x] = (byte) 0xFF;
+            }
+        }
+        mask = new byte[template.length];
+        analytic = new AnalyticShadow()
+                .setRect(margin + blur, margin + blur, margin + shapeWidth - blur, margin + shapeHeight - blur, 16, 16, 16, 16)
+                .setSigma(sigma);
+        parallel = new ParallelMask(threads);
+        generate();
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallel.shutdown();
+    }
+
+    @Benchmark
+    public byte[] generate() {
+        if ("analytic".equals(engine)) {
+            parallel.render(analytic, mask, 0, width, width, height);
+        } else {
+            System.arraycopy(template, 0, mask, 0, template.length);
+            parallel.blur("stack".equals(engine) ? MaskBlur.MODE_STACK : MaskBlur.MODE_BOX3,
+                    mask, 0, width, width, height, sigma);
+        }
+        return mask;
+    }
+}
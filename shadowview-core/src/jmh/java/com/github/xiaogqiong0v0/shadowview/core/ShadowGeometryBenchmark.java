@@ -0,0 +1,149 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:26
+ * 说明：阴影几何的基准测试 对应 ShadowParams 重建时的计算
+ * 尺寸 模糊半径 张度 圆角配置组合 结果对象全部复用 gc.alloc.rate.norm 应为 0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ShadowGeometryBenchmark {
+    private static final int SHADOW_DX = 0;
+    private static final int SHADOW_DY = 4;
+
+    @Param({"48x48", "360x120", "1080x1920"})
+    public String size;
+    @Param({"0", "8", "24"})
+    public int blur;
+    @Param({"0", "6"})
+    public int spread;
+    /**
+     * none 无圆角 uniform 四角相同 mixed 四角不同 pill 高度的 50%
+     */
+    @Param({"none", "uniform", "mixed", "pill"})
+    public String radius;
+
+    private int width;
+    private int height;
+    private int radiusLeftTop;
+    private int radiusRightTop;
+    private int radiusRightBottom;
+    private int radiusLeftBottom;
+    private boolean radiusPercent;
+
+    private final Insets insets = new Insets();
+    private final Bounds area = new Bounds();
+    private final CornerAngles angles = new CornerAngles();
+    private final SplitGeometry split = new SplitGeometry();
+
+    @Setup
+    public void setup() {
+        int index = size.indexOf('x');
+        width = Integer.parseInt(size.substring(0, index));
+        height = Integer.parseInt(size.substring(index + 1));
+        switch (radius) {
+            case "uniform":
+                setRadius(16, 16, 16, 16, false);
+                break;
+            case "mixed":
+                setRadius(0, 24, 8, 40, false);
+                break;
+            case "pill":
+                setRadius(50, 50, 50, 50, true);
+                break;
+            default:
+                setRadius(0, 0, 0, 0, false);
+                break;
+        }
+        // 百分比圆角依赖有效宽高
+        paddingInsets();
+    }
+
+    private void setRadius(int leftTop, int rightTop, int rightBottom, int leftBottom, boolean percent) {
+        radiusLeftTop = leftTop;
+        radiusRightTop = rightTop;
+        radiusRightBottom = rightBottom;
+        radiusLeftBottom = leftBottom;
+        radiusPercent = percent;
+    }
+
+    @Benchmark
+    public Insets paddingInsets() {
+        return ShadowGeometry.paddingInsets(insets, spread, blur, SHADOW_DX, SHADOW_DY, ShadowGeometry.CLIP_NONE);
+    }
+
+    @Benchmark
+    public Bounds innerArea() {
+        ShadowGeometry.innerArea(area, width, height, spread, blur, SHADOW_DX, SHADOW_DY, ShadowGeometry.CLIP_NONE);
+        return area;
+    }
+
+    @Benchmark
+    public CornerAngles cornerAngles() {
+        angles.compute(0, 0, width, height,
+                resolve(radiusLeftTop), resolve(radiusRightTop),
+                resolve(radiusRightBottom), resolve(radiusLeftBottom));
+        return angles;
+    }
+
+    /**
+     * 外阴影硬阴影分块
+     */
+    @Benchmark
+    public SplitGeometry outerSplit() {
+        if (ShadowGeometry.innerArea(area, width, height, spread, blur, SHADOW_DX, SHADOW_DY, ShadowGeometry.CLIP_NONE)) {
+            area.outset(spread);
+            area.offset(SHADOW_DX, SHADOW_DY);
+        }
+        split.compute(area.left, area.top, area.right, area.bottom, blur,
+                resolve(radiusLeftTop), resolve(radiusRightTop),
+                resolve(radiusRightBottom), resolve(radiusLeftBottom));
+        return split;
+    }
+
+    /**
+     * 内阴影硬阴影分块
+     */
+    @Benchmark
+    public SplitGeometry insetSplit() {
+        area.set(spread, spread, width - spread, height - spread);
+        area.offset(SHADOW_DX, SHADOW_DY);
+        split.compute(area.left, area.top, area.right, area.bottom, -blur,
+                resolve(radiusLeftTop), resolve(radiusRightTop),
+                resolve(radiusRightBottom), resolve(radiusLeftBottom));
+        return split;
+    }
+
+    /**
+     * 一次完整的几何重建 边距 内部区域 圆角 分块
+     */
+    @Benchmark
+    public SplitGeometry rebuild() {
+        ShadowGeometry.paddingInsets(insets, spread, blur, SHADOW_DX, SHADOW_DY, ShadowGeometry.CLIP_NONE);
+        angles.compute(insets.left, insets.top, width - insets.right, height - insets.bottom,
+                resolve(radiusLeftTop), resolve(radiusRightTop),
+                resolve(radiusRightBottom), resolve(radiusLeftBottom));
+        return outerSplit();
+    }
+
+    private float resolve(int value) {
+        int validW = width - insets.left - insets.right;
+        int validH = height - insets.top - insets.bottom;
+        return ShadowGeometry.resolveRadius(value, radiusPercent, false, validW, validH);
+    }
+}
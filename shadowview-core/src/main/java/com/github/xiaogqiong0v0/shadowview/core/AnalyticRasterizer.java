@@ -0,0 +1,29 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 10:03
+ * 说明：软阴影使用 {@link AnalyticShadow} 直接计算 其余部分沿用参考实现
+ * 大模糊半径时比参考实现的卷积快得多 可作为大尺寸比对的基准
+ */
+public class AnalyticRasterizer extends ReferenceRasterizer {
+    private final AnalyticShadow analytic = new AnalyticShadow();
+
+    @Override
+    protected boolean softShadowMask(ShadowSpec spec, Bounds shape, Bounds frame, float sigma,
+                                     float radiusLeftTop, float radiusRightTop,
+                                     float radiusRightBottom, float radiusLeftBottom, float[] out) {
+        analytic.setRect(shape.left, shape.top, shape.right, shape.bottom,
+                radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom);
+        if (frame != null) {
+            analytic.setFrame(frame.left, frame.top, frame.right, frame.bottom);
+        } else {
+            analytic.clearFrame();
+        }
+        analytic.setSigma(sigma);
+        analytic.render(out, spec.width, spec.height);
+        return true;
+    }
+}
@@ -0,0 +1,406 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+import java.util.Arrays;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 10:03
+ * 说明：圆角矩形高斯模糊的解析计算 不做卷积 每个像素的开销与模糊半径无关
+ * 像素值为模糊结果在像素面积内的平均 与先求覆盖率再模糊相同 模糊为 0 时即为精确的覆盖率
+ * 单位宽度内正态分布函数的平均有闭式 psi(z) = z Phi(z) + phi(z) 的差
+ * 矩形的模糊可分离 等于横竖两个方向上述平均之差的乘积
+ * 圆角只影响上下两条高度为圆角半径的带 带内每一行的横向结果仍有闭式
+ * 只需对这一行沿竖直方向加权积分 积分限定在 4 sigma 内 分段做 4 点高斯-勒让德求积
+ * 圆弧在端点处斜率无穷大 带内以 t = 边 ± s^2 换元后被积函数光滑
+ * 形状为 ShadowSpec 的圆角矩形 圆角超过较短边的一半时截断为一半 与 ReferenceRasterizer 相同
+ * 设置 frame 时为内阴影 结果为 frame 的模糊减去圆角矩形的模糊
+ * 内部缓冲按需增长后复用 同一实例不能在多个线程同时使用 多线程时见 {@link ParallelMask}
+ */
+public final class AnalyticShadow {
+    // 正态分布函数在 ±RANGE 之外视为 0 或 1
+    private static final float RANGE = 4f;
+    private static final int TABLE_SCALE = 512;
+    private static final float[] CDF;
+    private static final float[] PSI;
+    // 4 点高斯-勒让德求积 [-1, 1]
+    private static final float[] NODES = {-0.86113631f, -0.33998104f, 0.33998104f, 0.86113631f};
+    private static final float[] WEIGHTS = {0.34785485f, 0.65214515f, 0.65214515f, 0.34785485f};
+    // 每段积分最长 PIECE sigma 且不短于半个像素
+    private static final float PIECE = 2f;
+    private static final float MIN_PIECE = 0.5f;
+    private static final float MIN_SIGMA = 1e-3f;
+
+    static {
+        int size = (int) (RANGE * 2 * TABLE_SCALE) + 2;
+        CDF = new float[size];
+        PSI = new float[size];
+        for (int i = 0; i < size; i++) {
+            double z = (double) i / TABLE_SCALE - RANGE;
+            double cdf = 0.5 * (1 + erf(z / Math.sqrt(2)));
+            CDF[i] = (float) cdf;
+            PSI[i] = (float) (z * cdf + Math.exp(-z * z / 2) / Math.sqrt(2 * Math.PI));
+        }
+    }
+
+    private float left, top, right, bottom;
+    private float radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom;
+    private boolean frame;
+    private float frameLeft, frameTop, frameRight, frameBottom;
+    private float sigma;
+    private float inverseSigma;
+    private float[] columns = new float[0];
+    private float[] frameColumns = new float[0];
+    private float[] row = new float[0];
+    // 一段积分的求积节点
+    private float[] nodeWeights = new float[32];
+    private float[] nodeLefts = new float[32];
+    private float[] nodeRights = new float[32];
+    private final float[] breaks = new float[4];
+
+    /**
+     * 阴影形状 坐标为输出像素坐标 像素 (x, y) 的中心为 (x + 0.5, y + 0.5)
+     */
+    public AnalyticShadow setRect(float left, float top, float right, float bottom,
+                                  float radiusLeftTop, float radiusRightTop,
+                                  float radiusRightBottom, float radiusLeftBottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        float max = Math.max(0, Math.min(right - left, bottom - top) / 2f);
+        this.radiusLeftTop = clamp(radiusLeftTop, max);
+        this.radiusRightTop = clamp(radiusRightTop, max);
+        this.radiusRightBottom = clamp(radiusRightBottom, max);
+        this.radiusLeftBottom = clamp(radiusLeftBottom, max);
+        return this;
+    }
+
+    /**
+     * 内阴影的外框 阴影为外框减去圆角矩形
+     */
+    public AnalyticShadow setFrame(float left, float top, float right, float bottom) {
+        frame = true;
+        frameLeft = left;
+        frameTop = top;
+        frameRight = right;
+        frameBottom = bottom;
+        return this;
+    }
+
+    public AnalyticShadow clearFrame() {
+        frame = false;
+        return this;
+    }
+
+    /**
+     * 复制形状与 sigma 不复制缓冲
+     */
+    public AnalyticShadow set(AnalyticShadow src) {
+        left = src.left;
+        top = src.top;
+        right = src.right;
+        bottom = src.bottom;
+        radiusLeftTop = src.radiusLeftTop;
+        radiusRightTop = src.radiusRightTop;
+        radiusRightBottom = src.radiusRightBottom;
+        radiusLeftBottom = src.radiusLeftBottom;
+        frame = src.frame;
+        frameLeft = src.frameLeft;
+        frameTop = src.frameTop;
+        frameRight = src.frameRight;
+        frameBottom = src.frameBottom;
+        sigma = src.sigma;
+        inverseSigma = src.inverseSigma;
+        return this;
+    }
+
+    /**
+     * 与 {@link MaskBlur#sigma(float)} 相同的 sigma 可以为 0
+     */
+    public AnalyticShadow setSigma(float sigma) {
+        this.sigma = Math.max(sigma, MIN_SIGMA);
+        inverseSigma = 1 / this.sigma;
+        return this;
+    }
+
+    /**
+     * 圆角不超过较短边的一半 与 Android 路径的形状相同 超过时 Android 按 CornerAngles 截断圆弧 应使用卷积
+     */
+    public static boolean isExact(float width, float height, float radiusLeftTop, float radiusRightTop,
+                                  float radiusRightBottom, float radiusLeftBottom) {
+        float max = Math.min(width, height) / 2f;
+        return radiusLeftTop <= max && radiusRightTop <= max && radiusRightBottom <= max && radiusLeftBottom <= max;
+    }
+
+    /**
+     * 渲染为 8 位 alpha
+     *
+     * @param mask   每个字节为一个像素的 alpha 无符号
+     * @param offset 第一个像素的下标
+     * @param stride 每行的字节数 不小于 width
+     */
+    public void render(byte[] mask, int offset, int stride, int width, int height) {
+        render(mask, offset, stride, width, height, 0, height);
+    }
+
+    /**
+     * 只渲染 [fromRow, toRow) 的行 各行互不依赖 不同的行可以由不同的实例在多个线程同时渲染
+     */
+    public void render(byte[] mask, int offset, int stride, int width, int height, int fromRow, int toRow) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (stride < width || offset < 0 || offset + (long) stride * (height - 1) + width > mask.length) {
+            throw new IllegalArgumentException("mask too small");
+        }
+        prepareColumns(width);
+        float[] values = row;
+        for (int y = Math.max(fromRow, 0); y < Math.min(toRow, height); y++) {
+            renderRow(y + 0.5f, values, width);
+            int index = offset + y * stride;
+            for (int x = 0; x < width; x++) {
+                mask[index + x] = (byte) (values[x] * 255 + 0.5f);
+            }
+        }
+    }
+
+    /**
+     * 渲染为 0 到 1 的浮点值 按行存储
+     */
+    public void render(float[] out, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (out.length < width * height) {
+            throw new IllegalArgumentException("out.length < width * height");
+        }
+        prepareColumns(width);
+        float[] values = row;
+        for (int y = 0; y < height; y++) {
+            renderRow(y + 0.5f, values, width);
+            System.arraycopy(values, 0, out, y * width, width);
+        }
+    }
+
+    /**
+     * 横向的模糊只与列有关 每次渲染计算一次
+     */
+    private void prepareColumns(int width) {
+        if (columns.length < width) {
+            columns = new float[width];
+            frameColumns = new float[width];
+            row = new float[width];
+        }
+        for (int x = 0; x < width; x++) {
+            float cx = x + 0.5f;
+            columns[x] = average(right, cx) - average(left, cx);
+            if (frame) {
+                frameColumns[x] = average(frameRight, cx) - average(frameLeft, cx);
+            }
+        }
+    }
+
+    private void renderRow(float cy, float[] out, int width) {
+        float topBand = Math.max(radiusLeftTop, radiusRightTop);
+        float bottomBand = Math.max(radiusLeftBottom, radiusRightBottom);
+        // 中间部分可分离
+        float middle = average(bottom - bottomBand, cy) - average(top + topBand, cy);
+        float[] columns = this.columns;
+        for (int x = 0; x < width; x++) {
+            out[x] = columns[x] * middle;
+        }
+        float low = cy - 0.5f - RANGE * sigma;
+        float high = cy + 0.5f + RANGE * sigma;
+        if (topBand > 0 && low < top + topBand && high > top) {
+            float split = top + Math.min(radiusLeftTop, radiusRightTop);
+            addBand(out, width, cy, true, top, split, low, high);
+            addBand(out, width, cy, true, split, top + topBand, low, high);
+        }
+        if (bottomBand > 0 && low < bottom && high > bottom - bottomBand) {
+            float split = bottom - Math.min(radiusLeftBottom, radiusRightBottom);
+            addBand(out, width, cy, false, bottom - bottomBand, split, low, high);
+            addBand(out, width, cy, false, split, bottom, low, high);
+        }
+        if (frame) {
+            float frameRow = average(frameBottom, cy) - average(frameTop, cy);
+            float[] frameColumns = this.frameColumns;
+            for (int x = 0; x < width; x++) {
+                out[x] = frameColumns[x] * frameRow - out[x];
+            }
+        }
+        for (int x = 0; x < width; x++) {
+            float value = out[x];
+            out[x] = value < 0 ? 0 : value > 1 ? 1 : value;
+        }
+    }
+
+    /**
+     * 带内 [from, to) 一段的贡献 这一段内左右边缘各自为一段圆弧或直线
+     * 竖直方向的权重为像素高度内高斯核的平均 在 cy ± 0.5 处不光滑 在这两处断开
+     * 上带 t = top + s^2 下带 t = bottom - s^2 dt = 2s ds
+     */
+    private void addBand(float[] out, int width, float cy, boolean topSide,
+                         float from, float to, float low, float high) {
+        float a = Math.max(from, low);
+        float b = Math.min(to, high);
+        if (b <= a) {
+            return;
+        }
+        float inv = inverseSigma;
+        float edge = topSide ? top : bottom;
+        float leftRadius = topSide ? radiusLeftTop : radiusLeftBottom;
+        float rightRadius = topSide ? radiusRightTop : radiusRightBottom;
+        float pieceLength = Math.max(PIECE * sigma, MIN_PIECE);
+        float[] breaks = this.breaks;
+        int breakCount = 0;
+        breaks[breakCount++] = a;
+        if (cy - 0.5f > a && cy - 0.5f < b) {
+            breaks[breakCount++] = cy - 0.5f;
+        }
+        if (cy + 0.5f > a && cy + 0.5f < b) {
+            breaks[breakCount++] = cy + 0.5f;
+        }
+        breaks[breakCount++] = b;
+        int count = 0;
+        for (int i = 1; i < breakCount; i++) {
+            float start = breaks[i - 1];
+            float length = breaks[i] - start;
+            int pieces = Math.max(1, (int) Math.ceil(length / pieceLength));
+            ensureNodes(count + pieces * NODES.length);
+            for (int p = 0; p < pieces; p++) {
+                float s0 = (float) Math.sqrt(Math.abs(start + length * p / pieces - edge));
+                float s1 = (float) Math.sqrt(Math.abs(start + length * (p + 1) / pieces - edge));
+                float mid = (s0 + s1) / 2;
+                float half = Math.abs(s1 - s0) / 2;
+                for (int k = 0; k < NODES.length; k++) {
+                    float s = mid + half * NODES[k];
+                    float t = topSide ? edge + s * s : edge - s * s;
+                    // 换元的 2s 与竖直方向的权重
+                    float weight = cdf((cy + 0.5f - t) * inv) - cdf((cy - 0.5f - t) * inv);
+                    nodeWeights[count] = half * WEIGHTS[k] * 2 * s * weight;
+                    nodeLefts[count] = left + arcInset(leftRadius, s);
+                    nodeRights[count] = right - arcInset(rightRadius, s);
+                    count++;
+                }
+            }
+        }
+        // 左右边缘在这一段内单调 端点即为范围
+        float sa = (float) Math.sqrt(Math.abs(a - edge));
+        float sb = (float) Math.sqrt(Math.abs(b - edge));
+        float leftA = left + arcInset(leftRadius, sa);
+        float leftB = left + arcInset(leftRadius, sb);
+        float rightA = right - arcInset(rightRadius, sa);
+        float rightB = right - arcInset(rightRadius, sb);
+        float leftMin = Math.min(leftA, leftB);
+        float leftMax = Math.max(leftA, leftB);
+        float rightMin = Math.min(rightA, rightB);
+        float rightMax = Math.max(rightA, rightB);
+        float reach = 0.5f + RANGE * sigma;
+        // 完全在内部时这一行的横向结果为 1 积分即为竖直方向的闭式
+        float inside = average(b, cy) - average(a, cy);
+        float[] weights = nodeWeights;
+        float[] lefts = nodeLefts;
+        float[] rights = nodeRights;
+        for (int x = 0; x < width; x++) {
+            float cx = x + 0.5f;
+            if (cx + reach <= leftMin || cx - reach >= rightMax) {
+                continue;
+            }
+            if (cx - reach >= leftMax && cx + reach <= rightMin) {
+                out[x] += inside;
+                continue;
+            }
+            // 离某一侧边缘超过 reach 时这一侧的结果为 0 或 1
+            boolean nearLeft = cx - reach < leftMax;
+            boolean nearRight = cx + reach > rightMin;
+            float sum = 0;
+            for (int i = 0; i < count; i++) {
+                float value = nearRight ? average(rights[i], cx) : 1;
+                if (nearLeft) {
+                    value -= average(lefts[i], cx);
+                }
+                sum += weights[i] * value;
+            }
+            out[x] += sum;
+        }
+    }
+
+    private void ensureNodes(int count) {
+        if (nodeWeights.length < count) {
+            int size = Math.max(count, nodeWeights.length * 2);
+            nodeWeights = Arrays.copyOf(nodeWeights, size);
+            nodeLefts = Arrays.copyOf(nodeLefts, size);
+            nodeRights = Arrays.copyOf(nodeRights, size);
+        }
+    }
+
+    /**
+     * 以 center 为中心的单位长度内 模糊后的半平面 (-inf, edge) 的平均覆盖率
+     * sigma (psi((edge - center + 0.5) / sigma) - psi((edge - center - 0.5) / sigma))
+     */
+    private float average(float edge, float center) {
+        float distance = edge - center;
+        return sigma * (psi((distance + 0.5f) * inverseSigma) - psi((distance - 0.5f) * inverseSigma));
+    }
+
+    /**
+     * 距边 s^2 处圆弧相对直边的缩进 r - sqrt(r^2 - (r - s^2)^2) = r - s * sqrt(2r - s^2)
+     */
+    private static float arcInset(float radius, float s) {
+        float squared = s * s;
+        if (squared >= radius) {
+            return 0;
+        }
+        return radius - s * (float) Math.sqrt(2 * radius - squared);
+    }
+
+    private static float clamp(float radius, float max) {
+        return Math.max(0, Math.min(radius, max));
+    }
+
+    /**
+     * 标准正态分布函数 查表线性插值
+     */
+    static float cdf(float z) {
+        if (z <= -RANGE) {
+            return 0;
+        }
+        if (z >= RANGE) {
+            return 1;
+        }
+        float position = (z + RANGE) * TABLE_SCALE;
+        int index = (int) position;
+        float fraction = position - index;
+        return CDF[index] + (CDF[index + 1] - CDF[index]) * fraction;
+    }
+
+    /**
+     * 正态分布函数的积分 z Phi(z) + phi(z) 查表线性插值
+     */
+    static float psi(float z) {
+        if (z <= -RANGE) {
+            return 0;
+        }
+        if (z >= RANGE) {
+            return z;
+        }
+        float position = (z + RANGE) * TABLE_SCALE;
+        int index = (int) position;
+        float fraction = position - index;
+        return PSI[index] + (PSI[index + 1] - PSI[index]) * fraction;
+    }
+
+    /**
+     * Abramowitz-Stegun 7.1.26 误差小于 1.5e-7
+     */
+    private static double erf(double x) {
+        double sign = x < 0 ? -1 : 1;
+        x = Math.abs(x);
+        double t = 1 / (1 + 0.3275911 * x);
+        double y = 1 - (((((1.061405429 * t - 1.453152027) * t) + 1.421413741) * t - 0.284496736) * t + 0.254829592)
+                * t * Math.exp(-x * x);
+        return sign * y;
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:56
+ * 说明：软阴影使用 {@link MaskBlur} 模糊 覆盖率量化为 8 位后模糊 与 Android 上的遮罩相同
+ * 其余部分沿用参考实现 用于和 ReferenceRasterizer 做差异比对
+ */
+public class BlurRasterizer extends ReferenceRasterizer {
+    private final MaskBlur maskBlur;
+    private byte[] bytes = new byte[0];
+
+    public BlurRasterizer(int mode) {
+        maskBlur = new MaskBlur(mode);
+    }
+
+    @Override
+    protected void blurCoverage(float[] mask, int w, int h, float sigma) {
+        int size = w * h;
+        if (bytes.length < size) {
+            bytes = new byte[size];
+        }
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) Math.round(mask[i] * 255);
+        }
+        maskBlur.blur(bytes, 0, w, w, h, sigma);
+        for (int i = 0; i < size; i++) {
+            mask[i] = (bytes[i] & 0xFF) / 255f;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:26
+ * 说明：浮点矩形 与 android.graphics.RectF 含义相同 可重复填充
+ */
+public final class Bounds {
+    public float left;
+    public float top;
+    public float right;
+    public float bottom;
+
+    public Bounds() {
+    }
+
+    public Bounds(float left, float top, float right, float bottom) {
+        set(left, top, right, bottom);
+    }
+
+    public void set(float left, float top, float right, float bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public void set(Bounds src) {
+        set(src.left, src.top, src.right, src.bottom);
+    }
+
+    public void offset(float dx, float dy) {
+        left += dx;
+        top += dy;
+        right += dx;
+        bottom += dy;
+    }
+
+    /**
+     * 四边向外扩展 负值向内收缩
+     */
+    public void outset(float dis) {
+        left -= dis;
+        top -= dis;
+        right += dis;
+        bottom += dis;
+    }
+
+    public float width() {
+        return right - left;
+    }
+
+    public float height() {
+        return bottom - top;
+    }
+
+    /**
+     * 没有尺寸
+     */
+    public boolean isEmpty() {
+        return right <= left || bottom <= top;
+    }
+
+    @Override
+    public String toString() {
+        return "Bounds(" + left + ", " + top + ", " + right + ", " + bottom + ")";
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:26
+ * 说明：圆角矩形四个圆角的圆弧角度与边上占用的长度
+ * 相邻圆角半径之和超过边长时按比例缩小 圆弧只画到缩小后的位置
+ * angleTopLeft 表示左上角圆弧在上边的端点角度 angleLeftTop 表示在左边的端点角度 以此类推
+ * 角度与 android.graphics.Path#arcTo 一致 0 度指向右侧 顺时针增加
+ */
+public final class CornerAngles {
+    public int angleTopLeft;
+    public int angleTopRight;
+    public int angleRightTop;
+    public int angleRightBottom;
+    public int angleBottomRight;
+    public int angleBottomLeft;
+    public int angleLeftBottom;
+    public int angleLeftTop;
+    public float sizeTopLeft;
+    public float sizeTopRight;
+    public float sizeRightTop;
+    public float sizeRightBottom;
+    public float sizeBottomRight;
+    public float sizeBottomLeft;
+    public float sizeLeftBottom;
+    public float sizeLeftTop;
+
+    public void compute(float left, float top, float right, float bottom,
+                        float radiusLeftTop, float radiusRightTop, float radiusRightBottom, float radiusLeftBottom) {
+        sizeTopLeft = radiusLeftTop;
+        sizeTopRight = radiusRightTop;
+        sizeRightTop = radiusRightTop;
+        sizeRightBottom = radiusRightBottom;
+        sizeBottomRight = radiusRightBottom;
+        sizeBottomLeft = radiusLeftBottom;
+        sizeLeftBottom = radiusLeftBottom;
+        sizeLeftTop = radiusLeftTop;
+        float width = right - left;
+        float height = bottom - top;
+        float radiusSubLeft = radiusLeftTop + radiusLeftBottom;
+        float radiusSubRight = radiusRightTop + radiusRightBottom;
+        float radiusSubTop = radiusLeftTop + radiusRightTop;
+        float radiusSubBottom = radiusLeftBottom + radiusRightBottom;
+        float scaleLeft, scaleRight, scaleTop, scaleBottom;
+        if (radiusSubLeft < height) {
+            scaleLeft = 1f;
+        } else {
+            scaleLeft = height / radiusSubLeft;
+        }
+        if (radiusSubRight < height) {
+            scaleRight = 1f;
+        } else {
+            scaleRight = height / radiusSubRight;
+        }
+        if (radiusSubTop < width) {
+            scaleTop = 1f;
+        } else {
+            scaleTop = width / radiusSubTop;
+        }
+        if (radiusSubBottom < width) {
+            scaleBottom = 1f;
+        } else {
+            scaleBottom = width / radiusSubBottom;
+        }
+        sizeTopLeft *= scaleTop;
+        sizeTopRight *= scaleTop;
+        sizeRightTop *= scaleRight;
+        sizeRightBottom *= scaleRight;
+        sizeBottomRight *= scaleBottom;
+        sizeBottomLeft *= scaleBottom;
+        sizeLeftBottom *= scaleLeft;
+        sizeLeftTop *= scaleLeft;
+        angleTopLeft = 270 - getAngle(radiusLeftTop - sizeTopLeft, radiusLeftTop);
+        angleTopRight = 270 + getAngle(radiusRightTop - sizeTopRight, radiusRightTop);
+        angleRightTop = 360 - getAngle(radiusRightTop - sizeRightTop, radiusRightTop);
+        angleRightBottom = getAngle(radiusRightBottom - sizeRightBottom, radiusRightBottom);
+        angleBottomRight = 90 - getAngle(radiusRightBottom - sizeBottomRight, radiusRightBottom);
+        angleBottomLeft = 90 + getAngle(radiusLeftBottom - sizeBottomLeft, radiusLeftBottom);
+        angleLeftBottom = 180 - getAngle(radiusLeftBottom - sizeLeftBottom, radiusLeftBottom);
+        angleLeftTop = 180 + getAngle(radiusLeftTop - sizeLeftTop, radiusLeftTop);
+    }
+
+    private static int getAngle(float y, float x) {
+        return (int) Math.toDegrees(Math.atan2(y, x));
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:26
+ * 说明：四边整数边距 与 android.graphics.Rect 用作 padding 时含义相同 可重复填充
+ */
+public final class Insets {
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    public Insets() {
+    }
+
+    public Insets(int left, int top, int right, int bottom) {
+        set(left, top, right, bottom);
+    }
+
+    public void set(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    @Override
+    public String toString() {
+        return "Insets(" + left + ", " + top + ", " + right + ", " + bottom + ")";
+    }
+}
@@ -0,0 +1,216 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 10:10
+ * 说明：大遮罩的多线程生成 按行或列分成若干带 调用线程处理第一条 其余交给固定大小的线程池 全部完成后返回
+ * 模糊先按行分带做横向一遍 同步后按列分带做竖向一遍 解析阴影各行独立 只需按行分带
+ * 每条带使用各自的 MaskBlur AnalyticShadow 实例 实例按带的序号复用
+ * 像素数小于阈值时在调用线程完成 线程池在第一次并行时创建 线程空闲后退出
+ * 同一时间只处理一个遮罩 多个线程同时调用时排队
+ * ForkJoinPool 在 Android API 21 才有 这里使用 ThreadPoolExecutor 调用线程同样参与计算
+ */
+public final class ParallelMask {
+    // 默认的阈值 约 360x360
+    public static final int DEFAULT_THRESHOLD = 128 * 1024;
+    // 每条带最少的行数或列数
+    private static final int MIN_BAND = 32;
+    private static final long KEEP_ALIVE_SECONDS = 10;
+
+    private final int parallelism;
+    private volatile int threshold = DEFAULT_THRESHOLD;
+    private ThreadPoolExecutor executor;
+    private boolean shutdown;
+    private final MaskBlur[][] blurs = new MaskBlur[2][];
+    private final AnalyticShadow[] analytics;
+
+    /**
+     * @param parallelism 同时处理的带数 包括调用线程 1 为单线程
+     */
+    public ParallelMask(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+        blurs[MaskBlur.MODE_BOX3] = new MaskBlur[this.parallelism];
+        blurs[MaskBlur.MODE_STACK] = new MaskBlur[this.parallelism];
+        analytics = new AnalyticShadow[this.parallelism];
+    }
+
+    /**
+     * 可用核数 最多 4 个 更多的核对一次遮罩的收益有限 还会与渲染线程争抢
+     */
+    public static int defaultParallelism() {
+        return Math.min(Runtime.getRuntime().availableProcessors(), 4);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * 像素数不小于 threshold 时并行
+     */
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * 与 {@link MaskBlur#blur} 相同
+     */
+    public synchronized void blur(int mode, byte[] mask, int offset, int stride, int width, int height, float sigma) {
+        if (mode != MaskBlur.MODE_BOX3 && mode != MaskBlur.MODE_STACK) {
+            throw new IllegalArgumentException("mode " + mode);
+        }
+        int rowBands = bands(width, height, height);
+        int columnBands = bands(width, height, width);
+        MaskBlur[] instances = obtainBlurs(mode, Math.max(rowBands, columnBands));
+        run(rowBands, band -> instances[band].blurRows(mask, offset, stride, width, height, sigma,
+                start(band, rowBands, height), start(band + 1, rowBands, height)));
+        run(columnBands, band -> instances[band].blurColumns(mask, offset, stride, width, height, sigma,
+                start(band, columnBands, width), start(band + 1, columnBands, width)));
+    }
+
+    /**
+     * 与 {@link AnalyticShadow#render(byte[], int, int, int, int)} 相同 shape 为已设置好的形状
+     */
+    public synchronized void render(AnalyticShadow shape, byte[] mask, int offset, int stride, int width, int height) {
+        int rowBands = bands(width, height, height);
+        AnalyticShadow[] instances = obtainAnalytics(shape, rowBands);
+        run(rowBands, band -> instances[band].render(mask, offset, stride, width, height,
+                start(band, rowBands, height), start(band + 1, rowBands, height)));
+    }
+
+    /**
+     * 结束线程池 之后的调用在调用线程完成 不再创建线程池
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    private int bands(int width, int height, int length) {
+        if (shutdown || parallelism <= 1 || (long) width * height < threshold) {
+            return 1;
+        }
+        return Math.max(1, Math.min(parallelism, length / MIN_BAND));
+    }
+
+    private static int start(int band, int bands, int length) {
+        return (int) ((long) length * band / bands);
+    }
+
+    /**
+     * 实例在调用线程准备好 各线程只访问自己序号的实例
+     */
+    private MaskBlur[] obtainBlurs(int mode, int count) {
+        MaskBlur[] instances = blurs[mode];
+        for (int i = 0; i < count; i++) {
+            if (instances[i] == null) {
+                instances[i] = new MaskBlur(mode);
+            }
+        }
+        return instances;
+    }
+
+    /**
+     * 第 0 条直接使用 shape 其余复制 shape 的形状
+     */
+    private AnalyticShadow[] obtainAnalytics(AnalyticShadow shape, int count) {
+        analytics[0] = shape;
+        for (int i = 1; i < count; i++) {
+            if (analytics[i] == null) {
+                analytics[i] = new AnalyticShadow();
+            }
+            analytics[i].set(shape);
+        }
+        return analytics;
+    }
+
+    /**
+     * 第 0 条在调用线程 其余提交到线程池 等待全部完成 任一条带的异常在调用线程重新抛出
+     */
+    private void run(int bands, Band task) {
+        if (bands <= 1) {
+            task.run(0);
+            return;
+        }
+        ThreadPoolExecutor executor = obtainExecutor();
+        CountDownLatch latch = new CountDownLatch(bands - 1);
+        Throwable[] error = new Throwable[1];
+        for (int band = 1; band < bands; band++) {
+            int index = band;
+            executor.execute(() -> {
+                try {
+                    task.run(index);
+                } catch (Throwable e) {
+                    synchronized (error) {
+                        error[0] = e;
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        task.run(0);
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                // 其它线程还在写遮罩 必须等完
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (error) {
+            if (error[0] instanceof RuntimeException) {
+                throw (RuntimeException) error[0];
+            }
+            if (error[0] instanceof Error) {
+                throw (Error) error[0];
+            }
+        }
+    }
+
+    private ThreadPoolExecutor obtainExecutor() {
+        if (executor == null) {
+            int threads = parallelism - 1;
+            executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), new WorkerFactory());
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    private interface Band {
+        void run(int band);
+    }
+
+    private static final class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ShadowMask-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
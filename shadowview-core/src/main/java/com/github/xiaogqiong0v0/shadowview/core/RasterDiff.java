@@ -0,0 +1,90 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:40
+ * 说明：两张 ARGB 图的差异统计 按预乘后的通道比较 透明像素的颜色不参与比较
+ */
+public final class RasterDiff {
+    private RasterDiff() {
+    }
+
+    /**
+     * 用同一个 ShadowSpec 分别渲染后比较
+     */
+    public static Result compare(ShadowRasterizer reference, ShadowRasterizer candidate, ShadowSpec spec, int tolerance) {
+        int count = spec.width * spec.height;
+        int[] expected = new int[count];
+        int[] actual = new int[count];
+        reference.rasterize(spec, expected);
+        candidate.rasterize(spec, actual);
+        return compare(expected, actual, spec.width, spec.height, tolerance);
+    }
+
+    /**
+     * @param tolerance 每个通道允许的差值 0 到 255
+     */
+    public static Result compare(int[] expected, int[] actual, int width, int height, int tolerance) {
+        Result result = new Result();
+        result.total = width * height;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int index = y * width + x;
+                int delta = delta(expected[index], actual[index]);
+                if (delta > result.maxDelta) {
+                    result.maxDelta = delta;
+                    result.maxX = x;
+                    result.maxY = y;
+                }
+                if (delta > tolerance) {
+                    result.mismatchCount++;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 预乘后四个通道的最大差值
+     */
+    public static int delta(int expected, int actual) {
+        int expectedAlpha = expected >>> 24;
+        int actualAlpha = actual >>> 24;
+        int delta = Math.abs(expectedAlpha - actualAlpha);
+        for (int shift = 0; shift <= 16; shift += 8) {
+            int e = premultiply((expected >> shift) & 0xFF, expectedAlpha);
+            int a = premultiply((actual >> shift) & 0xFF, actualAlpha);
+            delta = Math.max(delta, Math.abs(e - a));
+        }
+        return delta;
+    }
+
+    private static int premultiply(int channel, int alpha) {
+        return (channel * alpha + 127) / 255;
+    }
+
+    public static final class Result {
+        public int total;
+        // 超过容差的像素数
+        public int mismatchCount;
+        public int maxDelta;
+        // 差值最大的像素
+        public int maxX = -1;
+        public int maxY = -1;
+
+        /**
+         * @param maxMismatchRatio 允许超过容差的像素比例
+         */
+        public boolean within(float maxMismatchRatio) {
+            return mismatchCount <= total * maxMismatchRatio;
+        }
+
+        @Override
+        public String toString() {
+            return "RasterDiff(mismatch=" + mismatchCount + "/" + total
+                    + ", maxDelta=" + maxDelta + " at (" + maxX + ", " + maxY + "))";
+        }
+    }
+}
@@ -0,0 +1,651 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+import java.util.Arrays;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:40
+ * 说明：参考光栅化 在 JVM 上按定义渲染阴影 作为缓存位图 点九拉伸 解析阴影等快速路径的比对基准
+ * 只追求正确 不追求速度 每个像素 4x4 超采样 几何使用圆角矩形的有向距离
+ * 合成顺序与 ShadowParams 的 CLIP 模式相同
+ * 外阴影 阴影层(挖去显示区域) -> 内容 -> 边框
+ * 内阴影 内容 -> 阴影(限定在显示区域) -> 边框
+ * 软阴影 形状覆盖率做精确的高斯卷积 sigma 与 BlurMaskFilter 的换算相同
+ * 硬阴影 到形状边缘距离的线性渐变 颜色按预乘插值 与 Android 的渐变相同
+ * 圆角超过较短边的一半时截断为一半 与 Android 的圆弧截断不同 比对时应避免这种配置
+ */
+public class ReferenceRasterizer implements ShadowRasterizer {
+    // 每个像素每个方向的采样数
+    private static final int SAMPLES = 4;
+
+    private final RoundRect hardArea = new RoundRect();
+    private float hardThickness;
+
+    @Override
+    public void rasterize(ShadowSpec spec, int[] out) {
+        int w = spec.width;
+        int h = spec.height;
+        if (out.length < w * h) {
+            throw new IllegalArgumentException("out.length < width * height");
+        }
+        Arrays.fill(out, 0, w * h, 0);
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        RoundRect box = new RoundRect();
+        if (spec.shadowInset) {
+            box.set(0, 0, w, h, spec, 0);
+        } else {
+            Bounds area = new Bounds();
+            if (!ShadowGeometry.innerArea(area, w, h, spec.shadowSpread, spec.shadowBlur,
+                    spec.shadowDx, spec.shadowDy, spec.shadowClip)) {
+                return;
+            }
+            box.set(area.left, area.top, area.right, area.bottom, spec, 0);
+        }
+        Layer dst = new Layer(w, h);
+        float[] boxCoverage = coverage(box, w, h);
+        Layer shadow = new Layer(w, h);
+        drawShadow(spec, shadow);
+        if (spec.shadowInset) {
+            dst.fill(spec.fillColor, boxCoverage);
+            // 显示区域的裁剪
+            shadow.multiply(boxCoverage, false);
+            dst.srcOver(shadow);
+        } else {
+            // DST_OUT 挖去显示区域
+            shadow.multiply(boxCoverage, true);
+            dst.srcOver(shadow);
+            Layer content = new Layer(w, h);
+            content.fill(spec.fillColor, boxCoverage);
+            dst.srcOver(content);
+        }
+        if (spec.borderThickness > 0) {
+            Layer border = new Layer(w, h);
+            drawBorder(spec, box, border);
+            dst.srcOver(border);
+        }
+        dst.write(out);
+    }
+
+    public final int[] rasterize(ShadowSpec spec) {
+        int[] out = new int[Math.max(0, spec.width) * Math.max(0, spec.height)];
+        rasterize(spec, out);
+        return out;
+    }
+
+    /**
+     * BlurMaskFilter 使用的模糊半径 与 ShadowParams 相同 外阴影减去 1.5dp
+     */
+    public static float maskBlurRadius(ShadowSpec spec) {
+        if (spec.shadowInset) {
+            return spec.shadowBlur;
+        }
+        int min = (int) (spec.density * 1.5f + 0.5f);
+        return spec.shadowBlur > min ? spec.shadowBlur - min : 0;
+    }
+
+    /**
+     * 模糊半径换算为高斯分布的 sigma 与 Skia 相同
+     */
+    public static float blurSigma(float radius) {
+        return MaskBlur.sigma(radius);
+    }
+
+    /**
+     * 硬阴影的形状确定后调用 外阴影为阴影形状 thickness 为正
+     * 内阴影为挖空区域 thickness 为负 与 SplitGeometry.compute 的参数相同
+     */
+    protected void prepareHardShadow(ShadowSpec spec, Bounds area, float thickness,
+                                     float radiusLeftTop, float radiusRightTop,
+                                     float radiusRightBottom, float radiusLeftBottom) {
+        hardArea.set(area.left, area.top, area.right, area.bottom,
+                radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom);
+        hardThickness = thickness;
+    }
+
+    /**
+     * 直接计算软阴影的遮罩 返回 false 时使用形状覆盖率的卷积
+     * 外阴影为阴影形状的模糊 frame 为 null 内阴影为 frame 的模糊减去挖空区域的模糊 圆角已截断
+     *
+     * @param out 长度为 width * height 0 到 1
+     */
+    protected boolean softShadowMask(ShadowSpec spec, Bounds shape, Bounds frame, float sigma,
+                                     float radiusLeftTop, float radiusRightTop,
+                                     float radiusRightBottom, float radiusLeftBottom, float[] out) {
+        return false;
+    }
+
+    /**
+     * 软阴影形状覆盖率的模糊 四周已留出 3 sigma 的边距 默认为精确的高斯卷积
+     */
+    protected void blurCoverage(float[] mask, int w, int h, float sigma) {
+        gaussianBlur(mask, w, h, sigma);
+    }
+
+    /**
+     * 硬阴影在一个采样点的强度 1 为阴影颜色 0 为透明 负数表示不绘制
+     */
+    protected float hardShadowLevel(float x, float y) {
+        float distance = hardArea.distance(x, y);
+        if (hardThickness > 0) {
+            if (distance <= 0) {
+                return 1;
+            }
+            return distance < hardThickness ? 1 - distance / hardThickness : -1;
+        }
+        if (distance >= 0) {
+            return 1;
+        }
+        float thickness = -hardThickness;
+        return -distance < thickness ? 1 + distance / thickness : -1;
+    }
+
+    /**
+     * 到硬阴影形状边缘的有向距离 内部为负
+     */
+    protected final float hardAreaDistance(float x, float y) {
+        return hardArea.distance(x, y);
+    }
+
+    private void drawShadow(ShadowSpec spec, Layer layer) {
+        int w = spec.width;
+        int h = spec.height;
+        // 与 ShadowParams 相同 没有张度与模糊时不绘制阴影
+        if (spec.shadowSpread + spec.shadowBlur <= 0) {
+            return;
+        }
+        Bounds area = new Bounds();
+        float radiusOffset = 0;
+        if (spec.shadowInset) {
+            float dis = spec.shadowSpread + spec.borderThickness;
+            area.set(dis, dis, w - dis, h - dis);
+            if (area.isEmpty()) {
+                return;
+            }
+            area.offset(spec.shadowDx, spec.shadowDy);
+            // 软阴影的挖空区域与边框内侧同心 硬阴影直接使用圆角
+            if (spec.shadowType == ShadowSpec.TYPE_SOFT) {
+                radiusOffset = -spec.borderThickness;
+            }
+        } else {
+            if (!ShadowGeometry.innerArea(area, w, h, spec.shadowSpread, spec.shadowBlur,
+                    spec.shadowDx, spec.shadowDy, spec.shadowClip)) {
+                return;
+            }
+            area.outset(spec.shadowSpread);
+            area.offset(spec.shadowDx, spec.shadowDy);
+            if (area.isEmpty()) {
+                return;
+            }
+        }
+        if (spec.shadowType == ShadowSpec.TYPE_HARD) {
+            drawHardShadow(spec, area, layer);
+        } else {
+            RoundRect shape = new RoundRect();
+            shape.set(area.left, area.top, area.right, area.bottom, spec, radiusOffset);
+            drawSoftShadow(spec, shape, layer);
+        }
+    }
+
+    private void drawSoftShadow(ShadowSpec spec, RoundRect shape, Layer layer) {
+        int w = spec.width;
+        int h = spec.height;
+        float sigma = blurSigma(maskBlurRadius(spec));
+        float[] values = new float[w * h];
+        Bounds area = new Bounds();
+        area.set(shape.left, shape.top, shape.right, shape.bottom);
+        Bounds frame = null;
+        if (spec.shadowInset) {
+            frame = new Bounds();
+            frame.set(-spec.shadowBlur, -spec.shadowBlur, w + spec.shadowBlur, h + spec.shadowBlur);
+        }
+        if (!softShadowMask(spec, area, frame, sigma, shape.radiusLeftTop, shape.radiusRightTop,
+                shape.radiusRightBottom, shape.radiusLeftBottom, values)) {
+            convolveSoftShadow(spec, shape, sigma, values);
+        }
+        int color = spec.shadowColor;
+        float alpha = alpha(color);
+        float red = red(color) * alpha;
+        float green = green(color) * alpha;
+        float blue = blue(color) * alpha;
+        for (int i = 0; i < values.length; i++) {
+            float value = values[i];
+            layer.a[i] = alpha * value;
+            layer.r[i] = red * value;
+            layer.g[i] = green * value;
+            layer.b[i] = blue * value;
+        }
+    }
+
+    /**
+     * 形状覆盖率超采样后卷积
+     */
+    private void convolveSoftShadow(ShadowSpec spec, RoundRect shape, float sigma, float[] out) {
+        int w = spec.width;
+        int h = spec.height;
+        int margin = sigma > 0 ? (int) Math.ceil(sigma * 3) + 1 : 0;
+        int gw = w + margin * 2;
+        int gh = h + margin * 2;
+        float[] mask = new float[gw * gh];
+        boolean inset = spec.shadowInset;
+        // 内阴影的路径是 (-blur, -blur, w + blur, h + blur) 挖去内部区域
+        float blur = spec.shadowBlur;
+        float step = 1f / SAMPLES;
+        float sampleWeight = 1f / (SAMPLES * SAMPLES);
+        for (int gy = 0; gy < gh; gy++) {
+            float top = gy - margin;
+            for (int gx = 0; gx < gw; gx++) {
+                float left = gx - margin;
+                float sum = 0;
+                for (int sy = 0; sy < SAMPLES; sy++) {
+                    float y = top + (sy + 0.5f) * step;
+                    for (int sx = 0; sx < SAMPLES; sx++) {
+                        float x = left + (sx + 0.5f) * step;
+                        boolean inside;
+                        if (inset) {
+                            inside = x > -blur && y > -blur && x < w + blur && y < h + blur
+                                    && !shape.contains(x, y);
+                        } else {
+                            inside = shape.contains(x, y);
+                        }
+                        if (inside) {
+                            sum += sampleWeight;
+                        }
+                    }
+                }
+                mask[gy * gw + gx] = sum;
+            }
+        }
+        if (sigma > 0) {
+            blurCoverage(mask, gw, gh, sigma);
+        }
+        for (int y = 0; y < h; y++) {
+            System.arraycopy(mask, (y + margin) * gw + margin, out, y * w, w);
+        }
+    }
+
+    private void drawHardShadow(ShadowSpec spec, Bounds area, Layer layer) {
+        float thickness = spec.shadowInset ? -spec.shadowBlur : spec.shadowBlur;
+        prepareHardShadow(spec, area, thickness,
+                spec.radiusLeftTop, spec.radiusRightTop, spec.radiusRightBottom, spec.radiusLeftBottom);
+        int w = spec.width;
+        int h = spec.height;
+        int color = spec.shadowColor;
+        float step = 1f / SAMPLES;
+        float sampleWeight = 1f / (SAMPLES * SAMPLES);
+        for (int py = 0; py < h; py++) {
+            for (int px = 0; px < w; px++) {
+                float a = 0, r = 0, g = 0, b = 0;
+                for (int sy = 0; sy < SAMPLES; sy++) {
+                    float y = py + (sy + 0.5f) * step;
+                    for (int sx = 0; sx < SAMPLES; sx++) {
+                        float x = px + (sx + 0.5f) * step;
+                        float level = hardShadowLevel(x, y);
+                        if (level < 0) {
+                            continue;
+                        }
+                        // 从透明 0x00000000 到阴影颜色 Skia 的渐变按预乘插值 颜色不随透明度变暗
+                        float sampleAlpha = alpha(color) * level;
+                        a += sampleAlpha;
+                        r += red(color) * sampleAlpha;
+                        g += green(color) * sampleAlpha;
+                        b += blue(color) * sampleAlpha;
+                    }
+                }
+                int index = py * w + px;
+                layer.a[index] = a * sampleWeight;
+                layer.r[index] = r * sampleWeight;
+                layer.g[index] = g * sampleWeight;
+                layer.b[index] = b * sampleWeight;
+            }
+        }
+    }
+
+    /**
+     * 描边的中心线向内收缩 thickness / 2 - 0.5 与 ShadowParams 的边框路径相同
+     * 路径从左上圆角的终点开始顺时针 未闭合 虚线为 2 倍厚度实 1 倍厚度空
+     */
+    private static void drawBorder(ShadowSpec spec, RoundRect box, Layer layer) {
+        float thickness = spec.borderThickness;
+        float half = thickness / 2f - 0.5f;
+        RoundRect center = new RoundRect();
+        center.set(box.left + half, box.top + half, box.right - half, box.bottom - half,
+                Math.max(box.radiusLeftTop - half, 0), Math.max(box.radiusRightTop - half, 0),
+                Math.max(box.radiusRightBottom - half, 0), Math.max(box.radiusLeftBottom - half, 0));
+        if (center.right <= center.left || center.bottom <= center.top) {
+            return;
+        }
+        float stroke = thickness / 2f;
+        RoundRect outer = center.offsetCurve(stroke);
+        RoundRect inner = center.offsetCurve(-stroke);
+        Perimeter perimeter = spec.borderType == ShadowSpec.BORDER_DASHED ? new Perimeter(center) : null;
+        float dashOn = thickness * 2;
+        float dashPeriod = thickness * 3;
+        boolean openCorner = center.radiusLeftTop == 0;
+        float[] coverage = new float[spec.width * spec.height];
+        float step = 1f / SAMPLES;
+        float sampleWeight = 1f / (SAMPLES * SAMPLES);
+        for (int py = 0; py < spec.height; py++) {
+            for (int px = 0; px < spec.width; px++) {
+                float sum = 0;
+                for (int sy = 0; sy < SAMPLES; sy++) {
+                    float y = py + (sy + 0.5f) * step;
+                    for (int sx = 0; sx < SAMPLES; sx++) {
+                        float x = px + (sx + 0.5f) * step;
+                        if (!outer.contains(x, y) || inner.contains(x, y)) {
+                            continue;
+                        }
+                        // 未闭合的起点两端为平头 没有拐角
+                        if (openCorner && x < center.left && y < center.top) {
+                            continue;
+                        }
+                        if (perimeter != null && perimeter.position(x, y) % dashPeriod >= dashOn) {
+                            continue;
+                        }
+                        sum += sampleWeight;
+                    }
+                }
+                coverage[py * spec.width + px] = sum;
+            }
+        }
+        layer.fill(spec.borderColor, coverage);
+    }
+
+    private static float[] coverage(RoundRect shape, int w, int h) {
+        float[] coverage = new float[w * h];
+        float step = 1f / SAMPLES;
+        float sampleWeight = 1f / (SAMPLES * SAMPLES);
+        for (int py = 0; py < h; py++) {
+            for (int px = 0; px < w; px++) {
+                float sum = 0;
+                for (int sy = 0; sy < SAMPLES; sy++) {
+                    float y = py + (sy + 0.5f) * step;
+                    for (int sx = 0; sx < SAMPLES; sx++) {
+                        if (shape.contains(px + (sx + 0.5f) * step, y)) {
+                            sum += sampleWeight;
+                        }
+                    }
+                }
+                coverage[py * w + px] = sum;
+            }
+        }
+        return coverage;
+    }
+
+    /**
+     * 可分离的高斯卷积 核半径 3 sigma 超出范围按 0 处理
+     */
+    private static void gaussianBlur(float[] data, int w, int h, float sigma) {
+        int radius = (int) Math.ceil(sigma * 3);
+        float[] kernel = new float[radius * 2 + 1];
+        float sum = 0;
+        for (int i = -radius; i <= radius; i++) {
+            float value = (float) Math.exp(-(i * i) / (2.0 * sigma * sigma));
+            kernel[i + radius] = value;
+            sum += value;
+        }
+        for (int i = 0; i < kernel.length; i++) {
+            kernel[i] /= sum;
+        }
+        float[] temp = new float[data.length];
+        for (int y = 0; y < h; y++) {
+            int row = y * w;
+            for (int x = 0; x < w; x++) {
+                float value = 0;
+                int from = Math.max(0, x - radius);
+                int to = Math.min(w - 1, x + radius);
+                for (int i = from; i <= to; i++) {
+                    value += data[row + i] * kernel[i - x + radius];
+                }
+                temp[row + x] = value;
+            }
+        }
+        for (int x = 0; x < w; x++) {
+            for (int y = 0; y < h; y++) {
+                float value = 0;
+                int from = Math.max(0, y - radius);
+                int to = Math.min(h - 1, y + radius);
+                for (int i = from; i <= to; i++) {
+                    value += temp[i * w + x] * kernel[i - y + radius];
+                }
+                data[y * w + x] = value;
+            }
+        }
+    }
+
+    private static float alpha(int color) {
+        return (color >>> 24) / 255f;
+    }
+
+    private static float red(int color) {
+        return ((color >> 16) & 0xFF) / 255f;
+    }
+
+    private static float green(int color) {
+        return ((color >> 8) & 0xFF) / 255f;
+    }
+
+    private static float blue(int color) {
+        return (color & 0xFF) / 255f;
+    }
+
+    /**
+     * 预乘的浮点图层
+     */
+    private static final class Layer {
+        final float[] a;
+        final float[] r;
+        final float[] g;
+        final float[] b;
+
+        Layer(int w, int h) {
+            int count = w * h;
+            a = new float[count];
+            r = new float[count];
+            g = new float[count];
+            b = new float[count];
+        }
+
+        void fill(int color, float[] coverage) {
+            float alpha = alpha(color);
+            for (int i = 0; i < a.length; i++) {
+                float value = alpha * coverage[i];
+                a[i] = value;
+                r[i] = red(color) * value;
+                g[i] = green(color) * value;
+                b[i] = blue(color) * value;
+            }
+        }
+
+        /**
+         * @param invert true 为 DST_OUT false 为裁剪
+         */
+        void multiply(float[] coverage, boolean invert) {
+            for (int i = 0; i < a.length; i++) {
+                float value = invert ? 1 - coverage[i] : coverage[i];
+                a[i] *= value;
+                r[i] *= value;
+                g[i] *= value;
+                b[i] *= value;
+            }
+        }
+
+        void srcOver(Layer src) {
+            for (int i = 0; i < a.length; i++) {
+                float keep = 1 - src.a[i];
+                a[i] = src.a[i] + a[i] * keep;
+                r[i] = src.r[i] + r[i] * keep;
+                g[i] = src.g[i] + g[i] * keep;
+                b[i] = src.b[i] + b[i] * keep;
+            }
+        }
+
+        void write(int[] out) {
+            for (int i = 0; i < a.length; i++) {
+                int alpha = channel(a[i]);
+                if (alpha == 0) {
+                    out[i] = 0;
+                    continue;
+                }
+                out[i] = alpha << 24
+                        | channel(r[i] / a[i]) << 16
+                        | channel(g[i] / a[i]) << 8
+                        | channel(b[i] / a[i]);
+            }
+        }
+
+        private static int channel(float value) {
+            return Math.max(0, Math.min(255, Math.round(value * 255)));
+        }
+    }
+
+    /**
+     * 四角不同的圆角矩形 圆角不超过较短边的一半
+     */
+    private static final class RoundRect {
+        float left, top, right, bottom;
+        float radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom;
+
+        void set(float left, float top, float right, float bottom, ShadowSpec spec, float radiusOffset) {
+            set(left, top, right, bottom,
+                    Math.max(spec.radiusLeftTop + radiusOffset, 0), Math.max(spec.radiusRightTop + radiusOffset, 0),
+                    Math.max(spec.radiusRightBottom + radiusOffset, 0), Math.max(spec.radiusLeftBottom + radiusOffset, 0));
+        }
+
+        void set(float left, float top, float right, float bottom,
+                 float radiusLeftTop, float radiusRightTop, float radiusRightBottom, float radiusLeftBottom) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+            float max = Math.max(0, Math.min(right - left, bottom - top) / 2f);
+            this.radiusLeftTop = Math.min(radiusLeftTop, max);
+            this.radiusRightTop = Math.min(radiusRightTop, max);
+            this.radiusRightBottom = Math.min(radiusRightBottom, max);
+            this.radiusLeftBottom = Math.min(radiusLeftBottom, max);
+        }
+
+        /**
+         * 向外 distance 的等距线 尖角保持尖角 与 MITER 描边相同 负值向内
+         */
+        RoundRect offsetCurve(float distance) {
+            RoundRect rect = new RoundRect();
+            rect.left = left - distance;
+            rect.top = top - distance;
+            rect.right = right + distance;
+            rect.bottom = bottom + distance;
+            rect.radiusLeftTop = offsetRadius(radiusLeftTop, distance);
+            rect.radiusRightTop = offsetRadius(radiusRightTop, distance);
+            rect.radiusRightBottom = offsetRadius(radiusRightBottom, distance);
+            rect.radiusLeftBottom = offsetRadius(radiusLeftBottom, distance);
+            return rect;
+        }
+
+        private static float offsetRadius(float radius, float distance) {
+            return radius > 0 ? Math.max(radius + distance, 0) : 0;
+        }
+
+        boolean contains(float x, float y) {
+            return distance(x, y) < 0;
+        }
+
+        /**
+         * 有向距离 内部为负
+         */
+        float distance(float x, float y) {
+            float halfW = (right - left) / 2f;
+            float halfH = (bottom - top) / 2f;
+            float px = x - (left + halfW);
+            float py = y - (top + halfH);
+            float radius;
+            if (px < 0) {
+                radius = py < 0 ? radiusLeftTop : radiusLeftBottom;
+            } else {
+                radius = py < 0 ? radiusRightTop : radiusRightBottom;
+            }
+            float qx = Math.abs(px) - halfW + radius;
+            float qy = Math.abs(py) - halfH + radius;
+            float outside = (float) Math.hypot(Math.max(qx, 0), Math.max(qy, 0));
+            return Math.min(Math.max(qx, qy), 0) + outside - radius;
+        }
+    }
+
+    /**
+     * 圆角矩形的周长参数化 从左上圆角的终点开始顺时针 与 ShadowParams 的路径方向相同
+     */
+    private static final class Perimeter {
+        // 每段 类型 0 线段 x0 y0 x1 y1 类型 1 圆弧 cx cy radius startAngle
+        private final float[][] segments = new float[8][];
+        private final float[] lengths = new float[8];
+        private final float[] offsets = new float[8];
+
+        Perimeter(RoundRect rect) {
+            float l = rect.left, t = rect.top, r = rect.right, b = rect.bottom;
+            float lt = rect.radiusLeftTop, rt = rect.radiusRightTop;
+            float rb = rect.radiusRightBottom, lb = rect.radiusLeftBottom;
+            segments[0] = new float[]{0, l + lt, t, r - rt, t};
+            segments[1] = new float[]{1, r - rt, t + rt, rt, -90};
+            segments[2] = new float[]{0, r, t + rt, r, b - rb};
+            segments[3] = new float[]{1, r - rb, b - rb, rb, 0};
+            segments[4] = new float[]{0, r - rb, b, l + lb, b};
+            segments[5] = new float[]{1, l + lb, b - lb, lb, 90};
+            segments[6] = new float[]{0, l, b - lb, l, t + lt};
+            segments[7] = new float[]{1, l + lt, t + lt, lt, 180};
+            float offset = 0;
+            for (int i = 0; i < segments.length; i++) {
+                float[] s = segments[i];
+                lengths[i] = s[0] == 0
+                        ? (float) Math.hypot(s[3] - s[1], s[4] - s[2])
+                        : (float) (s[3] * Math.PI / 2);
+                offsets[i] = offset;
+                offset += lengths[i];
+            }
+        }
+
+        /**
+         * 最近点在路径上的弧长位置
+         */
+        float position(float x, float y) {
+            float best = Float.MAX_VALUE;
+            float position = 0;
+            for (int i = 0; i < segments.length; i++) {
+                if (lengths[i] <= 0) {
+                    continue;
+                }
+                float[] s = segments[i];
+                float px, py, along;
+                if (s[0] == 0) {
+                    float dx = s[3] - s[1];
+                    float dy = s[4] - s[2];
+                    float t = ((x - s[1]) * dx + (y - s[2]) * dy) / (dx * dx + dy * dy);
+                    t = Math.max(0, Math.min(1, t));
+                    px = s[1] + dx * t;
+                    py = s[2] + dy * t;
+                    along = lengths[i] * t;
+                } else {
+                    double angle = Math.toDegrees(Math.atan2(y - s[2], x - s[1])) - s[4];
+                    while (angle < -180) {
+                        angle += 360;
+                    }
+                    while (angle > 180) {
+                        angle -= 360;
+                    }
+                    double sweep = Math.max(0, Math.min(90, angle));
+                    double radians = Math.toRadians(s[4] + sweep);
+                    px = (float) (s[1] + s[3] * Math.cos(radians));
+                    py = (float) (s[2] + s[3] * Math.sin(radians));
+                    along = (float) (lengths[i] * sweep / 90);
+                }
+                float distance = (float) Math.hypot(x - px, y - py);
+                if (distance < best) {
+                    best = distance;
+                    position = offsets[i] + along;
+                }
+            }
+            return position;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:26
+ * 说明：阴影几何的纯计算 不依赖 Android 结果写入调用方传入的对象 不分配内存
+ * 阴影区域 等于 rect - spread(张度) - blur(模糊半径) + shadowDx + shadowDy
+ */
+public final class ShadowGeometry {
+    public static final int CLIP_NONE = 0;
+    public static final int CLIP_LEFT = 1;
+    public static final int CLIP_TOP = 2;
+    public static final int CLIP_RIGHT = 4;
+    public static final int CLIP_BOTTOM = 8;
+
+    private ShadowGeometry() {
+    }
+
+    /**
+     * 外阴影需要的边距 即自动添加的 padding
+     */
+    public static Insets paddingInsets(Insets out, int shadowSpread, int shadowBlur,
+                                       int shadowDx, int shadowDy, int shadowClip) {
+        int dis = shadowSpread + shadowBlur;
+        out.set(dis, dis, dis, dis);
+        // 外阴影 dx 增加 整体左移 来绘制右侧阴影
+        // dy 增加 整体上移 来绘制下侧阴影 出现负值需要偏移到可见区域
+        out.left -= shadowDx;
+        out.top -= shadowDy;
+        out.right += shadowDx;
+        out.bottom += shadowDy;
+        // 如果有小于0的值,再次偏移
+        if (out.right < 0) {
+            out.left += out.right;
+            out.right = 0;
+        } else if (out.left < 0) {
+            out.right += out.left;
+            out.left = 0;
+        }
+        if (out.bottom < 0) {
+            out.top += out.bottom;
+            out.bottom = 0;
+        } else if (out.top < 0) {
+            out.bottom += out.top;
+            out.top = 0;
+        }
+        if ((shadowClip & CLIP_LEFT) == CLIP_LEFT) {
+            out.left = 0;
+        }
+        if ((shadowClip & CLIP_TOP) == CLIP_TOP) {
+            out.top = 0;
+        }
+        if ((shadowClip & CLIP_RIGHT) == CLIP_RIGHT) {
+            out.right = 0;
+        }
+        if ((shadowClip & CLIP_BOTTOM) == CLIP_BOTTOM) {
+            out.bottom = 0;
+        }
+        return out;
+    }
+
+    /**
+     * 外阴影时的内部显示区域
+     *
+     * @return 没有尺寸时返回 false
+     */
+    public static boolean innerArea(Bounds out, int w, int h, int shadowSpread, int shadowBlur,
+                                    int shadowDx, int shadowDy, int shadowClip) {
+        float dis = shadowSpread + shadowBlur;
+        out.set(dis, dis, dis, dis);
+        out.left -= shadowDx;
+        out.top -= shadowDy;
+        out.right += shadowDx;
+        out.bottom += shadowDy;
+        // 如果有小于0的值,再次偏移
+        if (out.right < 0) {
+            out.left -= out.right;
+            out.right = 0;
+        } else if (out.left < 0) {
+            out.right -= out.left;
+            out.left = 0;
+        }
+        if (out.bottom < 0) {
+            out.top -= out.bottom;
+            out.bottom = 0;
+        } else if (out.top < 0) {
+            out.bottom -= out.top;
+            out.top = 0;
+        }
+        if ((shadowClip & CLIP_LEFT) == CLIP_LEFT) {
+            out.left = 0;
+        }
+        if ((shadowClip & CLIP_TOP) == CLIP_TOP) {
+            out.top = 0;
+        }
+        if ((shadowClip & CLIP_RIGHT) == CLIP_RIGHT) {
+            out.right = 0;
+        }
+        if ((shadowClip & CLIP_BOTTOM) == CLIP_BOTTOM) {
+            out.bottom = 0;
+        }
+        out.right = w - out.right;
+        out.bottom = h - out.bottom;
+        return !out.isEmpty();
+    }
+
+    /**
+     * 解析圆角 百分比相对有效宽或高 最大 100%
+     */
+    public static float resolveRadius(int value, boolean percent, boolean isWidth, int validW, int validH) {
+        if (!percent) {
+            return value;
+        }
+        if (value == 0) {
+            return 0;
+        }
+        float ratio = Math.min(100f, value) / 100f;
+        if (isWidth) {
+            return validW * ratio;
+        }
+        return validH * ratio;
+    }
+}
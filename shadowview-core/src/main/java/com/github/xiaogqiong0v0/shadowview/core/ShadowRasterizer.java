@@ -0,0 +1,15 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:40
+ * 说明：把 ShadowSpec 渲染为 ARGB 数组 按行存储 非预乘 与 Bitmap.getPixels 的格式相同
+ */
+public interface ShadowRasterizer {
+    /**
+     * @param out 长度至少为 width * height
+     */
+    void rasterize(ShadowSpec spec, int[] out);
+}
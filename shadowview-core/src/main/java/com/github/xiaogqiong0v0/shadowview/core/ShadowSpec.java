@@ -0,0 +1,90 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:40
+ * 说明：一个阴影的完整描述 与 ShadowParams 的属性一一对应 圆角为已解析的像素值
+ * 颜色为 ARGB 非预乘
+ */
+public final class ShadowSpec {
+    public static final int TYPE_SOFT = 0;
+    public static final int TYPE_HARD = 1;
+    public static final int BORDER_SOLID = 0;
+    public static final int BORDER_DASHED = 1;
+
+    public int width;
+    public int height;
+    public int shadowColor = 0xFF000000;
+    public int shadowDx;
+    public int shadowDy;
+    public int shadowBlur;
+    public int shadowSpread;
+    public boolean shadowInset;
+    public int shadowType = TYPE_SOFT;
+    // ShadowGeometry.CLIP_*
+    public int shadowClip = ShadowGeometry.CLIP_NONE;
+    public float radiusLeftTop;
+    public float radiusRightTop;
+    public float radiusRightBottom;
+    public float radiusLeftBottom;
+    public int borderThickness;
+    public int borderColor = 0xFF000000;
+    public int borderType = BORDER_SOLID;
+    // 显示区域内的内容颜色 透明表示只有阴影与边框
+    public int fillColor;
+    // 屏幕密度 外阴影的 BlurMaskFilter 半径会减去 1.5dp
+    public float density = 1f;
+
+    public ShadowSpec() {
+    }
+
+    public ShadowSpec(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    public ShadowSpec setRadius(float radius) {
+        return setRadius(radius, radius, radius, radius);
+    }
+
+    public ShadowSpec setRadius(float leftTop, float rightTop, float rightBottom, float leftBottom) {
+        radiusLeftTop = leftTop;
+        radiusRightTop = rightTop;
+        radiusRightBottom = rightBottom;
+        radiusLeftBottom = leftBottom;
+        return this;
+    }
+
+    public ShadowSpec copy() {
+        ShadowSpec spec = new ShadowSpec(width, height);
+        spec.shadowColor = shadowColor;
+        spec.shadowDx = shadowDx;
+        spec.shadowDy = shadowDy;
+        spec.shadowBlur = shadowBlur;
+        spec.shadowSpread = shadowSpread;
+        spec.shadowInset = shadowInset;
+        spec.shadowType = shadowType;
+        spec.shadowClip = shadowClip;
+        spec.setRadius(radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom);
+        spec.borderThickness = borderThickness;
+        spec.borderColor = borderColor;
+        spec.borderType = borderType;
+        spec.fillColor = fillColor;
+        spec.density = density;
+        return spec;
+    }
+
+    @Override
+    public String toString() {
+        return "ShadowSpec(" + width + "x" + height
+                + (shadowInset ? " inset" : " outer")
+                + (shadowType == TYPE_HARD ? " hard" : " soft")
+                + " blur=" + shadowBlur + " spread=" + shadowSpread
+                + " dx=" + shadowDx + " dy=" + shadowDy + " clip=" + shadowClip
+                + " radius=[" + radiusLeftTop + ", " + radiusRightTop + ", " + radiusRightBottom + ", " + radiusLeftBottom + "]"
+                + " border=" + borderThickness + (borderType == BORDER_DASHED ? " dashed" : " solid")
+                + ")";
+    }
+}
@@ -0,0 +1,287 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:26
+ * 说明：硬阴影的分块描述 四个圆角扇环与四条边的梯形 以及各自的渐变参数
+ * 圆角使用径向渐变 边使用线性渐变 颜色由使用方决定 渐变从内侧颜色到外侧颜色
+ * 对象可重复 compute 同一对象在重建时复用
+ */
+public final class SplitGeometry {
+    public final Corner leftTop = new Corner();
+    public final Corner rightTop = new Corner();
+    public final Corner rightBottom = new Corner();
+    public final Corner leftBottom = new Corner();
+    public final Side left = new Side();
+    public final Side top = new Side();
+    public final Side right = new Side();
+    public final Side bottom = new Side();
+    private final CornerAngles outerAngles = new CornerAngles();
+    private final CornerAngles innerAngles = new CornerAngles();
+    private boolean empty = true;
+
+    /**
+     * 外部区域没有尺寸 所有分块都不存在
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * 由圆角矩形向外或向内扩展 thickness 得到环形区域
+     *
+     * @param thickness 正外 负内
+     */
+    public void compute(float rectLeft, float rectTop, float rectRight, float rectBottom, float thickness,
+                        float radiusLeftTop, float radiusRightTop, float radiusRightBottom, float radiusLeftBottom) {
+        if (thickness > 0) {
+            compute(rectLeft - thickness, rectTop - thickness,
+                    rectRight + thickness, rectBottom + thickness,
+                    rectLeft, rectTop, rectRight, rectBottom,
+                    radiusLeftTop + thickness, radiusRightTop + thickness,
+                    radiusRightBottom + thickness, radiusLeftBottom + thickness,
+                    radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom);
+        } else {
+            thickness = -thickness;
+            compute(rectLeft, rectTop, rectRight, rectBottom,
+                    rectLeft + thickness, rectTop + thickness,
+                    rectRight - thickness, rectBottom - thickness,
+                    radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom,
+                    radiusLeftTop - thickness, radiusRightTop - thickness,
+                    radiusRightBottom - thickness, radiusLeftBottom - thickness);
+        }
+    }
+
+    public void compute(
+            float outerLeft, float outerTop, float outerRight, float outerBottom,
+            float innerLeft, float innerTop, float innerRight, float innerBottom,
+            float outerRadiusLeftTop, float outerRadiusRightTop, float outerRadiusRightBottom, float outerRadiusLeftBottom,
+            float innerRadiusLeftTop, float innerRadiusRightTop, float innerRadiusRightBottom, float innerRadiusLeftBottom
+    ) {
+        if (outerRight <= outerLeft || outerBottom <= outerTop) {
+            empty = true;
+            leftTop.present = rightTop.present = rightBottom.present = leftBottom.present = false;
+            left.present = top.present = right.present = bottom.present = false;
+            return;
+        }
+        empty = false;
+        if (innerRight < innerLeft) {
+            innerLeft = innerRight = (innerLeft + innerRight) / 2f;
+            // 没有尺寸
+            innerRadiusLeftTop = innerRadiusRightTop = innerRadiusRightBottom = innerRadiusLeftBottom = 0;
+        }
+        if (innerBottom < innerTop) {
+            innerTop = innerBottom = (innerTop + innerBottom) / 2f;
+            // 没有尺寸
+            innerRadiusLeftTop = innerRadiusRightTop = innerRadiusRightBottom = innerRadiusLeftBottom = 0;
+        }
+        float disLeft = innerLeft - outerLeft;
+        float disTop = innerTop - outerTop;
+        float disRight = outerRight - innerRight;
+        float disBottom = outerBottom - innerBottom;
+        innerRadiusLeftTop = Math.max(innerRadiusLeftTop, 0);
+        innerRadiusRightTop = Math.max(innerRadiusRightTop, 0);
+        innerRadiusRightBottom = Math.max(innerRadiusRightBottom, 0);
+        innerRadiusLeftBottom = Math.max(innerRadiusLeftBottom, 0);
+        outerAngles.compute(outerLeft, outerTop, outerRight, outerBottom,
+                outerRadiusLeftTop, outerRadiusRightTop, outerRadiusRightBottom, outerRadiusLeftBottom);
+        innerAngles.compute(innerLeft, innerTop, innerRight, innerBottom,
+                innerRadiusLeftTop, innerRadiusRightTop, innerRadiusRightBottom, innerRadiusLeftBottom);
+        CornerAngles o = outerAngles;
+        CornerAngles i = innerAngles;
+        float doubleRadius;
+        // 左上角
+        leftTop.present = outerRadiusLeftTop != 0;
+        if (leftTop.present) {
+            doubleRadius = outerRadiusLeftTop * 2f;
+            leftTop.outerOval.set(outerLeft, outerTop, outerLeft + doubleRadius, outerTop + doubleRadius);
+            leftTop.outerStartAngle = o.angleLeftTop;
+            leftTop.outerSweepAngle = o.angleTopLeft - o.angleLeftTop;
+            leftTop.innerArc = innerRadiusLeftTop != 0;
+            if (leftTop.innerArc) {
+                doubleRadius = innerRadiusLeftTop * 2f;
+                leftTop.innerOval.set(innerLeft, innerTop, innerLeft + doubleRadius, innerTop + doubleRadius);
+                leftTop.innerStartAngle = i.angleTopLeft;
+                leftTop.innerSweepAngle = i.angleLeftTop - i.angleTopLeft;
+                leftTop.setRadialGradient(outerLeft + outerRadiusLeftTop, outerTop + outerRadiusLeftTop,
+                        outerRadiusLeftTop, innerRadiusLeftTop / outerRadiusLeftTop);
+            } else {
+                leftTop.innerX = innerLeft;
+                leftTop.innerY = innerTop;
+                leftTop.setPointGradient(innerLeft, innerTop, disLeft, disTop);
+            }
+        }
+        // 右上角
+        rightTop.present = outerRadiusRightTop != 0;
+        if (rightTop.present) {
+            doubleRadius = outerRadiusRightTop * 2f;
+            rightTop.outerOval.set(outerRight - doubleRadius, outerTop, outerRight, outerTop + doubleRadius);
+            rightTop.outerStartAngle = o.angleTopRight;
+            rightTop.outerSweepAngle = o.angleRightTop - o.angleTopRight;
+            rightTop.innerArc = innerRadiusRightTop != 0;
+            if (rightTop.innerArc) {
+                doubleRadius = innerRadiusRightTop * 2f;
+                rightTop.innerOval.set(innerRight - doubleRadius, innerTop, innerRight, innerTop + doubleRadius);
+                rightTop.innerStartAngle = i.angleRightTop;
+                rightTop.innerSweepAngle = i.angleTopRight - i.angleRightTop;
+                rightTop.setRadialGradient(outerRight - outerRadiusRightTop, outerTop + outerRadiusRightTop,
+                        outerRadiusRightTop, innerRadiusRightTop / outerRadiusRightTop);
+            } else {
+                rightTop.innerX = innerRight;
+                rightTop.innerY = innerTop;
+                rightTop.setPointGradient(innerRight, innerTop, disRight, disTop);
+            }
+        }
+        // 右下角
+        rightBottom.present = outerRadiusRightBottom != 0;
+        if (rightBottom.present) {
+            doubleRadius = outerRadiusRightBottom * 2f;
+            rightBottom.outerOval.set(outerRight - doubleRadius, outerBottom - doubleRadius, outerRight, outerBottom);
+            rightBottom.outerStartAngle = o.angleRightBottom;
+            rightBottom.outerSweepAngle = o.angleBottomRight - o.angleRightBottom;
+            rightBottom.innerArc = innerRadiusRightBottom != 0;
+            if (rightBottom.innerArc) {
+                doubleRadius = innerRadiusRightBottom * 2f;
+                rightBottom.innerOval.set(innerRight - doubleRadius, innerBottom - doubleRadius, innerRight, innerBottom);
+                rightBottom.innerStartAngle = i.angleBottomRight;
+                rightBottom.innerSweepAngle = i.angleRightBottom - i.angleBottomRight;
+                rightBottom.setRadialGradient(outerRight - outerRadiusRightBottom, outerBottom - outerRadiusRightBottom,
+                        outerRadiusRightBottom, innerRadiusRightBottom / outerRadiusRightBottom);
+            } else {
+                rightBottom.innerX = innerRight;
+                rightBottom.innerY = innerBottom;
+                rightBottom.setPointGradient(innerRight, innerBottom, disRight, disBottom);
+            }
+        }
+        // 左下角
+        leftBottom.present = outerRadiusLeftBottom != 0;
+        if (leftBottom.present) {
+            doubleRadius = outerRadiusLeftBottom * 2f;
+            leftBottom.outerOval.set(outerLeft, outerBottom - doubleRadius, outerLeft + doubleRadius, outerBottom);
+            leftBottom.outerStartAngle = o.angleBottomLeft;
+            leftBottom.outerSweepAngle = o.angleLeftBottom - o.angleBottomLeft;
+            leftBottom.innerArc = innerRadiusLeftBottom != 0;
+            if (leftBottom.innerArc) {
+                doubleRadius = innerRadiusLeftBottom * 2f;
+                leftBottom.innerOval.set(innerLeft, innerBottom - doubleRadius, innerLeft + doubleRadius, innerBottom);
+                leftBottom.innerStartAngle = i.angleLeftBottom;
+                leftBottom.innerSweepAngle = i.angleBottomLeft - i.angleLeftBottom;
+                leftBottom.setRadialGradient(outerLeft + outerRadiusLeftBottom, outerBottom - outerRadiusLeftBottom,
+                        outerRadiusLeftBottom, innerRadiusLeftBottom / outerRadiusLeftBottom);
+            } else {
+                leftBottom.innerX = innerLeft;
+                leftBottom.innerY = innerBottom;
+                leftBottom.setPointGradient(innerLeft, innerBottom, disLeft, disBottom);
+            }
+        }
+        float outerWidth = outerRight - outerLeft;
+        float outerHeight = outerBottom - outerTop;
+        // 左侧梯形
+        left.present = outerHeight - o.sizeLeftTop - o.sizeLeftBottom > 0;
+        left.set(outerLeft, outerTop + o.sizeLeftTop,
+                innerLeft, innerTop + i.sizeLeftTop,
+                innerLeft, innerBottom - i.sizeLeftBottom,
+                outerLeft, outerBottom - o.sizeLeftBottom);
+        left.setGradient(innerLeft, 0, outerLeft, 0);
+        // 上侧梯形
+        top.present = outerWidth - o.sizeTopLeft - o.sizeTopRight > 0;
+        top.set(outerLeft + o.sizeTopLeft, outerTop,
+                innerLeft + i.sizeTopLeft, innerTop,
+                innerRight - i.sizeTopRight, innerTop,
+                outerRight - o.sizeTopRight, outerTop);
+        top.setGradient(0, innerTop, 0, outerTop);
+        // 右侧梯形
+        right.present = outerHeight - o.sizeRightTop - o.sizeRightBottom > 0;
+        right.set(outerRight, outerTop + o.sizeRightTop,
+                innerRight, innerTop + i.sizeRightTop,
+                innerRight, innerBottom - i.sizeRightBottom,
+                outerRight, outerBottom - o.sizeRightBottom);
+        right.setGradient(innerRight, 0, outerRight, 0);
+        // 下侧梯形
+        bottom.present = outerWidth - o.sizeBottomLeft - o.sizeBottomRight > 0;
+        bottom.set(outerLeft + o.sizeBottomLeft, outerBottom,
+                innerLeft + i.sizeBottomLeft, innerBottom,
+                innerRight - i.sizeBottomRight, innerBottom,
+                outerRight - o.sizeBottomRight, outerBottom);
+        bottom.setGradient(0, innerBottom, 0, outerBottom);
+    }
+
+    /**
+     * 圆角扇环 外圆弧 + 内圆弧或内角点
+     */
+    public static final class Corner {
+        public boolean present;
+        public final Bounds outerOval = new Bounds();
+        public int outerStartAngle;
+        public int outerSweepAngle;
+        // 是否有内圆弧 没有时连接到内角点
+        public boolean innerArc;
+        public final Bounds innerOval = new Bounds();
+        public int innerStartAngle;
+        public int innerSweepAngle;
+        public float innerX;
+        public float innerY;
+        // 径向渐变
+        public float gradientCenterX;
+        public float gradientCenterY;
+        public float gradientRadius;
+        // 有内圆弧时 内侧颜色保持到的位置 0 到 1 没有内圆弧时为 0
+        public float gradientStop;
+
+        private void setRadialGradient(float centerX, float centerY, float radius, float stop) {
+            gradientCenterX = centerX;
+            gradientCenterY = centerY;
+            gradientRadius = radius;
+            gradientStop = stop;
+        }
+
+        /**
+         * 内角点的渐变 取较厚一边为半径 圆心沿较薄一边偏移
+         *
+         * @param h 水平方向厚度
+         * @param v 垂直方向厚度
+         */
+        private void setPointGradient(float x, float y, float h, float v) {
+            float radius;
+            float offsetX = 0, offsetY = 0;
+            if (v > h) {
+                radius = v;
+                offsetX = h - v;
+            } else {
+                radius = h;
+                offsetY = v - h;
+            }
+            setRadialGradient(x + offsetX, y + offsetY, radius, 0);
+        }
+    }
+
+    /**
+     * 边的梯形 四个顶点依次为 外起点 内起点 内终点 外终点
+     */
+    public static final class Side {
+        public boolean present;
+        public float x0, y0, x1, y1, x2, y2, x3, y3;
+        // 线性渐变 从内侧到外侧
+        public float gradientX0, gradientY0, gradientX1, gradientY1;
+
+        private void set(float x0, float y0, float x1, float y1, float x2, float y2, float x3, float y3) {
+            this.x0 = x0;
+            this.y0 = y0;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.x2 = x2;
+            this.y2 = y2;
+            this.x3 = x3;
+            this.y3 = y3;
+        }
+
+        private void setGradient(float x0, float y0, float x1, float y1) {
+            gradientX0 = x0;
+            gradientY0 = y0;
+            gradientX1 = x1;
+            gradientY1 = y1;
+        }
+    }
+}
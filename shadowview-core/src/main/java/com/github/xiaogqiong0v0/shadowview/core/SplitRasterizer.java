@@ -0,0 +1,136 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:40
+ * 说明：按 SplitGeometry 的分块光栅化硬阴影 与 Android 上的硬阴影路径相同
+ * 圆角扇环使用径向渐变 边的梯形使用线性渐变 其余为纯色区域 圆弧折线化后做奇偶填充
+ * 软阴影与其它部分沿用参考实现 用于和 ReferenceRasterizer 做差异比对
+ */
+public class SplitRasterizer extends ReferenceRasterizer {
+    // 每 90 度圆弧的折线段数
+    private static final int ARC_SEGMENTS = 32;
+
+    private final SplitGeometry split = new SplitGeometry();
+    private final SplitGeometry.Corner[] corners = {split.leftTop, split.rightTop, split.rightBottom, split.leftBottom};
+    private final SplitGeometry.Side[] sides = {split.left, split.top, split.right, split.bottom};
+    private final float[][] cornerPolygons = new float[4][];
+    private float thickness;
+
+    @Override
+    protected void prepareHardShadow(ShadowSpec spec, Bounds area, float thickness,
+                                     float radiusLeftTop, float radiusRightTop,
+                                     float radiusRightBottom, float radiusLeftBottom) {
+        super.prepareHardShadow(spec, area, thickness,
+                radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom);
+        this.thickness = thickness;
+        split.compute(area.left, area.top, area.right, area.bottom, thickness,
+                radiusLeftTop, radiusRightTop, radiusRightBottom, radiusLeftBottom);
+        for (int i = 0; i < corners.length; i++) {
+            cornerPolygons[i] = corners[i].present ? cornerPolygon(corners[i]) : null;
+        }
+    }
+
+    @Override
+    protected float hardShadowLevel(float x, float y) {
+        float fraction = -1;
+        // 与绘制顺序相同 后绘制的覆盖先绘制的
+        for (int i = 0; i < corners.length; i++) {
+            if (cornerPolygons[i] != null && contains(cornerPolygons[i], x, y)) {
+                fraction = cornerFraction(corners[i], x, y);
+            }
+        }
+        for (SplitGeometry.Side side : sides) {
+            if (side.present && containsSide(side, x, y)) {
+                fraction = sideFraction(side, x, y);
+            }
+        }
+        float distance = hardAreaDistance(x, y);
+        // 纯色区域 外阴影为形状内部 内阴影为挖空区域外部
+        if (thickness > 0 ? distance < 0 : distance >= 0) {
+            return 1;
+        }
+        if (fraction < 0) {
+            return -1;
+        }
+        // 外阴影从阴影颜色到透明 内阴影从透明到阴影颜色
+        return thickness > 0 ? 1 - fraction : fraction;
+    }
+
+    /**
+     * 渐变位置 0 为内侧颜色 1 为外侧颜色
+     */
+    private static float cornerFraction(SplitGeometry.Corner corner, float x, float y) {
+        float t = (float) Math.hypot(x - corner.gradientCenterX, y - corner.gradientCenterY) / corner.gradientRadius;
+        t = Math.min(1, t);
+        if (!corner.innerArc) {
+            return t;
+        }
+        float stop = corner.gradientStop;
+        return t <= stop ? 0 : (t - stop) / (1 - stop);
+    }
+
+    private static float sideFraction(SplitGeometry.Side side, float x, float y) {
+        float dx = side.gradientX1 - side.gradientX0;
+        float dy = side.gradientY1 - side.gradientY0;
+        float t = ((x - side.gradientX0) * dx + (y - side.gradientY0) * dy) / (dx * dx + dy * dy);
+        return Math.max(0, Math.min(1, t));
+    }
+
+    /**
+     * 外圆弧 再连到内圆弧或内角点 与 ShadowParams 的分块路径相同
+     */
+    private static float[] cornerPolygon(SplitGeometry.Corner corner) {
+        int outerCount = arcPointCount(corner.outerSweepAngle);
+        int innerCount = corner.innerArc ? arcPointCount(corner.innerSweepAngle) : 1;
+        float[] polygon = new float[(outerCount + innerCount) * 2];
+        int index = arcPoints(polygon, 0, corner.outerOval, corner.outerStartAngle, corner.outerSweepAngle, outerCount);
+        if (corner.innerArc) {
+            arcPoints(polygon, index, corner.innerOval, corner.innerStartAngle, corner.innerSweepAngle, innerCount);
+        } else {
+            polygon[index] = corner.innerX;
+            polygon[index + 1] = corner.innerY;
+        }
+        return polygon;
+    }
+
+    private static int arcPointCount(int sweepAngle) {
+        return Math.max(2, (int) Math.ceil(Math.abs(sweepAngle) / 90f * ARC_SEGMENTS) + 1);
+    }
+
+    private static int arcPoints(float[] out, int index, Bounds oval, int startAngle, int sweepAngle, int count) {
+        float cx = (oval.left + oval.right) / 2f;
+        float cy = (oval.top + oval.bottom) / 2f;
+        float rx = oval.width() / 2f;
+        float ry = oval.height() / 2f;
+        for (int i = 0; i < count; i++) {
+            double radians = Math.toRadians(startAngle + sweepAngle * i / (double) (count - 1));
+            out[index++] = (float) (cx + rx * Math.cos(radians));
+            out[index++] = (float) (cy + ry * Math.sin(radians));
+        }
+        return index;
+    }
+
+    private static boolean containsSide(SplitGeometry.Side side, float x, float y) {
+        float[] polygon = {side.x0, side.y0, side.x1, side.y1, side.x2, side.y2, side.x3, side.y3};
+        return contains(polygon, x, y);
+    }
+
+    /**
+     * 奇偶规则
+     */
+    private static boolean contains(float[] polygon, float x, float y) {
+        boolean inside = false;
+        int count = polygon.length / 2;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            float xi = polygon[i * 2], yi = polygon[i * 2 + 1];
+            float xj = polygon[j * 2], yj = polygon[j * 2 + 1];
+            if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 10:03
+ * 说明：解析软阴影与参考实现高斯卷积的差异
+ */
+public class AnalyticShadowTest {
+    private final ReferenceRasterizer reference = new ReferenceRasterizer();
+    private final AnalyticRasterizer analytic = new AnalyticRasterizer();
+
+    @Test
+    public void rect_isSeparable() {
+        int width = 80;
+        float[] out = new float[width * 60];
+        new AnalyticShadow().setRect(10, 8, 70, 52, 0, 0, 0, 0).setSigma(3).render(out, width, 60);
+        // 中心接近 1 边缘中点约为一半 角约为边缘中点的平方
+        assertEquals(1, out[30 * width + 40], 0.001f);
+        float edge = out[30 * width + 10];
+        assertEquals(0.5f, edge, 0.1f);
+        assertEquals(edge * edge, out[8 * width + 10], 0.001f);
+        assertEquals(0, out[0], 0.001f);
+        // 模糊为 0 时为精确的覆盖率
+        new AnalyticShadow().setRect(10.25f, 8, 70, 52, 0, 0, 0, 0).setSigma(0).render(out, width, 60);
+        assertEquals(0.75f, out[30 * width + 10], 0.001f);
+        assertEquals(1, out[30 * width + 11], 0.001f);
+        assertEquals(0, out[30 * width + 9], 0.001f);
+    }
+
+    /**
+     * 参考实现 4x4 超采样 小 sigma 时离散采样的高斯核与连续核也有差别 差异集中在圆弧边缘
+     */
+    @Test
+    public void softShadow_matchesReference() {
+        for (ShadowSpec spec : softSpecs()) {
+            RasterDiff.Result result = RasterDiff.compare(reference, analytic, spec, 4);
+            assertTrue(spec + " " + result, result.within(0.005f));
+        }
+    }
+
+    private static List<ShadowSpec> softSpecs() {
+        List<ShadowSpec> specs = new ArrayList<>();
+        for (int inset = 0; inset < 2; inset++) {
+            for (int blur : new int[]{0, 3, 12, 40}) {
+                for (int corner = 0; corner < 3; corner++) {
+                    ShadowSpec spec = new ShadowSpec(160, 120);
+                    spec.shadowInset = inset == 1;
+                    spec.shadowColor = 0xB0000000;
+                    spec.shadowBlur = blur;
+                    spec.shadowSpread = 2;
+                    spec.shadowDx = -2;
+                    spec.shadowDy = 3;
+                    if (corner == 1) {
+                        spec.setRadius(12);
+                    } else if (corner == 2) {
+                        // 四角不同 其中一角为直角 一角接近较短边的一半
+                        spec.setRadius(0, 6, 30, 16);
+                    }
+                    spec.fillColor = 0xFFFFFFFF;
+                    specs.add(spec);
+                }
+            }
+        }
+        return specs;
+    }
+}
@@ -0,0 +1,171 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:56
+ * 说明：遮罩模糊的基本性质 以及软阴影与参考实现高斯卷积的差异
+ */
+public class MaskBlurTest {
+    private final ReferenceRasterizer reference = new ReferenceRasterizer();
+
+    @Test
+    public void boxesForSigma_matchVariance() {
+        for (float sigma = 1; sigma < 40; sigma += 0.7f) {
+            float variance = 0;
+            for (int radius : MaskBlur.boxesForSigma(sigma)) {
+                // 宽度 2r+1 的盒式核方差为 ((2r+1)^2 - 1) / 12
+                int width = radius * 2 + 1;
+                variance += (width * width - 1) / 12f;
+            }
+            assertEquals(sigma, Math.sqrt(variance), 0.6f);
+            int radius = MaskBlur.stackRadius(sigma);
+            assertEquals(sigma, Math.sqrt(radius * (radius + 2) / 6f), 0.6f);
+        }
+    }
+
+    @Test
+    public void blur_conservesMassAndSymmetry() {
+        for (int mode : new int[]{MaskBlur.MODE_BOX3, MaskBlur.MODE_STACK}) {
+            int size = 64;
+            byte[] mask = new byte[size * size];
+            for (int y = 24; y < 40; y++) {
+                for (int x = 24; x < 40; x++) {
+                    mask[y * size + x] = (byte) 0xFF;
+                }
+            }
+            long before = sum(mask);
+            new MaskBlur(mode).blur(mask, 0, size, size, size, 5);
+            assertEquals(before, sum(mask), before * 0.01);
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    assertEquals(value(mask, size, x, y), value(mask, size, size - 1 - x, y), 1);
+                    assertEquals(value(mask, size, x, y), value(mask, size, y, x), 1);
+                }
+            }
+            assertTrue(value(mask, size, 32, 32) > value(mask, size, 24, 32));
+            assertTrue(value(mask, size, 20, 32) > 0);
+        }
+    }
+
+    @Test
+    public void blur_onlyTouchesRegion() {
+        int stride = 20;
+        byte[] mask = new byte[stride * 20];
+        java.util.Arrays.fill(mask, (byte) 7);
+        for (int y = 5; y < 15; y++) {
+            for (int x = 5; x < 15; x++) {
+                mask[y * stride + x] = (byte) 0xFF;
+            }
+        }
+        new MaskBlur(MaskBlur.MODE_BOX3).blur(mask, 5 * stride + 5, stride, 10, 10, 3);
+        assertEquals(7, mask[0]);
+        assertEquals(7, mask[4 * stride + 10]);
+        assertEquals(7, mask[10 * stride + 15]);
+        assertTrue((mask[5 * stride + 5] & 0xFF) < 0xFF);
+    }
+
+    /**
+     * 三次盒式模糊与高斯卷积很接近 三角核尾部较短 容差更大
+     */
+    @Test
+    public void softShadow_matchesReference() {
+        BlurRasterizer box = new BlurRasterizer(MaskBlur.MODE_BOX3);
+        BlurRasterizer stack = new BlurRasterizer(MaskBlur.MODE_STACK);
+        for (ShadowSpec spec : softSpecs()) {
+            RasterDiff.Result boxResult = RasterDiff.compare(reference, box, spec, 4);
+            assertTrue("box " + spec + " " + boxResult, boxResult.within(0.01f));
+            RasterDiff.Result stackResult = RasterDiff.compare(reference, stack, spec, 10);
+            assertTrue("stack " + spec + " " + stackResult, stackResult.within(0.01f));
+        }
+    }
+
+    /**
+     * 低分辨率生成后双线性放大 与全分辨率的差值不超过允许的误差 量化多 1 级
+     * 低分辨率四周多一个像素 边缘的像素也在两个采样点之间插值
+     */
+    @Test
+    public void downsample_withinMaxError() {
+        assertEquals(1, MaskBlur.downsampleFactor(4, 2 / 255f));
+        assertEquals(1, MaskBlur.downsampleFactor(100, 0));
+        int width = 400;
+        int height = 300;
+        for (float sigma : new float[]{12, 40, 108}) {
+            for (int levels : new int[]{1, 2, 8}) {
+                int factor = MaskBlur.downsampleFactor(sigma, levels / 255f);
+                float[] full = new float[width * height];
+                AnalyticShadow analytic = new AnalyticShadow().setRect(60, 50, 340, 250, 0, 30, 60, 10).setSigma(sigma);
+                analytic.render(full, width, height);
+                int lowWidth = (width + factor - 1) / factor + 2;
+                int lowHeight = (height + factor - 1) / factor + 2;
+                float[] low = new float[lowWidth * lowHeight];
+                analytic.setRect(60f / factor + 1, 50f / factor + 1, 340f / factor + 1, 250f / factor + 1,
+                        0, 30f / factor, 60f / factor, 10f / factor).setSigma(MaskBlur.downsampledSigma(sigma, factor));
+                analytic.render(low, lowWidth, lowHeight);
+                int maxDelta = 0;
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        float value = bilinear(low, lowWidth, lowHeight, (x + 0.5f) / factor + 0.5f, (y + 0.5f) / factor + 0.5f);
+                        int delta = Math.abs(Math.round(value * 255) - Math.round(full[y * width + x] * 255));
+                        maxDelta = Math.max(maxDelta, delta);
+                    }
+                }
+                assertTrue("sigma " + sigma + " factor " + factor + " delta " + maxDelta, maxDelta <= levels + 1);
+            }
+        }
+    }
+
+    private static float bilinear(float[] data, int width, int height, float u, float v) {
+        u = Math.max(0, Math.min(width - 1, u));
+        v = Math.max(0, Math.min(height - 1, v));
+        int x0 = (int) u;
+        int y0 = (int) v;
+        int x1 = Math.min(x0 + 1, width - 1);
+        int y1 = Math.min(y0 + 1, height - 1);
+        float fx = u - x0;
+        float fy = v - y0;
+        float top = data[y0 * width + x0] * (1 - fx) + data[y0 * width + x1] * fx;
+        float bottom = data[y1 * width + x0] * (1 - fx) + data[y1 * width + x1] * fx;
+        return top * (1 - fy) + bottom * fy;
+    }
+
+    private static List<ShadowSpec> softSpecs() {
+        List<ShadowSpec> specs = new ArrayList<>();
+        for (int inset = 0; inset < 2; inset++) {
+            for (int blur : new int[]{4, 12, 24}) {
+                for (float radius : new float[]{0, 10}) {
+                    ShadowSpec spec = new ShadowSpec(120, 96);
+                    spec.shadowInset = inset == 1;
+                    spec.shadowColor = 0xB0000000;
+                    spec.shadowBlur = blur;
+                    spec.shadowSpread = 2;
+                    spec.shadowDy = 3;
+                    spec.setRadius(radius);
+                    spec.fillColor = 0xFFFFFFFF;
+                    specs.add(spec);
+                }
+            }
+        }
+        return specs;
+    }
+
+    private static long sum(byte[] mask) {
+        long sum = 0;
+        for (byte value : mask) {
+            sum += value & 0xFF;
+        }
+        return sum;
+    }
+
+    private static int value(byte[] mask, int stride, int x, int y) {
+        return mask[y * stride + x] & 0xFF;
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 10:10
+ * 说明：分带并行的结果与单线程逐字节相同
+ */
+public class ParallelMaskTest {
+    private final ParallelMask parallel = new ParallelMask(4);
+
+    @After
+    public void tearDown() {
+        parallel.shutdown();
+    }
+
+    @Test
+    public void blur_matchesSingleThread() {
+        parallel.setThreshold(0);
+        int stride = 203;
+        int width = 200;
+        int height = 170;
+        byte[] source = new byte[stride * height + 5];
+        new Random(7).nextBytes(source);
+        for (int mode : new int[]{MaskBlur.MODE_BOX3, MaskBlur.MODE_STACK}) {
+            for (float sigma : new float[]{1.5f, 6, 30}) {
+                byte[] expected = source.clone();
+                new MaskBlur(mode).blur(expected, 5, stride, width, height, sigma);
+                byte[] actual = source.clone();
+                parallel.blur(mode, actual, 5, stride, width, height, sigma);
+                assertArrayEquals("mode " + mode + " sigma " + sigma, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void render_matchesSingleThread() {
+        parallel.setThreshold(0);
+        int width = 240;
+        int height = 300;
+        AnalyticShadow shape = new AnalyticShadow()
+                .setRect(30, 40, 210, 260, 0, 12, 40, 8)
+                .setFrame(-10, -10, 250, 310)
+                .setSigma(9);
+        byte[] expected = new byte[width * height];
+        shape.render(expected, 0, width, width, height);
+        byte[] actual = new byte[width * height];
+        parallel.render(shape, actual, 0, width, width, height);
+        assertArrayEquals(expected, actual);
+        // 第二次复用各条带的实例
+        shape.clearFrame().setSigma(20);
+        shape.render(expected, 0, width, width, height);
+        parallel.render(shape, actual, 0, width, width, height);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void blur_rethrowsOnCallerThread() {
+        parallel.setThreshold(0);
+        parallel.blur(MaskBlur.MODE_BOX3, new byte[100 * 100 - 1], 0, 100, 100, 100, 4);
+    }
+
+    @Test
+    public void shutdown_runsOnCallerThread() {
+        parallel.setThreshold(0);
+        parallel.shutdown();
+        Set<Thread> before = maskThreads();
+        int width = 200;
+        int height = 200;
+        AnalyticShadow shape = new AnalyticShadow()
+                .setRect(20, 20, 180, 180, 0, 8, 8, 8)
+                .setSigma(6);
+        byte[] expected = new byte[width * height];
+        shape.render(expected, 0, width, width, height);
+        byte[] actual = new byte[width * height];
+        parallel.render(shape, actual, 0, width, width, height);
+        parallel.blur(MaskBlur.MODE_BOX3, actual.clone(), 0, width, width, height, 4);
+        assertArrayEquals(expected, actual);
+        // 没有重新创建线程池
+        assertTrue(before.containsAll(maskThreads()));
+    }
+
+    private static Set<Thread> maskThreads() {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("ShadowMask-")) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:40
+ * 说明：参考光栅化的基本性质 以及各快速路径与参考实现的差异比对
+ */
+public class ReferenceRasterizerTest {
+    // 快速路径允许的通道差值与超出比例
+    private static final int TOLERANCE = 4;
+    private static final float MISMATCH_RATIO = 0.002f;
+
+    private final ReferenceRasterizer reference = new ReferenceRasterizer();
+
+    @Test
+    public void hardOuterShadow_fallsOffLinearly() {
+        ShadowSpec spec = new ShadowSpec(100, 60);
+        spec.shadowType = ShadowSpec.TYPE_HARD;
+        spec.shadowBlur = 10;
+        int[] pixels = reference.rasterize(spec);
+        // 显示区域 (10, 10, 90, 50) 像素中心到边缘 5.5
+        assertEquals(0.45f * 255, alpha(pixels, spec, 4, 30), 2);
+        assertEquals(0.95f * 255, alpha(pixels, spec, 9, 30), 2);
+        // 显示区域内被挖去
+        assertEquals(0, alpha(pixels, spec, 50, 30));
+        // 超出厚度没有阴影
+        assertEquals(0, alpha(pixels, spec, 0, 0), 1);
+    }
+
+    @Test
+    public void softOuterShadow_symmetricAndDecreasing() {
+        ShadowSpec spec = new ShadowSpec(80, 80);
+        spec.shadowBlur = 12;
+        spec.setRadius(8);
+        int[] pixels = reference.rasterize(spec);
+        for (int y = 0; y < spec.height; y++) {
+            for (int x = 0; x < spec.width / 2; x++) {
+                assertEquals(alpha(pixels, spec, x, y), alpha(pixels, spec, spec.width - 1 - x, y), 1);
+                assertEquals(alpha(pixels, spec, y, x), alpha(pixels, spec, x, y), 1);
+            }
+        }
+        for (int x = 1; x < 12; x++) {
+            assertTrue(alpha(pixels, spec, x, 40) >= alpha(pixels, spec, x - 1, 40));
+        }
+        assertEquals(0, alpha(pixels, spec, 40, 40));
+    }
+
+    @Test
+    public void insetShadow_darkAtEdgeClearInCenter() {
+        ShadowSpec spec = new ShadowSpec(80, 60);
+        spec.shadowInset = true;
+        spec.shadowBlur = 8;
+        spec.fillColor = 0xFFFFFFFF;
+        spec.setRadius(10);
+        int[] pixels = reference.rasterize(spec);
+        assertEquals(0xFFFFFFFF, pixels[30 * spec.width + 40]);
+        // 边缘被阴影压暗
+        assertTrue((pixels[30 * spec.width + 1] & 0xFF) < 0xC0);
+        // 圆角外部透明
+        assertEquals(0, alpha(pixels, spec, 0, 0));
+    }
+
+    @Test
+    public void clippedSide_contentReachesEdge() {
+        ShadowSpec spec = new ShadowSpec(60, 40);
+        spec.shadowBlur = 8;
+        spec.shadowClip = ShadowGeometry.CLIP_LEFT;
+        spec.fillColor = 0xFF2196F3;
+        int[] pixels = reference.rasterize(spec);
+        assertEquals(0xFF2196F3, pixels[20 * spec.width]);
+        assertNotEquals(0xFF2196F3, pixels[20 * spec.width + spec.width - 1]);
+    }
+
+    @Test
+    public void dashedBorder_twoThirdsOfSolid() {
+        ShadowSpec solid = new ShadowSpec(120, 120);
+        solid.shadowInset = true;
+        solid.borderThickness = 4;
+        solid.borderColor = 0xFFFF0000;
+        ShadowSpec dashed = solid.copy();
+        dashed.borderType = ShadowSpec.BORDER_DASHED;
+        float solidCoverage = coverage(reference.rasterize(solid));
+        float dashedCoverage = coverage(reference.rasterize(dashed));
+        assertEquals(solidCoverage * 2 / 3, dashedCoverage, solidCoverage * 0.05f);
+        // 上边从左上角开始 8 实 4 空
+        int[] pixels = reference.rasterize(dashed);
+        assertEquals(255, alpha(pixels, dashed, 4, 1));
+        assertEquals(0, alpha(pixels, dashed, 10, 1));
+        assertEquals(255, alpha(pixels, dashed, 14, 1));
+    }
+
+    @Test
+    public void rasterDiff_comparesPremultipliedChannels() {
+        assertEquals(0, RasterDiff.delta(0x00FF0000, 0x0000FF00));
+        assertEquals(255, RasterDiff.delta(0xFFFF0000, 0xFF00FF00));
+        RasterDiff.Result result = RasterDiff.compare(new int[]{0xFF000000, 0}, new int[]{0xF0000000, 0}, 2, 1, 4);
+        assertEquals(1, result.mismatchCount);
+        assertEquals(15, result.maxDelta);
+        assertEquals(0, result.maxX);
+    }
+
+    /**
+     * 硬阴影的分块渐变与按距离定义的参考实现一致
+     * 内阴影圆角在 0 到模糊半径之间时 分块使用内角点的径向渐变 与真实距离不同 不在比对范围内
+     */
+    @Test
+    public void splitRasterizer_matchesReference() {
+        SplitRasterizer split = new SplitRasterizer();
+        for (ShadowSpec spec : hardSpecs()) {
+            RasterDiff.Result result = RasterDiff.compare(reference, split, spec, TOLERANCE);
+            assertTrue(spec + " " + result, result.within(MISMATCH_RATIO));
+        }
+    }
+
+    private static List<ShadowSpec> hardSpecs() {
+        float[][] outerRadii = {{0, 0, 0, 0}, {8, 8, 8, 8}, {0, 12, 4, 20}};
+        float[][] insetRadii = {{0, 0, 0, 0}, {12, 12, 12, 12}, {12, 16, 20, 24}};
+        int[][] offsets = {{0, 0}, {3, 5}, {-4, 2}};
+        int[] clips = {ShadowGeometry.CLIP_NONE, ShadowGeometry.CLIP_LEFT | ShadowGeometry.CLIP_TOP};
+        List<ShadowSpec> specs = new ArrayList<>();
+        for (int inset = 0; inset < 2; inset++) {
+            for (float[] radius : inset == 0 ? outerRadii : insetRadii) {
+                for (int[] offset : offsets) {
+                    for (int spread = 0; spread <= 4; spread += 4) {
+                        for (int clip : inset == 0 ? clips : new int[]{ShadowGeometry.CLIP_NONE}) {
+                            ShadowSpec spec = new ShadowSpec(96, 72);
+                            spec.shadowType = ShadowSpec.TYPE_HARD;
+                            spec.shadowInset = inset == 1;
+                            spec.shadowColor = 0x80FF5722;
+                            spec.shadowBlur = 8;
+                            spec.shadowSpread = spread;
+                            spec.shadowDx = offset[0];
+                            spec.shadowDy = offset[1];
+                            spec.shadowClip = clip;
+                            spec.setRadius(radius[0], radius[1], radius[2], radius[3]);
+                            spec.borderThickness = spread / 2;
+                            spec.fillColor = 0xFFFFFFFF;
+                            specs.add(spec);
+                        }
+                    }
+                }
+            }
+        }
+        return specs;
+    }
+
+    private static int alpha(int[] pixels, ShadowSpec spec, int x, int y) {
+        return pixels[y * spec.width + x] >>> 24;
+    }
+
+    private static float coverage(int[] pixels) {
+        float sum = 0;
+        for (int pixel : pixels) {
+            sum += (pixel >>> 24) / 255f;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.xiaogqiong0v0.shadowview.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 包名：com.github.xiaogqiong0v0.shadowview.core
+ * 创建者：xiaoqiong0v0
+ * 邮箱：king-afu@hotmail.com
+ * 时间：2026/10/18 - 9:26
+ * 说明：阴影几何在桌面 JVM 上的验证
+ */
+public class ShadowGeometryTest {
+    private static final float DELTA = 0.0001f;
+
+    @Test
+    public void paddingInsets_offsetMovesShadowToOneSide() {
+        Insets insets = ShadowGeometry.paddingInsets(new Insets(), 4, 6, 3, -2, ShadowGeometry.CLIP_NONE);
+        assertEquals(7, insets.left);
+        assertEquals(12, insets.top);
+        assertEquals(13, insets.right);
+        assertEquals(8, insets.bottom);
+    }
+
+    @Test
+    public void paddingInsets_clippedSidesAreZero() {
+        Insets insets = ShadowGeometry.paddingInsets(new Insets(), 4, 6, 0, 0,
+                ShadowGeometry.CLIP_LEFT | ShadowGeometry.CLIP_BOTTOM);
+        assertEquals(0, insets.left);
+        assertEquals(10, insets.top);
+        assertEquals(10, insets.right);
+        assertEquals(0, insets.bottom);
+    }
+
+    @Test
+    public void innerArea_emptyWhenShadowCoversView() {
+        Bounds bounds = new Bounds();
+        assertTrue(ShadowGeometry.innerArea(bounds, 100, 80, 5, 5, 0, 0, ShadowGeometry.CLIP_NONE));
+        assertEquals(10, bounds.left, DELTA);
+        assertEquals(90, bounds.right, DELTA);
+        assertEquals(70, bounds.bottom, DELTA);
+        assertFalse(ShadowGeometry.innerArea(bounds, 20, 20, 5, 5, 0, 0, ShadowGeometry.CLIP_NONE));
+    }
+
+    @Test
+    public void resolveRadius_percentIsCappedAtFullSize() {
+        assertEquals(12, ShadowGeometry.resolveRadius(12, false, false, 200, 100), DELTA);
+        assertEquals(50, ShadowGeometry.resolveRadius(25, true, true, 200, 100), DELTA);
+        assertEquals(100, ShadowGeometry.resolveRadius(150, true, false, 200, 100), DELTA);
+    }
+
+    @Test
+    public void cornerAngles_scaleDownOverlappingRadii() {
+        CornerAngles angles = new CornerAngles();
+        angles.compute(0, 0, 100, 100, 10, 10, 10, 10);
+        assertEquals(270, angles.angleTopLeft);
+        assertEquals(180, angles.angleLeftTop);
+        assertEquals(10, angles.sizeTopLeft, DELTA);
+        // 半径之和超过边长 按比例缩小到边长
+        angles.compute(0, 0, 100, 40, 40, 40, 40, 40);
+        assertEquals(20, angles.sizeLeftTop, DELTA);
+        assertEquals(40, angles.sizeTopLeft, DELTA);
+        assertEquals(180 + 26, angles.angleLeftTop);
+    }
+
+    @Test
+    public void splitGeometry_outerRing() {
+        SplitGeometry split = new SplitGeometry();
+        split.compute(10, 10, 90, 60, 5, 8, 0, 8, 8);
+        assertFalse(split.isEmpty());
+        SplitGeometry.Corner leftTop = split.leftTop;
+        assertTrue(leftTop.present);
+        assertTrue(leftTop.innerArc);
+        assertEquals(5, leftTop.outerOval.left, DELTA);
+        assertEquals(31, leftTop.outerOval.right, DELTA);
+        assertEquals(18, leftTop.gradientCenterX, DELTA);
+        assertEquals(13, leftTop.gradientRadius, DELTA);
+        assertEquals(8f / 13f, leftTop.gradientStop, DELTA);
+        // 内圆角为 0 外圆角等于厚度 渐变以内角点为圆心
+        SplitGeometry.Corner rightTop = split.rightTop;
+        assertTrue(rightTop.present);
+        assertFalse(rightTop.innerArc);
+        assertEquals(90, rightTop.innerX, DELTA);
+        assertEquals(10, rightTop.innerY, DELTA);
+        assertEquals(5, rightTop.gradientRadius, DELTA);
+        SplitGeometry.Side top = split.top;
+        assertTrue(top.present);
+        assertEquals(18, top.x0, DELTA);
+        assertEquals(5, top.y0, DELTA);
+        assertEquals(10, top.gradientY0, DELTA);
+        assertEquals(5, top.gradientY1, DELTA);
+    }
+
+    @Test
+    public void splitGeometry_emptyAreaHasNoParts() {
+        SplitGeometry split = new SplitGeometry();
+        split.compute(10, 10, 10, 60, -5, 0, 0, 0, 0);
+        assertTrue(split.isEmpty());
+        assertFalse(split.leftTop.present);
+        assertFalse(split.left.present);
+    }
+}